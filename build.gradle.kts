@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.1"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.safetrust"
@@ -18,11 +19,19 @@ repositories {
 }
 
 dependencies {
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation:3.4.1")
     implementation("io.swagger.core.v3:swagger-annotations:2.2.27")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.1.0")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-protobuf")
+    implementation("org.hibernate.orm:hibernate-micrometer")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     runtimeOnly("com.h2database:h2")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -31,3 +40,163 @@ dependencies {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Load tests and benchmarks that boot the whole application; run explicitly, never part of `build`.
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("threadModeBenchmark") {
+    group = "verification"
+    description = "Compares platform-thread and virtual-thread request handling under load."
+    classpath = loadtest.runtimeClasspath
+    mainClass = "org.safetrust.managecontacts.loadtest.ThreadModeBenchmark"
+    args(
+        project.findProperty("concurrency") ?: "1024",
+        project.findProperty("seconds") ?: "20",
+        layout.buildDirectory.file("reports/loadtest/thread-modes.json").get().asFile.path
+    )
+}
+
+tasks.register<JavaExec>("dbLimiterBenchmark") {
+    group = "verification"
+    description = "Compares unbounded database access with the adaptive concurrency limiter."
+    classpath = loadtest.runtimeClasspath
+    mainClass = "org.safetrust.managecontacts.loadtest.DbLimiterBenchmark"
+    maxHeapSize = "4g"
+    args(
+        project.findProperty("rows") ?: "200000",
+        project.findProperty("concurrency") ?: "512",
+        project.findProperty("seconds") ?: "20",
+        layout.buildDirectory.file("reports/loadtest/db-limiter.json").get().asFile.path
+    )
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Seeds synthetic contacts and drives read, search and write workloads."
+    classpath = loadtest.runtimeClasspath
+    mainClass = "org.safetrust.managecontacts.loadtest.ContactLoadTest"
+    maxHeapSize = "6g"
+    args(
+        project.findProperty("rows") ?: "1000000",
+        project.findProperty("concurrency") ?: "256",
+        project.findProperty("seconds") ?: "30",
+        layout.buildDirectory.file("reports/loadtest/load-test.json").get().asFile.path
+    )
+}
+
+// JMH micro-benchmarks in src/jmh: ./gradlew jmh [-Pjmh.includes=SerializationBenchmark]
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+    (project.findProperty("jmh.includes") as String?)?.let { includes = listOf(it) }
+}
+
+// Fast startup: seed from a binary snapshot (profile "snapshot"), optionally with a CDS archive
+// and Spring AOT. ./gradlew startupBenchmark compares it with replaying SQL scripts.
+val seedSnapshotFile = layout.buildDirectory.file("snapshot/seed/contacts.snapshot")
+val cdsDir = layout.buildDirectory.dir("cds")
+val cdsArchiveFile = cdsDir.map { it.file("application.jsa") }
+val extractedJar = cdsDir.map { it.file("application/" + tasks.bootJar.get().archiveFileName.get()) }
+val javaLauncher = javaToolchains.launcherFor { languageVersion = java.toolchain.languageVersion }
+
+val seedSnapshot by tasks.registering(JavaExec::class) {
+    group = "build"
+    description = "Writes the seed contacts as a binary snapshot for the snapshot profile."
+    classpath = loadtest.runtimeClasspath
+    mainClass = "org.safetrust.managecontacts.loadtest.SnapshotExport"
+    outputs.file(seedSnapshotFile)
+    args(seedSnapshotFile.get().asFile.path, project.findProperty("extraRows") ?: "0")
+}
+
+tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
+    val profiles = mutableListOf<String>()
+    // ./gradlew bootRun -PvirtualThreads runs on virtual threads and reports carrier pinning.
+    if (project.hasProperty("virtualThreads")) {
+        profiles += "virtual"
+        jvmArgs("-Djdk.tracePinnedThreads=short")
+    }
+    // ./gradlew bootRun -Psnapshot seeds from the binary snapshot instead of data.sql.
+    if (project.hasProperty("snapshot")) {
+        profiles += "snapshot"
+        dependsOn(seedSnapshot)
+        systemProperty("contact.snapshot.location", "file:" + seedSnapshotFile.get().asFile.path)
+    }
+    if (profiles.isNotEmpty()) {
+        systemProperty("spring.profiles.active", profiles.joinToString(","))
+    }
+}
+
+// ./gradlew bootJar -Psnapshot packages the snapshot as classpath:seed/contacts.snapshot.
+if (project.hasProperty("snapshot")) {
+    tasks.bootJar {
+        from(seedSnapshot) { into("BOOT-INF/classes/seed") }
+    }
+}
+
+// ./gradlew bootJar -Paot adds Spring AOT-generated bean definitions for the snapshot profile;
+// they are only used when the application is started with -Dspring.aot.enabled=true.
+if (project.hasProperty("aot")) {
+    apply(plugin = "org.springframework.boot.aot")
+    tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+        systemProperty("spring.profiles.active", "snapshot")
+    }
+}
+
+val extractBootJar by tasks.registering(Exec::class) {
+    group = "build"
+    description = "Extracts the boot jar into the jar-plus-lib layout a CDS archive requires."
+    val destination = cdsDir.map { it.dir("application") }
+    inputs.file(tasks.bootJar.flatMap { it.archiveFile })
+    outputs.dir(destination)
+    doFirst { delete(destination) }
+    executable(javaLauncher.get().executablePath.asFile.path)
+    args(
+        "-Djarmode=tools", "-jar", tasks.bootJar.get().archiveFile.get().asFile.path,
+        "extract", "--destination", destination.get().asFile.path
+    )
+}
+
+val cdsArchive by tasks.registering(Exec::class) {
+    group = "build"
+    description = "Records a CDS archive of the classes loaded while the application starts."
+    dependsOn(extractBootJar, seedSnapshot)
+    outputs.file(cdsArchiveFile)
+    executable(javaLauncher.get().executablePath.asFile.path)
+    args("-XX:ArchiveClassesAtExit=" + cdsArchiveFile.get().asFile.path)
+    args("-Dspring.context.exit=onRefresh")
+    if (project.hasProperty("aot")) {
+        args("-Dspring.aot.enabled=true")
+    }
+    args(
+        "-jar", extractedJar.get().asFile.path,
+        "--spring.profiles.active=snapshot",
+        "--contact.snapshot.location=file:" + seedSnapshotFile.get().asFile.path,
+        "--server.port=0"
+    )
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "verification"
+    description = "Compares startup time of SQL-script seeding with the snapshot, CDS and AOT paths."
+    dependsOn(cdsArchive)
+    classpath = loadtest.runtimeClasspath
+    mainClass = "org.safetrust.managecontacts.loadtest.StartupBenchmark"
+    args(
+        project.findProperty("rows") ?: "100000",
+        project.findProperty("runs") ?: "5",
+        layout.buildDirectory.file("reports/startup/startup.json").get().asFile.path,
+        extractedJar.get().asFile.path,
+        cdsArchiveFile.get().asFile.path,
+        project.hasProperty("aot").toString()
+    )
+}
@@ -0,0 +1,160 @@
+package org.safetrust.managecontacts.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.safetrust.managecontacts.ManageContactsApplication;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.entity.ContactKeys;
+import org.safetrust.managecontacts.search.ContactSearchIndex;
+import org.safetrust.managecontacts.search.EmailBloomFilter;
+import org.safetrust.managecontacts.service.ContactCountTracker;
+import org.safetrust.managecontacts.service.ContactService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Benchmarks the {@link ContactService} hot paths against an embedded H2 database seeded with a
+ * configurable number of synthetic contacts. Admission control, the database concurrency limiter
+ * and write-behind are off, so the benchmark measures the service itself rather than load
+ * shedding or queueing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContactServiceBenchmark {
+  private static final String[] FIRST_NAMES = {
+    "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David",
+    "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah"
+  };
+  private static final String[] LAST_NAMES = {
+    "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+    "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore"
+  };
+  private static final String[] KEYWORDS = {"smith", "jen", "garcia", "linda.m", "555-01", "elm st"};
+  private static final int SEED_BATCH_SIZE = 10_000;
+
+  @Param({"10000", "1000000"})
+  public int rows;
+
+  private ConfigurableApplicationContext context;
+  private ContactService contactService;
+  private long[] ids;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(ManageContactsApplication.class)
+            .properties(
+                "spring.main.web-application-type=none",
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "contact.admission.enabled=false",
+                "contact.db-limiter.enabled=false",
+                "contact.write-behind.enabled=false",
+                "logging.level.org.safetrust=WARN")
+            .run();
+    contactService = context.getBean(ContactService.class);
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    seed(jdbcTemplate, rows);
+    context.getBean(ContactSearchIndex.class).rebuild();
+    context.getBean(EmailBloomFilter.class).rebuild();
+    context.getBean(ContactCountTracker.class).refresh();
+    ids =
+        jdbcTemplate.queryForList("SELECT id FROM Contact", Long.class).stream()
+            .mapToLong(Long::longValue)
+            .toArray();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object getContactById() {
+    return contactService.getContactById(randomId(), null);
+  }
+
+  @Benchmark
+  public Object searchContacts() {
+    String keyword = KEYWORDS[ThreadLocalRandom.current().nextInt(KEYWORDS.length)];
+    Pageable pageable = PageRequest.of(0, 10);
+    return contactService.searchContacts(keyword, pageable);
+  }
+
+  @Benchmark
+  public Object saveContact() {
+    return contactService.saveContact(
+        syntheticContact(new SplittableRandom(ThreadLocalRandom.current().nextLong())));
+  }
+
+  @Benchmark
+  public Object updateContact() {
+    Contact update =
+        syntheticContact(new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    return contactService.updateContact(randomId(), update, null);
+  }
+
+  private long randomId() {
+    return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+  }
+
+  /**
+   * Inserts synthetic contacts with plain JDBC batches, which is much faster than the API. The
+   * lookup keys are filled in as the service would, so email and phone lookups hit the index.
+   */
+  static void seed(JdbcTemplate jdbcTemplate, int rows) {
+    SplittableRandom random = new SplittableRandom(42);
+    List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+    for (int i = 0; i < rows; i++) {
+      Contact contact = syntheticContact(random);
+      batch.add(
+          new Object[] {
+            contact.getName(),
+            contact.getEmail(),
+            contact.getAddress(),
+            contact.getTelephoneNumber(),
+            contact.getPostalAddress(),
+            ContactKeys.email(contact.getEmail()),
+            ContactKeys.phone(contact.getTelephoneNumber())
+          });
+      if (batch.size() == SEED_BATCH_SIZE || i == rows - 1) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO Contact (id, name, email, address, telephone_number, postal_address,"
+                + " email_key, phone_key, version)"
+                + " VALUES (NEXT VALUE FOR contact_seq, ?, ?, ?, ?, ?, ?, ?, 0)",
+            batch);
+        batch.clear();
+      }
+    }
+  }
+
+  static Contact syntheticContact(SplittableRandom random) {
+    String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+    String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    int n = random.nextInt(1_000_000);
+    Contact contact = new Contact();
+    contact.setName(first + " " + last);
+    contact.setEmail((first + "." + last + n + "@example.com").toLowerCase());
+    contact.setAddress(random.nextInt(1, 9999) + " Elm St");
+    contact.setTelephoneNumber(String.format("555-%02d-%05d", random.nextInt(100), n % 100_000));
+    contact.setPostalAddress("P.O. Box " + random.nextInt(1, 9999));
+    return contact;
+  }
+}
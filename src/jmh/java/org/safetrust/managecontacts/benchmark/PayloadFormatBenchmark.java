@@ -0,0 +1,117 @@
+package org.safetrust.managecontacts.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.safetrust.managecontacts.config.ContactProtobufHttpMessageConverter;
+import org.safetrust.managecontacts.entity.Contact;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks encoding and decoding a contact page in each supported payload format: JSON, CBOR,
+ * Smile and Protobuf. The encoded size of every page is reported as the {@code payloadBytes}
+ * secondary result, so runs report both CPU cost and payload size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadFormatBenchmark {
+
+  @Param({"json", "cbor", "smile", "protobuf"})
+  public String format;
+
+  @Param({"10", "100", "1000"})
+  public int pageSize;
+
+  private PagedModel<Contact> page;
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private byte[] encoded;
+
+  /** The page shape the API returns, as decoded by a client. */
+  public record ContactPage(List<Contact> content, PagedModel.PageMetadata page) {}
+
+  @Setup
+  public void setUp() throws IOException {
+    SplittableRandom random = new SplittableRandom(42);
+    List<Contact> contacts = new ArrayList<>(pageSize);
+    for (long i = 1; i <= pageSize; i++) {
+      Contact contact = ContactServiceBenchmark.syntheticContact(random);
+      contact.setId(i);
+      contact.setVersion(0L);
+      contacts.add(contact);
+    }
+    page = new PagedModel<>(new PageImpl<>(contacts, PageRequest.of(0, pageSize), 1_000_000));
+
+    ObjectMapper mapper = mapper(format);
+    if (format.equals("protobuf")) {
+      ProtobufSchema schema =
+          new ContactProtobufHttpMessageConverter(mapper).schemaFor(PagedModel.class);
+      writer = mapper.writer(schema);
+      reader = mapper.readerFor(ContactPage.class).with(schema);
+    } else {
+      writer = mapper.writer();
+      reader = mapper.readerFor(ContactPage.class);
+    }
+    encoded = writer.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] encode(PayloadSize size) throws IOException {
+    byte[] bytes = writer.writeValueAsBytes(page);
+    size.payloadBytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public ContactPage decode(PayloadSize size) throws IOException {
+    size.payloadBytes = encoded.length;
+    return reader.readValue(encoded);
+  }
+
+  /** Carries the encoded page size into the results, next to the timings. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class PayloadSize {
+    /** The size of one encoded page; assigned, not summed, so it reads as bytes per page. */
+    public long payloadBytes;
+  }
+
+  private static ObjectMapper mapper(String format) {
+    JsonFactory factory =
+        switch (format) {
+          case "json" -> new JsonFactory();
+          case "cbor" -> new CBORFactory();
+          case "smile" -> new SmileFactory();
+          case "protobuf" -> new ProtobufFactory();
+          default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+    return Jackson2ObjectMapperBuilder.json()
+        .factory(factory)
+        .featuresToEnable(JsonGenerator.Feature.IGNORE_UNKNOWN)
+        .build();
+  }
+}
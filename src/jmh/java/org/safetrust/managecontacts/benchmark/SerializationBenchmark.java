@@ -0,0 +1,56 @@
+package org.safetrust.managecontacts.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.safetrust.managecontacts.entity.Contact;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks Jackson serialization of a contact page in the {@link PagedModel} shape the API
+ * returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int pageSize;
+
+  private ObjectMapper objectMapper;
+  private PagedModel<Contact> page;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    SplittableRandom random = new SplittableRandom(42);
+    List<Contact> contacts = new ArrayList<>(pageSize);
+    for (long i = 1; i <= pageSize; i++) {
+      Contact contact = ContactServiceBenchmark.syntheticContact(random);
+      contact.setId(i);
+      contact.setVersion(0L);
+      contacts.add(contact);
+    }
+    page = new PagedModel<>(new PageImpl<>(contacts, PageRequest.of(0, pageSize), 1_000_000));
+  }
+
+  @Benchmark
+  public byte[] serializePage() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(page);
+  }
+}
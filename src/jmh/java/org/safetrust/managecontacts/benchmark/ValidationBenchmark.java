@@ -0,0 +1,54 @@
+package org.safetrust.managecontacts.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.safetrust.managecontacts.entity.Contact;
+
+/** Benchmarks Bean Validation of a contact, including the telephone number pattern. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+  private ValidatorFactory validatorFactory;
+  private Validator validator;
+  private Contact valid;
+  private Contact invalid;
+
+  @Setup
+  public void setUp() {
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    valid = ContactServiceBenchmark.syntheticContact(new SplittableRandom(42));
+    invalid = new Contact(valid);
+    invalid.setEmail("not-an-email");
+    invalid.setTelephoneNumber("call me maybe");
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<Contact>> validateValidContact() {
+    return validator.validate(valid);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<Contact>> validateInvalidContact() {
+    return validator.validate(invalid);
+  }
+}
@@ -0,0 +1,211 @@
+package org.safetrust.managecontacts.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.safetrust.managecontacts.ManageContactsApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * End-to-end load test of {@code /api/contact}.
+ *
+ * <p>Boots the application on a random port with its embedded H2 database, seeds it with synthetic
+ * contacts through the streaming import endpoint, then drives read-heavy, search-heavy and
+ * write-heavy workloads with {@link HttpLoadDriver}. Throughput, p50/p99/p99.9 latency and error
+ * rates are printed and written as JSON. No external services are needed.
+ *
+ * <p>Usage: {@code ./gradlew loadTest [-Prows=1000000] [-Pconcurrency=256] [-Pseconds=30]}
+ */
+public final class ContactLoadTest {
+  private static final String API = "/api/contact";
+  private static final long SEED_CHUNK = 250_000;
+
+  /** The operations a workload mixes. */
+  enum Operation {
+    GET_BY_ID,
+    LIST,
+    SEARCH,
+    CREATE,
+    UPDATE
+  }
+
+  /** A workload is a weighted mix of operations; the weights of each workload add up to 100. */
+  enum Workload {
+    READ_HEAVY(80, 10, 5, 0, 5),
+    SEARCH_HEAVY(20, 10, 70, 0, 0),
+    WRITE_HEAVY(20, 0, 0, 50, 30);
+
+    private final int[] weights;
+
+    Workload(int... weights) {
+      this.weights = weights;
+    }
+
+    Operation pick(ThreadLocalRandom random) {
+      int roll = random.nextInt(100);
+      for (int i = 0; i < weights.length; i++) {
+        roll -= weights[i];
+        if (roll < 0) {
+          return Operation.values()[i];
+        }
+      }
+      return Operation.GET_BY_ID;
+    }
+  }
+
+  private ContactLoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    long rows = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+    int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+    Path report = Path.of(args.length > 3 ? args[3] : "build/reports/loadtest/load-test.json");
+
+    HttpLoadDriver driver = new HttpLoadDriver();
+    try (ConfigurableApplicationContext context = start()) {
+      String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+      long seedStart = System.nanoTime();
+      long imported = seed(driver, base, rows);
+      double seedSeconds = (System.nanoTime() - seedStart) / 1e9;
+      System.out.printf("Seeded %d contacts in %.1f s%n", imported, seedSeconds);
+
+      // Ids come from a pooled sequence and are not contiguous, so read the real ones.
+      long[] ids =
+          context.getBean(JdbcTemplate.class).queryForList("SELECT id FROM Contact", Long.class)
+              .stream()
+              .mapToLong(Long::longValue)
+              .toArray();
+
+      SyntheticContacts writes = new SyntheticContacts(7);
+      List<HttpLoadDriver.Result> results = new ArrayList<>();
+      for (Workload workload : Workload.values()) {
+        HttpLoadDriver.Result result =
+            driver.run(
+                workload.name().toLowerCase().replace('_', '-'),
+                concurrency,
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(seconds),
+                random -> request(base, workload.pick(random), random, ids, writes));
+        System.out.println(result);
+        results.add(result);
+      }
+
+      Map<String, Object> dataset = new LinkedHashMap<>();
+      dataset.put("requestedRows", rows);
+      dataset.put("importedRows", imported);
+      dataset.put("seedSeconds", seedSeconds);
+      Map<String, Object> document = new LinkedHashMap<>();
+      document.put("benchmark", "contact-load-test");
+      document.put("javaVersion", Runtime.version().toString());
+      document.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+      document.put("dataset", dataset);
+      document.put("results", results);
+      Files.createDirectories(report.toAbsolutePath().getParent());
+      new ObjectMapper()
+          .enable(SerializationFeature.INDENT_OUTPUT)
+          .writeValue(report.toFile(), document);
+      System.out.println("Report written to " + report.toAbsolutePath());
+    }
+  }
+
+  private static ConfigurableApplicationContext start() {
+    return new SpringApplicationBuilder(ManageContactsApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.jpa.properties.hibernate.generate_statistics=false",
+            "contact.admission.enabled=false",
+            "contact.db-limiter.enabled=false",
+            "logging.level.org.safetrust=WARN")
+        .run();
+  }
+
+  /**
+   * Seeds the database through the import endpoint, in chunks so progress is visible. Each chunk
+   * is generated into a temporary NDJSON file and streamed from disk, so memory stays flat.
+   */
+  static long seed(HttpLoadDriver driver, String base, long rows)
+      throws IOException, InterruptedException {
+    SyntheticContacts contacts = new SyntheticContacts(42);
+    ObjectMapper objectMapper = new ObjectMapper();
+    Path file = Files.createTempFile("contacts", ".ndjson");
+    long imported = 0;
+    try {
+      for (long done = 0; done < rows; done += SEED_CHUNK) {
+        try (OutputStream out = Files.newOutputStream(file)) {
+          contacts.writeNdjson(out, Math.min(SEED_CHUNK, rows - done));
+        }
+        HttpResponse<String> response =
+            driver
+                .client()
+                .send(
+                    HttpRequest.newBuilder(URI.create(base + API + "/import"))
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofFile(file))
+                        .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+          throw new IllegalStateException(
+              "Import failed with " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode importReport = objectMapper.readTree(response.body());
+        imported += importReport.path("imported").asLong();
+        System.out.printf(
+            "Imported %d/%d contacts (%d rejected)%n",
+            imported, rows, importReport.path("rejected").asLong());
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+    return imported;
+  }
+
+  private static HttpRequest request(
+      String base,
+      Operation operation,
+      ThreadLocalRandom random,
+      long[] ids,
+      SyntheticContacts writes) {
+    return switch (operation) {
+      case GET_BY_ID -> get(base + API + "/" + ids[random.nextInt(ids.length)]);
+      case LIST -> get(base + API + "?page=" + random.nextInt(100) + "&size=20");
+      case SEARCH ->
+          get(
+              base
+                  + API
+                  + "/search?size=20&searchKeyword="
+                  + URLEncoder.encode(writes.keyword(random), StandardCharsets.UTF_8));
+      case CREATE ->
+          HttpRequest.newBuilder(URI.create(base + API))
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofString(writes.nextJson()))
+              .build();
+      case UPDATE ->
+          HttpRequest.newBuilder(URI.create(base + API + "/" + ids[random.nextInt(ids.length)]))
+              .header("Content-Type", "application/json")
+              .PUT(HttpRequest.BodyPublishers.ofString(writes.nextJson()))
+              .build();
+    };
+  }
+
+  private static HttpRequest get(String url) {
+    return HttpRequest.newBuilder(URI.create(url)).GET().build();
+  }
+}
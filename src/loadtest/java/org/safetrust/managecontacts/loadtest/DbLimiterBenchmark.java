@@ -0,0 +1,131 @@
+package org.safetrust.managecontacts.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.safetrust.managecontacts.ManageContactsApplication;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares unbounded database access with the adaptive database concurrency limiter under
+ * overload.
+ *
+ * <p>Boots the application once with the limiter disabled and once with it enabled, with the cache,
+ * search index and admission control off so every request reaches the database through a pool of
+ * ten connections. Each run seeds synthetic contacts, then drives id lookups and keyword searches
+ * concurrently, so the cheap lookups compete with table scans. Goodput (successful requests per
+ * second) and latency are reported per workload; with the limiter, overflowing calls fail fast
+ * with 503 and count as errors. Results are printed and written as JSON.
+ *
+ * <p>Usage: {@code ./gradlew dbLimiterBenchmark [-Prows=200000] [-Pconcurrency=512]
+ * [-Pseconds=20]}
+ */
+public final class DbLimiterBenchmark {
+
+  private DbLimiterBenchmark() {}
+
+  /** The outcome of one mode: both workloads and the limit the limiter settled on. */
+  record Result(
+      String mode, HttpLoadDriver.Result lookups, HttpLoadDriver.Result searches, int finalLimit) {}
+
+  public static void main(String[] args) throws Exception {
+    long rows = args.length > 0 ? Long.parseLong(args[0]) : 200_000;
+    int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+    Path report = Path.of(args.length > 3 ? args[3] : "build/reports/loadtest/db-limiter.json");
+
+    HttpLoadDriver driver = new HttpLoadDriver();
+    List<Result> results = new ArrayList<>();
+    for (boolean limited : new boolean[] {false, true}) {
+      try (ConfigurableApplicationContext context = start(limited)) {
+        String base =
+            "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        ContactLoadTest.seed(driver, base, rows);
+        String mode = limited ? "adaptive-limit" : "unbounded";
+        Duration warmup = Duration.ofSeconds(5);
+        Duration duration = Duration.ofSeconds(seconds);
+
+        AtomicReference<HttpLoadDriver.Result> searches = new AtomicReference<>();
+        Thread searchLoad =
+            Thread.ofPlatform()
+                .start(
+                    () -> {
+                      try {
+                        searches.set(
+                            driver.run(
+                                mode + " search",
+                                concurrency / 2,
+                                warmup,
+                                duration,
+                                random -> get(base, "/search?searchKeyword=son&size=10")));
+                      } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                      }
+                    });
+        HttpLoadDriver.Result lookups =
+            driver.run(
+                mode + " lookup",
+                concurrency - concurrency / 2,
+                warmup,
+                duration,
+                random -> get(base, "/" + (1 + random.nextLong(rows))));
+        searchLoad.join();
+
+        Result result =
+            new Result(
+                mode,
+                lookups,
+                searches.get(),
+                context.getBean(DatabaseConcurrencyLimiter.class).limit());
+        System.out.println(result.lookups());
+        System.out.println(result.searches());
+        if (limited) {
+          System.out.println("Learned limit: " + result.finalLimit());
+        }
+        results.add(result);
+      }
+    }
+
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put("benchmark", "db-limiter");
+    document.put("javaVersion", Runtime.version().toString());
+    document.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+    document.put("rows", rows);
+    document.put("results", results);
+    Files.createDirectories(report.toAbsolutePath().getParent());
+    new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(report.toFile(), document);
+    System.out.println("Report written to " + report.toAbsolutePath());
+  }
+
+  private static ConfigurableApplicationContext start(boolean limited) {
+    return new SpringApplicationBuilder(ManageContactsApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.threads.virtual.enabled=true",
+            "spring.datasource.hikari.maximum-pool-size=10",
+            "spring.jpa.properties.hibernate.generate_statistics=false",
+            "contact.cache.enabled=false",
+            "contact.search.index.enabled=false",
+            "contact.admission.enabled=false",
+            "contact.db-limiter.enabled=" + limited,
+            "logging.level.org.safetrust=WARN")
+        .run();
+  }
+
+  private static HttpRequest get(String base, String path) {
+    return HttpRequest.newBuilder(URI.create(base + "/api/contact" + path)).GET().build();
+  }
+}
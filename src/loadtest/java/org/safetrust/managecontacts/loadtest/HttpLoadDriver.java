@@ -0,0 +1,145 @@
+package org.safetrust.managecontacts.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load generator built on the JDK HttpClient. A fixed number of virtual-thread
+ * workers each send one request at a time, as fast as responses come back, for a fixed duration.
+ */
+public final class HttpLoadDriver {
+  private final HttpClient client;
+
+  public HttpLoadDriver() {
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+  }
+
+  public HttpClient client() {
+    return client;
+  }
+
+  /**
+   * The outcome of one load run.
+   *
+   * @param name the name of the run.
+   * @param concurrency the number of concurrent workers.
+   * @param requests the number of successful requests in the measured window.
+   * @param errors the number of failed requests in the measured window.
+   * @param seconds the length of the measured window.
+   * @param throughput successful requests per second.
+   * @param p50Ms the median latency in milliseconds.
+   * @param p99Ms the 99th percentile latency in milliseconds.
+   * @param p999Ms the 99.9th percentile latency in milliseconds.
+   * @param errorRate the ratio of failed requests to all requests.
+   */
+  public record Result(
+      String name,
+      int concurrency,
+      long requests,
+      long errors,
+      double seconds,
+      double throughput,
+      double p50Ms,
+      double p99Ms,
+      double p999Ms,
+      double errorRate) {
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%-28s c=%-5d %10.1f req/s  p50=%8.2f ms  p99=%8.2f ms  p99.9=%8.2f ms  errors=%.2f%%",
+          name, concurrency, throughput, p50Ms, p99Ms, p999Ms, errorRate * 100.0);
+    }
+  }
+
+  /**
+   * Runs a closed-loop load test. Requests completing during the warm-up are not measured.
+   *
+   * @param name the name of the run, used in the result.
+   * @param concurrency the number of concurrent workers.
+   * @param warmup how long to run before measuring.
+   * @param duration how long to measure.
+   * @param requests builds the next request for a worker from its random source.
+   * @return the measured Result.
+   * @throws InterruptedException if interrupted while waiting for the workers.
+   */
+  public Result run(
+      String name,
+      int concurrency,
+      Duration warmup,
+      Duration duration,
+      Function<ThreadLocalRandom, HttpRequest> requests)
+      throws InterruptedException {
+    LatencyRecorder recorder = new LatencyRecorder();
+    long measureFrom = System.nanoTime() + warmup.toNanos();
+    long measureUntil = measureFrom + duration.toNanos();
+
+    List<Thread> workers = new ArrayList<>(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      workers.add(
+          Thread.ofVirtual()
+              .name("load-", i)
+              .start(
+                  () -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < measureUntil) {
+                      HttpRequest request = requests.apply(random);
+                      long start = System.nanoTime();
+                      boolean ok;
+                      try {
+                        HttpResponse<Void> response =
+                            client.send(request, HttpResponse.BodyHandlers.discarding());
+                        ok = isSuccess(response.statusCode());
+                      } catch (IOException ex) {
+                        ok = false;
+                      } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                      }
+                      if (start >= measureFrom && System.nanoTime() <= measureUntil) {
+                        if (ok) {
+                          recorder.record(System.nanoTime() - start);
+                        } else {
+                          recorder.recordError();
+                        }
+                      }
+                    }
+                  }));
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    double seconds = duration.toMillis() / 1000.0;
+    long all = recorder.count() + recorder.errors();
+    return new Result(
+        name,
+        concurrency,
+        recorder.count(),
+        recorder.errors(),
+        seconds,
+        recorder.count() / seconds,
+        recorder.percentileMillis(50),
+        recorder.percentileMillis(99),
+        recorder.percentileMillis(99.9),
+        all == 0 ? 0.0 : (double) recorder.errors() / all);
+  }
+
+  /** Not-found answers are legitimate outcomes of random lookups; everything else 4xx/5xx fails. */
+  private static boolean isSuccess(int status) {
+    return status < 400 || status == 404;
+  }
+}
@@ -0,0 +1,83 @@
+package org.safetrust.managecontacts.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets: every power of two of microseconds is split
+ * into 32 linear sub-buckets, so reported percentiles are within about 3% of the true value.
+ */
+public final class LatencyRecorder {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder total = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+
+  /**
+   * Records one successful request.
+   *
+   * @param nanos the request latency in nanoseconds.
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(indexOf(Math.max(1L, TimeUnit.NANOSECONDS.toMicros(nanos))));
+    total.increment();
+  }
+
+  /** Records one failed request. */
+  public void recordError() {
+    errors.increment();
+  }
+
+  public long count() {
+    return total.sum();
+  }
+
+  public long errors() {
+    return errors.sum();
+  }
+
+  /**
+   * Returns the latency at the given percentile.
+   *
+   * @param percentile the percentile, between 0 and 100.
+   * @return the latency in milliseconds, or 0 if nothing was recorded.
+   */
+  public double percentileMillis(double percentile) {
+    long count = count();
+    if (count == 0) {
+      return 0.0;
+    }
+    long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return upperBoundMicros(i) / 1000.0;
+      }
+    }
+    return upperBoundMicros(BUCKETS - 1) / 1000.0;
+  }
+
+  private static int indexOf(long micros) {
+    int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    if (exponent < SUB_BUCKET_BITS) {
+      return (int) micros;
+    }
+    int shift = exponent - SUB_BUCKET_BITS;
+    int sub = (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+    return (shift + 1) * SUB_BUCKETS + sub;
+  }
+
+  private static long upperBoundMicros(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    int sub = index % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+  }
+}
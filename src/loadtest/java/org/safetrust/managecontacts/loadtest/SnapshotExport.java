@@ -0,0 +1,146 @@
+package org.safetrust.managecontacts.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.safetrust.managecontacts.ManageContactsApplication;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.snapshot.ContactSnapshot;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Writes the seed contacts as a {@link ContactSnapshot} for the {@code snapshot} profile.
+ *
+ * <p>Boots the application without a web server, so {@code data.sql} is replayed as usual, and
+ * dumps the resulting rows. Optionally appends synthetic contacts to produce a larger snapshot.
+ *
+ * <p>Usage: {@code ./gradlew seedSnapshot [-PextraRows=0]}
+ */
+public final class SnapshotExport {
+  private static final int ROWS_PER_INSERT = 1_000;
+
+  private SnapshotExport() {}
+
+  public static void main(String[] args) throws Exception {
+    Path output = Path.of(args.length > 0 ? args[0] : "build/snapshot/seed/contacts.snapshot");
+    long extraRows = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    try (ConfigurableApplicationContext context =
+            new SpringApplicationBuilder(ManageContactsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                    "spring.datasource.url=jdbc:h2:mem:snapshot-export;DB_CLOSE_DELAY=-1",
+                    "contact.search.index.enabled=false",
+                    "contact.access-log.enabled=false",
+                    "logging.level.org.safetrust=WARN")
+                .run();
+        ContactSnapshot.Writer writer = ContactSnapshot.writer(Files.newOutputStream(output))) {
+      long maxId = writeSeedContacts(context.getBean(JdbcTemplate.class), writer);
+      writeSynthetic(writer, maxId, extraRows);
+      System.out.println("Wrote " + writer.count() + " contacts to " + output.toAbsolutePath());
+    }
+  }
+
+  private static long writeSeedContacts(JdbcTemplate jdbcTemplate, ContactSnapshot.Writer writer) {
+    long[] maxId = {0};
+    jdbcTemplate.query(
+        "SELECT id, version, name, email, address, telephone_number, postal_address"
+            + " FROM Contact ORDER BY id",
+        rs -> {
+          Contact contact =
+              new Contact(
+                  rs.getLong(1),
+                  rs.getString(3),
+                  rs.getString(4),
+                  rs.getString(5),
+                  rs.getString(6),
+                  rs.getString(7));
+          contact.setVersion(rs.getLong(2));
+          try {
+            writer.write(contact);
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+          maxId[0] = contact.getId();
+        });
+    return maxId[0];
+  }
+
+  /**
+   * Writes {@code count} synthetic contacts with ids following {@code afterId}.
+   *
+   * @param writer the snapshot writer.
+   * @param afterId the highest id already written.
+   * @param count the number of contacts to add.
+   * @throws IOException if writing fails.
+   */
+  static void writeSynthetic(ContactSnapshot.Writer writer, long afterId, long count)
+      throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    SyntheticContacts synthetic = new SyntheticContacts(42);
+    for (long i = 1; i <= count; i++) {
+      Contact contact = mapper.readValue(synthetic.nextJson(), Contact.class);
+      contact.setId(afterId + i);
+      contact.setVersion(0L);
+      writer.write(contact);
+    }
+  }
+
+  /**
+   * Writes the same synthetic contacts as {@link #writeSynthetic} as an SQL seed script in the
+   * style of {@code data.sql}: multi-row inserts with ids {@code 1..count}, as in the snapshot, a
+   * restart of {@code contact_seq} past them, and the statement that fills the lookup keys.
+   *
+   * @param out the stream to write to; it is not closed.
+   * @param count the number of contacts to write.
+   * @throws IOException if writing fails.
+   */
+  static void writeSqlScript(OutputStream out, long count) throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    SyntheticContacts synthetic = new SyntheticContacts(42);
+    StringBuilder sql = new StringBuilder(256 * ROWS_PER_INSERT);
+    for (long i = 0; i < count; i++) {
+      Contact contact = mapper.readValue(synthetic.nextJson(), Contact.class);
+      if (i % ROWS_PER_INSERT == 0) {
+        sql.append("INSERT INTO Contact (id, name, email, address, telephone_number,")
+            .append(" postal_address, version)\nVALUES ");
+      } else {
+        sql.append(",\n       ");
+      }
+      sql.append("(")
+          .append(i + 1)
+          .append(", ")
+          .append(literal(contact.getName()))
+          .append(", ")
+          .append(literal(contact.getEmail()))
+          .append(", ")
+          .append(literal(contact.getAddress()))
+          .append(", ")
+          .append(literal(contact.getTelephoneNumber()))
+          .append(", ")
+          .append(literal(contact.getPostalAddress()))
+          .append(", 0)");
+      if (i % ROWS_PER_INSERT == ROWS_PER_INSERT - 1 || i == count - 1) {
+        out.write(sql.append(";\n").toString().getBytes(StandardCharsets.UTF_8));
+        sql.setLength(0);
+      }
+    }
+    String restart = "ALTER SEQUENCE contact_seq RESTART WITH " + (count + 50) + ";\n\n";
+    out.write(restart.getBytes(StandardCharsets.UTF_8));
+    String seed = new ClassPathResource("data.sql").getContentAsString(StandardCharsets.UTF_8);
+    out.write(seed.substring(seed.indexOf("UPDATE Contact")).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String literal(String value) {
+    return value == null ? "NULL" : "'" + value.replace("'", "''") + "'";
+  }
+}
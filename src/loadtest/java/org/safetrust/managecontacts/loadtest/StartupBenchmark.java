@@ -0,0 +1,165 @@
+package org.safetrust.managecontacts.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.safetrust.managecontacts.snapshot.ContactSnapshot;
+
+/**
+ * Compares application startup time with SQL-script seeding against the {@code snapshot} profile,
+ * with and without a CDS archive and Spring AOT.
+ *
+ * <p>Writes the same synthetic contacts once as a {@code data.sql}-style script and once as a
+ * binary snapshot, then starts the extracted boot jar in a fresh JVM per run and measures the wall
+ * time until {@code /actuator/health} answers. Variants whose prerequisites are missing (no CDS
+ * archive, jar built without {@code -Paot}) are skipped. Results are printed and written as JSON.
+ *
+ * <p>Usage: {@code ./gradlew startupBenchmark [-Prows=100000] [-Pruns=5] [-Paot]}
+ */
+public final class StartupBenchmark {
+  private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+  private StartupBenchmark() {}
+
+  /** The JVM options and application arguments of one startup variant. */
+  record Launch(List<String> jvmArgs, List<String> appArgs) {}
+
+  /** The outcome of one startup variant. */
+  record Result(String variant, List<Long> runsMillis, long minMillis, long medianMillis) {}
+
+  public static void main(String[] args) throws Exception {
+    long rows = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+    int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    Path report = Path.of(args.length > 2 ? args[2] : "build/reports/startup/startup.json");
+    Path jar = Path.of(args[3]);
+    Path archive = args.length > 4 ? Path.of(args[4]) : null;
+    boolean aot = args.length > 5 && Boolean.parseBoolean(args[5]);
+
+    Path seeds = Files.createTempDirectory("startup-seeds");
+    Path script = seeds.resolve("seed.sql");
+    Path snapshot = seeds.resolve("contacts.snapshot");
+    try (OutputStream out = Files.newOutputStream(script)) {
+      SnapshotExport.writeSqlScript(out, rows);
+    }
+    try (ContactSnapshot.Writer writer = ContactSnapshot.writer(Files.newOutputStream(snapshot))) {
+      SnapshotExport.writeSynthetic(writer, 0, rows);
+    }
+
+    List<String> snapshotArgs =
+        List.of(
+            "--spring.profiles.active=snapshot", "--contact.snapshot.location=file:" + snapshot);
+    Map<String, Launch> variants = new LinkedHashMap<>();
+    variants.put(
+        "sql-init",
+        new Launch(List.of(), List.of("--spring.sql.init.data-locations=file:" + script)));
+    variants.put("snapshot", new Launch(List.of(), snapshotArgs));
+    if (archive != null && Files.exists(archive)) {
+      List<String> cds = List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:auto");
+      variants.put("snapshot+cds", new Launch(cds, snapshotArgs));
+      if (aot) {
+        List<String> cdsAot = new ArrayList<>(cds);
+        cdsAot.add("-Dspring.aot.enabled=true");
+        variants.put("snapshot+cds+aot", new Launch(cdsAot, snapshotArgs));
+      }
+    } else {
+      System.out.println("No CDS archive at " + archive + ", skipping the CDS variants");
+    }
+
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    List<Result> results = new ArrayList<>();
+    for (Map.Entry<String, Launch> variant : variants.entrySet()) {
+      long[] millis = new long[runs];
+      for (int i = 0; i < runs; i++) {
+        millis[i] = startOnce(client, jar, variant.getValue()).toMillis();
+      }
+      long[] sorted = millis.clone();
+      Arrays.sort(sorted);
+      Result result =
+          new Result(
+              variant.getKey(),
+              Arrays.stream(millis).boxed().toList(),
+              sorted[0],
+              sorted[sorted.length / 2]);
+      System.out.println(result);
+      results.add(result);
+    }
+
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put("benchmark", "startup");
+    document.put("javaVersion", Runtime.version().toString());
+    document.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+    document.put("rows", rows);
+    document.put("results", results);
+    Files.createDirectories(report.toAbsolutePath().getParent());
+    new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(report.toFile(), document);
+    System.out.println("Report written to " + report.toAbsolutePath());
+  }
+
+  /** Starts the application in a new JVM, waits until it is healthy and stops it again. */
+  private static Duration startOnce(HttpClient client, Path jar, Launch launch)
+      throws IOException, InterruptedException {
+    int port = freePort();
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(launch.jvmArgs());
+    command.add("-jar");
+    command.add(jar.toString());
+    command.add("--server.port=" + port);
+    command.add("--logging.level.root=WARN");
+    command.addAll(launch.appArgs());
+
+    HttpRequest health =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+    long start = System.nanoTime();
+    Process process =
+        new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    try {
+      while (true) {
+        if (!process.isAlive()) {
+          throw new IllegalStateException("Application exited with " + process.exitValue());
+        }
+        if (System.nanoTime() - start > STARTUP_TIMEOUT.toNanos()) {
+          throw new IllegalStateException("Application did not start within " + STARTUP_TIMEOUT);
+        }
+        try {
+          if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+            return Duration.ofNanos(System.nanoTime() - start);
+          }
+        } catch (IOException ex) {
+          // Not listening yet.
+        }
+        Thread.sleep(10);
+      }
+    } finally {
+      process.destroy();
+      process.waitFor();
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
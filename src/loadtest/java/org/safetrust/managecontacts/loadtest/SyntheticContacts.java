@@ -0,0 +1,188 @@
+package org.safetrust.managecontacts.loadtest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Deterministic generator of realistic synthetic contacts.
+ *
+ * <p>Names are drawn from a Zipf distribution, so a few names are very common and most are rare, as
+ * in real address books. About one email in five is a near-duplicate of an earlier one (same local
+ * part with a plus tag, a digit or another domain), which exercises search and de-duplication the
+ * way real data does.
+ */
+public final class SyntheticContacts {
+  private static final String[] FIRST_NAMES = {
+    "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David",
+    "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+    "Charles", "Karen", "Christopher", "Lisa", "Daniel", "Nancy", "Matthew", "Betty", "Anthony",
+    "Margaret", "Mark", "Sandra", "Donald", "Ashley", "Steven", "Kimberly", "Paul", "Emily",
+    "Andrew", "Donna", "Joshua", "Michelle", "Kenneth", "Carol", "Kevin", "Amanda", "Brian",
+    "Melissa", "George", "Deborah", "Timothy", "Stephanie", "Nguyen", "Wei", "Aarav", "Fatima",
+    "Yuki", "Olga"
+  };
+  private static final String[] LAST_NAMES = {
+    "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+    "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore",
+    "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark",
+    "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres",
+    "Tran", "Hill", "Flores", "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell",
+    "Mitchell", "Carter", "Roberts", "Pham", "Kumar", "Tanaka", "Ivanova", "Okafor", "Schmidt"
+  };
+  private static final String[] STREETS = {
+    "Main St", "Oak Ave", "Pine Rd", "Maple Dr", "Cedar Ln", "Elm St", "Birch Blvd", "Spruce Way"
+  };
+  private static final String[] CITIES = {
+    "Springfield", "Riverside", "Franklin", "Greenville", "Bristol", "Clinton", "Fairview", "Salem"
+  };
+  private static final String[] DOMAINS = {
+    "example.com", "mail.example.org", "corp.example.net", "example.io"
+  };
+  private static final JsonFactory JSON =
+      JsonFactory.builder().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET).build();
+  private static final int RECENT_EMAILS = 1024;
+  private static final double NEAR_DUPLICATE_RATE = 0.2;
+
+  private final SplittableRandom random;
+  private final Zipf names;
+  private final String[] recentLocalParts = new String[RECENT_EMAILS];
+  private long generated;
+
+  /**
+   * Creates a generator.
+   *
+   * @param seed the random seed; the same seed always yields the same contacts.
+   */
+  public SyntheticContacts(long seed) {
+    this.random = new SplittableRandom(seed);
+    this.names = new Zipf(FIRST_NAMES.length * LAST_NAMES.length, 1.07);
+  }
+
+  /**
+   * Returns the name at the given popularity rank, 0 being the most common.
+   *
+   * @param rank the Zipf rank.
+   * @return the full name.
+   */
+  public static String nameAt(int rank) {
+    return FIRST_NAMES[rank % FIRST_NAMES.length] + " " + LAST_NAMES[rank / FIRST_NAMES.length];
+  }
+
+  /**
+   * Draws a search keyword with the same skew as the generated names.
+   *
+   * @param random the random source.
+   * @return a last name or first name, lower-cased.
+   */
+  public String keyword(RandomGenerator source) {
+    String[] parts = nameAt(names.sample(source)).split(" ");
+    return parts[source.nextInt(parts.length)].toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the next contact as a JSON document. Safe to call from concurrent load workers.
+   *
+   * @return the contact JSON, without id or version.
+   */
+  public synchronized String nextJson() {
+    StringWriter writer = new StringWriter(256);
+    try (JsonGenerator generator = JSON.createGenerator(writer)) {
+      writeNext(generator);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Writes the next contact as a JSON object, without id or version.
+   *
+   * @param generator the generator to write to.
+   * @throws IOException if writing fails.
+   */
+  public synchronized void writeNext(JsonGenerator generator) throws IOException {
+    String name = nameAt(names.sample(random));
+    int slot = (int) (generated++ % RECENT_EMAILS);
+    String email;
+    if (generated > RECENT_EMAILS && random.nextDouble() < NEAR_DUPLICATE_RATE) {
+      email = nearDuplicate(recentLocalParts[random.nextInt(RECENT_EMAILS)]);
+    } else {
+      String local = name.toLowerCase(Locale.ROOT).replace(' ', '.') + random.nextInt(10_000);
+      recentLocalParts[slot] = local;
+      email = local + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+    }
+    generator.writeStartObject();
+    generator.writeStringField("name", name);
+    generator.writeStringField("email", email);
+    generator.writeStringField(
+        "address",
+        (1 + random.nextInt(9_999)) + " " + STREETS[random.nextInt(STREETS.length)]);
+    generator.writeStringField(
+        "telephoneNumber",
+        String.format(
+            "+1 %03d-%03d-%04d",
+            200 + random.nextInt(800), random.nextInt(1_000), random.nextInt(10_000)));
+    generator.writeStringField(
+        "postalAddress",
+        String.format(
+            "%s %05d", CITIES[random.nextInt(CITIES.length)], random.nextInt(100_000)));
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes {@code count} contacts as newline-delimited JSON, the format accepted by the import
+   * endpoint.
+   *
+   * @param out the stream to write to; it is not closed.
+   * @param count the number of contacts to write.
+   * @throws IOException if writing fails.
+   */
+  public void writeNdjson(OutputStream out, long count) throws IOException {
+    try (JsonGenerator generator = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+      generator.setRootValueSeparator(null);
+      for (long i = 0; i < count; i++) {
+        writeNext(generator);
+        generator.writeRaw('\n');
+      }
+    }
+  }
+
+  private String nearDuplicate(String local) {
+    return switch (random.nextInt(3)) {
+      case 0 -> local + "+" + random.nextInt(100) + "@" + DOMAINS[0];
+      case 1 -> local + random.nextInt(10) + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+      default -> local + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+    };
+  }
+
+  /** Zipf sampler over ranks {@code [0, n)} using a precomputed cumulative distribution. */
+  static final class Zipf {
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+      cumulative = new double[n];
+      double sum = 0;
+      for (int rank = 0; rank < n; rank++) {
+        sum += 1.0 / Math.pow(rank + 1, exponent);
+        cumulative[rank] = sum;
+      }
+      for (int rank = 0; rank < n; rank++) {
+        cumulative[rank] /= sum;
+      }
+    }
+
+    int sample(RandomGenerator random) {
+      int index = Arrays.binarySearch(cumulative, random.nextDouble());
+      return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+  }
+}
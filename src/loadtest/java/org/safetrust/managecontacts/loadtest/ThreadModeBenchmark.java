@@ -0,0 +1,107 @@
+package org.safetrust.managecontacts.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.safetrust.managecontacts.ManageContactsApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares platform-thread and virtual-thread request handling at high concurrency.
+ *
+ * <p>Boots the application once per mode on a random port, with the contact cache disabled so
+ * every lookup performs a blocking JPA call, and drives the same mixed workload (70% id lookups,
+ * 20% searches, 10% list pages) against it. Results are printed and written as JSON.
+ *
+ * <p>Usage: {@code ./gradlew threadModeBenchmark [-Pconcurrency=1024] [-Pseconds=20]}
+ */
+public final class ThreadModeBenchmark {
+
+  private ThreadModeBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    Path report = Path.of(args.length > 2 ? args[2] : "build/reports/loadtest/thread-modes.json");
+
+    HttpLoadDriver driver = new HttpLoadDriver();
+    List<HttpLoadDriver.Result> results = new ArrayList<>();
+    for (boolean virtual : new boolean[] {false, true}) {
+      try (ConfigurableApplicationContext context = start(virtual)) {
+        String base =
+            "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        long[] ids = contactIds(driver, base);
+        HttpLoadDriver.Result result =
+            driver.run(
+                virtual ? "virtual-threads" : "platform-threads",
+                concurrency,
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(seconds),
+                random -> {
+                  int pick = random.nextInt(100);
+                  String path;
+                  if (pick < 70) {
+                    path = "/api/contact/" + ids[random.nextInt(ids.length)];
+                  } else if (pick < 90) {
+                    path = "/api/contact/search?searchKeyword=son";
+                  } else {
+                    path = "/api/contact?page=" + random.nextInt(2) + "&size=10";
+                  }
+                  return HttpRequest.newBuilder(URI.create(base + path)).GET().build();
+                });
+        System.out.println(result);
+        results.add(result);
+      }
+    }
+
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put("benchmark", "thread-modes");
+    document.put("javaVersion", Runtime.version().toString());
+    document.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+    document.put("results", results);
+    Files.createDirectories(report.toAbsolutePath().getParent());
+    new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(report.toFile(), document);
+    System.out.println("Report written to " + report.toAbsolutePath());
+  }
+
+  private static ConfigurableApplicationContext start(boolean virtual) {
+    return new SpringApplicationBuilder(ManageContactsApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.threads.virtual.enabled=" + virtual,
+            "spring.datasource.hikari.maximum-pool-size=10",
+            "contact.cache.enabled=false",
+            "contact.admission.enabled=false",
+            "contact.db-limiter.enabled=false",
+            "logging.level.org.safetrust=WARN")
+        .run();
+  }
+
+  private static long[] contactIds(HttpLoadDriver driver, String base) throws Exception {
+    HttpResponse<String> response =
+        driver
+            .client()
+            .send(
+                HttpRequest.newBuilder(URI.create(base + "/api/contact/scroll?size=1000")).build(),
+                HttpResponse.BodyHandlers.ofString());
+    JsonNode content = new ObjectMapper().readTree(response.body()).path("content");
+    long[] ids = new long[content.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = content.get(i).path("id").asLong();
+    }
+    return ids;
+  }
+}
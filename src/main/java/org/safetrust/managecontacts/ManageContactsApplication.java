@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.servers.Server;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @OpenAPIDefinition(
@@ -19,6 +20,7 @@ import org.springframework.data.web.config.EnableSpringDataWebSupport;
                 "API for managing contacts including create, update, delete, and search operations"),
     servers = @Server(url = "http://localhost:8080", description = "Local server"))
 @EnableSpringDataWebSupport(pageSerializationMode = VIA_DTO)
+@EnableScheduling
 public class ManageContactsApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,178 @@
+package org.safetrust.managecontacts.accesslog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asynchronous, sampled access log.
+ *
+ * <p>Request threads only decide whether a request is logged and enqueue one {@link
+ * AccessLogEvent} into a lock-free {@link RingBuffer}. A background writer drains the buffer in
+ * batches and writes one structured line per event to the {@code access} logger, so formatting and
+ * appender I/O never run on the request path. Successful requests are sampled; client and server
+ * errors and requests slower than the threshold are always recorded. If the writer falls behind
+ * and the buffer fills up, events are dropped and counted rather than blocking requests.
+ */
+@Component
+public class AccessLog {
+  private static final Logger accessLogger = LoggerFactory.getLogger("access");
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+  private final boolean enabled;
+  private final RingBuffer<AccessLogEvent> buffer;
+  private final int batchSize;
+  private final double sampleRate;
+  private final long slowThresholdNanos;
+  private final LongAdder recorded = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder sampledOut = new LongAdder();
+  private volatile boolean running;
+  private Thread writer;
+
+  public AccessLog(
+      @Value("${contact.access-log.enabled:true}") boolean enabled,
+      @Value("${contact.access-log.capacity:8192}") int capacity,
+      @Value("${contact.access-log.batch-size:256}") int batchSize,
+      @Value("${contact.access-log.sample-rate:0.1}") double sampleRate,
+      @Value("${contact.access-log.slow-threshold:500ms}") Duration slowThreshold) {
+    this.enabled = enabled;
+    this.buffer = new RingBuffer<>(capacity);
+    this.batchSize = batchSize;
+    this.sampleRate = sampleRate;
+    this.slowThresholdNanos = slowThreshold.toNanos();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records a completed request, subject to sampling. Never blocks.
+   *
+   * @param method the HTTP method.
+   * @param route the matched route template, or null if no handler matched.
+   * @param status the response status code.
+   * @param durationNanos the time spent handling the request, in nanoseconds.
+   * @param bytes the number of response body bytes written.
+   */
+  public void record(String method, String route, int status, long durationNanos, long bytes) {
+    if (!enabled) {
+      return;
+    }
+    boolean mustLog = status >= 400 || durationNanos >= slowThresholdNanos;
+    if (!mustLog && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      sampledOut.increment();
+      return;
+    }
+    AccessLogEvent event =
+        new AccessLogEvent(
+            System.currentTimeMillis(),
+            method,
+            route != null ? route : "unmatched",
+            status,
+            TimeUnit.NANOSECONDS.toMicros(durationNanos),
+            bytes);
+    if (buffer.offer(event)) {
+      recorded.increment();
+    } else {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * Returns the number of events accepted into the buffer.
+   *
+   * @return the recorded event count.
+   */
+  public long recorded() {
+    return recorded.sum();
+  }
+
+  /**
+   * Returns the number of events lost because the buffer was full.
+   *
+   * @return the dropped event count.
+   */
+  public long dropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * Returns the number of successful requests skipped by sampling.
+   *
+   * @return the sampled-out request count.
+   */
+  public long sampledOut() {
+    return sampledOut.sum();
+  }
+
+  /** Starts the background writer. */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    writer = Thread.ofPlatform().name("access-log-writer").daemon().start(this::drainLoop);
+  }
+
+  /** Stops the background writer after it has written every buffered event. */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (writer == null) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(writer);
+    writer.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private void drainLoop() {
+    List<AccessLogEvent> batch = new ArrayList<>(batchSize);
+    while (true) {
+      if (buffer.drainTo(batch, batchSize) > 0) {
+        write(batch);
+        batch.clear();
+      } else if (running) {
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+      } else {
+        return;
+      }
+    }
+  }
+
+  private static void write(List<AccessLogEvent> batch) {
+    if (!accessLogger.isInfoEnabled()) {
+      return;
+    }
+    StringBuilder line = new StringBuilder(160);
+    for (AccessLogEvent event : batch) {
+      line.setLength(0);
+      line.append("time=")
+          .append(Instant.ofEpochMilli(event.timestamp()))
+          .append(" method=")
+          .append(event.method())
+          .append(" route=")
+          .append(event.route())
+          .append(" status=")
+          .append(event.status())
+          .append(" duration_us=")
+          .append(event.durationMicros())
+          .append(" bytes=")
+          .append(event.bytes());
+      accessLogger.info(line.toString());
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package org.safetrust.managecontacts.accesslog;
+
+/**
+ * One completed HTTP request, as recorded in the access log.
+ *
+ * @param timestamp when the request completed, in milliseconds since the epoch.
+ * @param method the HTTP method.
+ * @param route the matched route template, such as {@code /api/contact/{id}}, or {@code unmatched}.
+ * @param status the response status code.
+ * @param durationMicros the time spent handling the request, in microseconds.
+ * @param bytes the number of response body bytes written.
+ */
+public record AccessLogEvent(
+    long timestamp, String method, String route, int status, long durationMicros, long bytes) {}
@@ -0,0 +1,81 @@
+package org.safetrust.managecontacts.accesslog;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Feeds every completed request into the {@link AccessLog}. The route is the matched handler
+ * pattern rather than the raw URI, so ids do not turn every lookup into a distinct route. Async
+ * requests, such as streamed exports, are recorded when the async processing completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AccessLogFilter extends OncePerRequestFilter {
+  private final AccessLog accessLog;
+
+  public AccessLogFilter(AccessLog accessLog) {
+    this.accessLog = accessLog;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !accessLog.isEnabled();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long start = System.nanoTime();
+    CountingResponseWrapper counting = new CountingResponseWrapper(response);
+    boolean failed = true;
+    try {
+      filterChain.doFilter(request, counting);
+      failed = false;
+    } finally {
+      if (!failed && request.isAsyncStarted()) {
+        request
+            .getAsyncContext()
+            .addListener(
+                new AsyncListener() {
+                  @Override
+                  public void onComplete(AsyncEvent event) {
+                    record(request, counting, counting.getStatus(), start);
+                  }
+
+                  @Override
+                  public void onTimeout(AsyncEvent event) {}
+
+                  @Override
+                  public void onError(AsyncEvent event) {}
+
+                  @Override
+                  public void onStartAsync(AsyncEvent event) {}
+                });
+      } else {
+        // An exception escaping the chain becomes a 500 once the container handles it.
+        record(request, counting, failed ? 500 : counting.getStatus(), start);
+      }
+    }
+  }
+
+  private void record(
+      HttpServletRequest request, CountingResponseWrapper response, int status, long start) {
+    accessLog.record(
+        request.getMethod(),
+        (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+        status,
+        System.nanoTime() - start,
+        response.bytesWritten());
+  }
+}
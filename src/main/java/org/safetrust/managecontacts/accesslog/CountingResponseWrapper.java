@@ -0,0 +1,109 @@
+package org.safetrust.managecontacts.accesslog;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the response body as it is written, without buffering it, so streamed responses stay
+ * streamed. Bodies written through {@link #getWriter()} are counted in characters.
+ */
+final class CountingResponseWrapper extends HttpServletResponseWrapper {
+  private final LongAdder written = new LongAdder();
+  private ServletOutputStream outputStream;
+  private PrintWriter writer;
+
+  CountingResponseWrapper(HttpServletResponse response) {
+    super(response);
+  }
+
+  long bytesWritten() {
+    return written.sum();
+  }
+
+  @Override
+  public ServletOutputStream getOutputStream() throws IOException {
+    if (outputStream == null) {
+      outputStream = new CountingOutputStream(super.getOutputStream());
+    }
+    return outputStream;
+  }
+
+  @Override
+  public PrintWriter getWriter() throws IOException {
+    if (writer == null) {
+      // PrintWriter over a Writer does not buffer, so nothing is held back from the container.
+      writer = new PrintWriter(new CountingWriter(super.getWriter()));
+    }
+    return writer;
+  }
+
+  private final class CountingOutputStream extends ServletOutputStream {
+    private final ServletOutputStream delegate;
+
+    CountingOutputStream(ServletOutputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      delegate.write(b);
+      written.increment();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      delegate.write(b, off, len);
+      written.add(len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      delegate.setWriteListener(writeListener);
+    }
+  }
+
+  private final class CountingWriter extends Writer {
+    private final Writer delegate;
+
+    CountingWriter(Writer delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      delegate.write(cbuf, off, len);
+      written.add(len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+}
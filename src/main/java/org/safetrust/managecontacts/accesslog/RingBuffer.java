@@ -0,0 +1,91 @@
+package org.safetrust.managecontacts.accesslog;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * <p>Each slot carries a sequence number telling producers and the consumer whose turn it is, so a
+ * producer claims a slot with one CAS on the tail and never waits for another producer. A full
+ * buffer rejects the element instead of blocking: request threads must never stall on logging.
+ *
+ * @param <T> the element type.
+ */
+final class RingBuffer<T> {
+  private final AtomicReferenceArray<T> slots;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private long head;
+
+  /**
+   * Creates a buffer.
+   *
+   * @param capacity the minimum capacity; rounded up to a power of two.
+   */
+  RingBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Adds an element if there is room. Safe to call from any thread.
+   *
+   * @param element the element to add.
+   * @return true if the element was added, false if the buffer is full.
+   */
+  boolean offer(T element) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) (position & mask);
+      long difference = sequences.getAcquire(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          slots.setPlain(index, element);
+          sequences.setRelease(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Moves up to {@code max} elements into {@code sink}. Must only be called by the consumer thread.
+   *
+   * @param sink the list receiving the elements, in insertion order.
+   * @param max the maximum number of elements to move.
+   * @return the number of elements moved.
+   */
+  int drainTo(List<? super T> sink, int max) {
+    int drained = 0;
+    while (drained < max) {
+      int index = (int) (head & mask);
+      if (sequences.getAcquire(index) != head + 1) {
+        break;
+      }
+      sink.add(slots.getPlain(index));
+      slots.setPlain(index, null);
+      sequences.setRelease(index, head + mask + 1);
+      head++;
+      drained++;
+    }
+    return drained;
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+}
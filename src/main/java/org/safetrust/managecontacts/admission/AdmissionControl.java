@@ -0,0 +1,154 @@
+package org.safetrust.managecontacts.admission;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a contact API request may run, before it occupies a worker for long.
+ *
+ * <p>Two limits apply per {@link EndpointClass}. A per-client {@link GcraRateLimiter} keeps one
+ * client from taking more than its share of the rate; requests over it are rejected with 429. A
+ * global cap on concurrently running requests protects the database and the other clients when
+ * many clients are busy at once; requests over it are shed with 503. Both decisions are O(1) and
+ * lock-free, so rejected requests fail fast instead of queuing.
+ *
+ * <p>Limits are set per class with {@code contact.admission.<class>.rate}, {@code .burst} and
+ * {@code .max-in-flight}, where the class is {@code read}, {@code search} or {@code write}.
+ */
+@Component
+public class AdmissionControl {
+
+  /** The outcome of an admission decision. */
+  public enum Outcome {
+    ADMITTED,
+    RATE_LIMITED,
+    SHED
+  }
+
+  /**
+   * An admission decision.
+   *
+   * @param outcome whether the request was admitted, and if not, why.
+   * @param retryAfterNanos for rejected requests, how long the client should wait before retrying.
+   */
+  public record Decision(Outcome outcome, long retryAfterNanos) {
+    static final Decision ADMIT = new Decision(Outcome.ADMITTED, 0);
+  }
+
+  private final boolean enabled;
+  private final Map<EndpointClass, Limits> limits = new EnumMap<>(EndpointClass.class);
+
+  public AdmissionControl(
+      Environment environment,
+      @Value("${contact.admission.enabled:true}") boolean enabled,
+      @Value("${contact.admission.stripes:4096}") int stripes) {
+    this.enabled = enabled;
+    limits.put(
+        EndpointClass.READ, limits(environment, EndpointClass.READ, stripes, 500, 1000, 200));
+    limits.put(
+        EndpointClass.SEARCH, limits(environment, EndpointClass.SEARCH, stripes, 50, 100, 32));
+    limits.put(
+        EndpointClass.WRITE, limits(environment, EndpointClass.WRITE, stripes, 200, 400, 64));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Decides whether a request may run. An admitted request must be {@linkplain #release released}
+   * when it completes.
+   *
+   * @param endpointClass the class of the request.
+   * @param client the identifier of the calling client.
+   * @return the decision.
+   */
+  public Decision admit(EndpointClass endpointClass, String client) {
+    Limits classLimits = limits.get(endpointClass);
+    // Capacity is checked first, so that a shed request does not use up the client's rate budget.
+    if (classLimits.inFlight.incrementAndGet() > classLimits.maxInFlight) {
+      classLimits.inFlight.decrementAndGet();
+      classLimits.shed.increment();
+      return new Decision(Outcome.SHED, 1_000_000_000L);
+    }
+    long wait = classLimits.rate.tryAcquire(client, System.nanoTime());
+    if (wait > 0) {
+      classLimits.inFlight.decrementAndGet();
+      classLimits.rateLimited.increment();
+      return new Decision(Outcome.RATE_LIMITED, wait);
+    }
+    classLimits.admitted.increment();
+    return Decision.ADMIT;
+  }
+
+  /**
+   * Releases the in-flight slot of an admitted request.
+   *
+   * @param endpointClass the class of the request.
+   */
+  public void release(EndpointClass endpointClass) {
+    limits.get(endpointClass).inFlight.decrementAndGet();
+  }
+
+  /**
+   * Returns the number of decisions with the given outcome for a class.
+   *
+   * @param endpointClass the class of the requests.
+   * @param outcome the outcome.
+   * @return the decision count.
+   */
+  public long decisions(EndpointClass endpointClass, Outcome outcome) {
+    Limits classLimits = limits.get(endpointClass);
+    return switch (outcome) {
+      case ADMITTED -> classLimits.admitted.sum();
+      case RATE_LIMITED -> classLimits.rateLimited.sum();
+      case SHED -> classLimits.shed.sum();
+    };
+  }
+
+  /**
+   * Returns the number of admitted requests of a class that are still running.
+   *
+   * @param endpointClass the class of the requests.
+   * @return the in-flight count.
+   */
+  public int inFlight(EndpointClass endpointClass) {
+    return limits.get(endpointClass).inFlight.get();
+  }
+
+  private static Limits limits(
+      Environment environment,
+      EndpointClass endpointClass,
+      int stripes,
+      double rate,
+      int burst,
+      int maxInFlight) {
+    String prefix = "contact.admission." + endpointClass.key() + ".";
+    return new Limits(
+        new GcraRateLimiter(
+            stripes,
+            environment.getProperty(prefix + "rate", Double.class, rate),
+            environment.getProperty(prefix + "burst", Integer.class, burst)),
+        environment.getProperty(prefix + "max-in-flight", Integer.class, maxInFlight));
+  }
+
+  /** The limits and counters of one endpoint class. */
+  private static final class Limits {
+    private final GcraRateLimiter rate;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    private Limits(GcraRateLimiter rate, int maxInFlight) {
+      this.rate = rate;
+      this.maxInFlight = maxInFlight;
+    }
+  }
+}
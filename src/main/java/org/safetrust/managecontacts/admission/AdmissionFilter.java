@@ -0,0 +1,77 @@
+package org.safetrust.managecontacts.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies {@link AdmissionControl} to every contact API request before it reaches the controller.
+ *
+ * <p>Clients are identified by {@link ClientIdentity}; their rate-limit state lives in the fixed
+ * stripes of {@link GcraRateLimiter}, so memory stays bounded however many clients appear.
+ * Rejected requests are answered immediately with 429 Too Many Requests (client over its rate) or
+ * 503 Service Unavailable (endpoint class at capacity), both with a {@code Retry-After} header.
+ * Streaming responses, such as exports and change streams, hold their in-flight slot only while
+ * the handler runs, not for the lifetime of the stream.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class AdmissionFilter extends OncePerRequestFilter {
+  private static final String API_PATH = "/api/contact";
+
+  private final AdmissionControl admissionControl;
+  private final ClientIdentity clientIdentity;
+
+  public AdmissionFilter(AdmissionControl admissionControl, ClientIdentity clientIdentity) {
+    this.admissionControl = admissionControl;
+    this.clientIdentity = clientIdentity;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !admissionControl.isEnabled()
+        || !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    EndpointClass endpointClass = EndpointClass.of(request);
+    AdmissionControl.Decision decision =
+        admissionControl.admit(endpointClass, clientIdentity.of(request));
+    if (decision.outcome() != AdmissionControl.Outcome.ADMITTED) {
+      reject(response, decision);
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      admissionControl.release(endpointClass);
+    }
+  }
+
+  private static void reject(HttpServletResponse response, AdmissionControl.Decision decision)
+      throws IOException {
+    boolean rateLimited = decision.outcome() == AdmissionControl.Outcome.RATE_LIMITED;
+    long second = TimeUnit.SECONDS.toNanos(1);
+    long retryAfterSeconds = Math.max(1, (decision.retryAfterNanos() + second - 1) / second);
+    HttpStatus status = rateLimited ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+    response.setStatus(status.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+    response
+        .getWriter()
+        .write(rateLimited ? "Request rate limit exceeded" : "Server is at capacity");
+  }
+}
@@ -0,0 +1,169 @@
+package org.safetrust.managecontacts.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifies the client behind a request, for per-client rate limits and read-your-writes routing.
+ *
+ * <p>An authenticated principal identifies the client if there is one. Otherwise only a trusted
+ * proxy ({@code contact.admission.trusted-proxies}, loopback by default) may name the client, with
+ * the {@code contact.admission.client-header} header or, failing that, with {@code
+ * X-Forwarded-For}: the client is the nearest address in it that is not itself a trusted proxy, so
+ * entries a client prepends are ignored. Requests from anywhere else are identified by their remote
+ * address, whatever headers they send, since a client choosing its own identity could evade its
+ * rate limit or spend someone else's.
+ *
+ * <p>Trusted proxies are given as IP addresses or CIDR blocks, such as {@code 10.0.0.0/8}.
+ */
+@Component
+public class ClientIdentity {
+  private static final String FORWARDED_FOR = "X-Forwarded-For";
+  private static final Pattern IPV4 = Pattern.compile("[0-9]{1,3}(\\.[0-9]{1,3}){3}");
+  private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+  private final String clientHeader;
+  private final List<AddressBlock> trustedProxies = new ArrayList<>();
+
+  public ClientIdentity(
+      @Value("${contact.admission.client-header:X-Client-Id}") String clientHeader,
+      @Value("${contact.admission.trusted-proxies:127.0.0.0/8,::1}") List<String> trustedProxies) {
+    this.clientHeader = clientHeader;
+    for (String proxy : trustedProxies) {
+      if (!proxy.isBlank()) {
+        this.trustedProxies.add(AddressBlock.parse(proxy.strip()));
+      }
+    }
+  }
+
+  /**
+   * Returns the identifier of the client that sent a request.
+   *
+   * @param request the request.
+   * @return a key prefixed with its source: {@code user:}, {@code id:} or {@code addr:}.
+   */
+  public String of(HttpServletRequest request) {
+    Principal principal = request.getUserPrincipal();
+    if (principal != null) {
+      return "user:" + principal.getName();
+    }
+    String remote = request.getRemoteAddr();
+    if (!isTrustedProxy(remote)) {
+      return "addr:" + remote;
+    }
+    String client = request.getHeader(clientHeader);
+    if (client != null && !client.isBlank()) {
+      return "id:" + client.strip();
+    }
+    return "addr:" + forwardedClient(request, remote);
+  }
+
+  /** Walks {@code X-Forwarded-For} from the nearest hop to the first one not a trusted proxy. */
+  private String forwardedClient(HttpServletRequest request, String remote) {
+    List<String> hops = new ArrayList<>();
+    Enumeration<String> headers = request.getHeaders(FORWARDED_FOR);
+    while (headers != null && headers.hasMoreElements()) {
+      for (String hop : headers.nextElement().split(",")) {
+        if (!hop.isBlank()) {
+          hops.add(hop.strip());
+        }
+      }
+    }
+    String client = remote;
+    for (int i = hops.size() - 1; i >= 0; i--) {
+      client = hops.get(i);
+      if (!isTrustedProxy(client)) {
+        break;
+      }
+    }
+    return client;
+  }
+
+  private boolean isTrustedProxy(String address) {
+    byte[] bytes = trustedProxies.isEmpty() ? null : parseLiteral(address);
+    if (bytes == null) {
+      return false;
+    }
+    for (AddressBlock block : trustedProxies) {
+      if (block.contains(bytes)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Parses an IP address literal without ever resolving a host name.
+   *
+   * @return the address bytes, or null if the value is not an IP address literal.
+   */
+  private static byte[] parseLiteral(String value) {
+    if (value == null) {
+      return null;
+    }
+    if (IPV4.matcher(value).matches()) {
+      String[] parts = value.split("\\.");
+      byte[] bytes = new byte[4];
+      for (int i = 0; i < 4; i++) {
+        int part = Integer.parseInt(parts[i]);
+        if (part > 255) {
+          return null;
+        }
+        bytes[i] = (byte) part;
+      }
+      return bytes;
+    }
+    if (!IPV6.matcher(value).matches()) {
+      return null;
+    }
+    try {
+      // A value with a colon is only ever parsed as an IPv6 literal, never looked up.
+      return InetAddress.getByName(value).getAddress();
+    } catch (UnknownHostException ex) {
+      return null;
+    }
+  }
+
+  /** An IP address or CIDR block. */
+  private record AddressBlock(byte[] network, int prefixLength) {
+    static AddressBlock parse(String value) {
+      int slash = value.indexOf('/');
+      byte[] network = parseLiteral(slash < 0 ? value : value.substring(0, slash));
+      if (network == null) {
+        throw new IllegalArgumentException("Trusted proxy is not an IP address: " + value);
+      }
+      int prefixLength =
+          slash < 0 ? network.length * 8 : Integer.parseInt(value.substring(slash + 1));
+      if (prefixLength < 0 || prefixLength > network.length * 8) {
+        throw new IllegalArgumentException("Invalid prefix length in trusted proxy: " + value);
+      }
+      return new AddressBlock(network, prefixLength);
+    }
+
+    boolean contains(byte[] address) {
+      if (address.length != network.length) {
+        return false;
+      }
+      int fullBytes = prefixLength / 8;
+      for (int i = 0; i < fullBytes; i++) {
+        if (address[i] != network[i]) {
+          return false;
+        }
+      }
+      int remainingBits = prefixLength % 8;
+      if (remainingBits == 0) {
+        return true;
+      }
+      int mask = 0xFF << (8 - remainingBits) & 0xFF;
+      return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package org.safetrust.managecontacts.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Locale;
+
+/** The classes of contact API requests that admission control limits separately. */
+public enum EndpointClass {
+  /** Lookups by id, lists, multi-gets and other reads answered from indexes or the cache. */
+  READ,
+  /** Keyword searches and lookups by email or telephone number. */
+  SEARCH,
+  /** Creates, updates, patches, deletes and imports. */
+  WRITE;
+
+  /**
+   * Classifies a request to the contact API.
+   *
+   * @param request the request.
+   * @return the class the request is limited under.
+   */
+  public static EndpointClass of(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    String method = request.getMethod();
+    if (method.equals("GET") || method.equals("HEAD")) {
+      return path.endsWith("/search") || path.endsWith("/lookup") ? SEARCH : READ;
+    }
+    if (method.equals("POST") && path.endsWith("/batch")) {
+      return READ;
+    }
+    return WRITE;
+  }
+
+  /**
+   * Returns the name used in settings and metric tags, e.g. {@code search}.
+   *
+   * @return the lower-case name.
+   */
+  public String key() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
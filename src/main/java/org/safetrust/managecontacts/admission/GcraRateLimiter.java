@@ -0,0 +1,67 @@
+package org.safetrust.managecontacts.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A token-bucket rate limiter per client, implemented with the generic cell rate algorithm (GCRA).
+ *
+ * <p>Each bucket is a single "theoretical arrival time" updated with compare-and-set, so admission
+ * never takes a lock. Clients are hashed onto a fixed number of stripes instead of being tracked
+ * individually, which bounds memory regardless of how many clients there are; clients that share
+ * a stripe share its budget. Stripes are padded to separate cache lines.
+ */
+public class GcraRateLimiter {
+  private static final int PADDING = 8;
+
+  private final AtomicLongArray arrivals;
+  private final int mask;
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+
+  /**
+   * Creates a limiter.
+   *
+   * @param stripes the number of buckets, rounded up to a power of two.
+   * @param ratePerSecond the sustained number of requests per second allowed per client.
+   * @param burst the number of requests a client may send at once after being idle.
+   */
+  public GcraRateLimiter(int stripes, double ratePerSecond, int burst) {
+    if (ratePerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("Rate and burst must be positive");
+    }
+    int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+    this.arrivals = new AtomicLongArray(size * PADDING);
+    this.mask = size - 1;
+    this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+    this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+  }
+
+  /**
+   * Admits one request of a client if its bucket has a token left.
+   *
+   * @param client the client identifier.
+   * @param nowNanos the current {@link System#nanoTime()}.
+   * @return 0 if the request is admitted, otherwise the number of nanoseconds until it would be.
+   */
+  public long tryAcquire(String client, long nowNanos) {
+    int index = stripe(client) * PADDING;
+    while (true) {
+      long arrival = arrivals.get(index);
+      // 0 marks a bucket never used; any real nanoTime value is taken as a stored arrival time.
+      long theoretical = arrival == 0 ? nowNanos : Math.max(arrival, nowNanos);
+      long wait = theoretical - nowNanos - burstToleranceNanos;
+      if (wait > 0) {
+        return wait;
+      }
+      if (arrivals.compareAndSet(index, arrival, theoretical + emissionIntervalNanos)) {
+        return 0;
+      }
+    }
+  }
+
+  private int stripe(String client) {
+    int hash = client.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
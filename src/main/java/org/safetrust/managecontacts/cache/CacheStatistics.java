@@ -0,0 +1,14 @@
+package org.safetrust.managecontacts.cache;
+
+/**
+ * Snapshot of the contact cache counters.
+ *
+ * @param enabled whether the cache is enabled.
+ * @param size the approximate number of cached contacts.
+ * @param hits the number of lookups answered from the cache.
+ * @param misses the number of lookups that went to the database.
+ * @param hitRate the ratio of hits to lookups, between 0 and 1.
+ * @param evictions the number of entries evicted for size or expiry.
+ */
+public record CacheStatistics(
+    boolean enabled, long size, long hits, long misses, double hitRate, long evictions) {}
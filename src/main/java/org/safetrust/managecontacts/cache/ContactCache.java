@@ -0,0 +1,169 @@
+package org.safetrust.managecontacts.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded read-through cache of contacts by id.
+ *
+ * <p>Backed by Caffeine, whose W-TinyLFU policy admits and evicts entries by access frequency, so a
+ * skewed id distribution keeps its hot keys resident. The cache holds private copies and hands out
+ * copies, so callers can never modify a cached instance. Entries are invalidated on every committed
+ * {@link ContactChangedEvent}; a load racing with a write is discarded by the invalidation that
+ * follows the write, so readers on this node never see data older than the last write.
+ *
+ * <p>Loads run on the calling thread but outside of any cache lock: the cache only stores a pending
+ * future, which the first caller completes while concurrent callers for the same id wait on it.
+ * Running the database load inside the map's compute lock would pin virtual threads to their
+ * carrier while they wait for a pooled connection.
+ */
+@Component
+public class ContactCache {
+  private final AsyncCache<Long, Contact> cache;
+
+  public ContactCache(
+      @Value("${contact.cache.enabled:true}") boolean enabled,
+      @Value("${contact.cache.maximum-size:100000}") long maximumSize,
+      @Value("${contact.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+    this.cache =
+        enabled
+            ? Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync()
+            : null;
+  }
+
+  /**
+   * Returns the contact with the given id, loading and caching it on a miss. Contacts that do not
+   * exist are not cached.
+   *
+   * @param id the identifier of the contact.
+   * @param loader the function loading the contact from the database on a miss.
+   * @return an Optional holding a copy of the contact, or empty if it does not exist.
+   */
+  public Optional<Contact> get(Long id, Function<Long, Optional<Contact>> loader) {
+    if (cache == null) {
+      return loader.apply(id);
+    }
+    CompletableFuture<Contact> created = new CompletableFuture<>();
+    CompletableFuture<Contact> future = cache.get(id, (key, executor) -> created);
+    if (future == created) {
+      try {
+        // A null result removes the entry again, so missing contacts are not cached.
+        created.complete(loader.apply(id).map(Contact::new).orElse(null));
+      } catch (RuntimeException ex) {
+        created.completeExceptionally(ex);
+        throw ex;
+      }
+    }
+    try {
+      return Optional.ofNullable(future.join()).map(Contact::new);
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the cached contact with the given id without loading it.
+   *
+   * @param id the identifier of the contact.
+   * @return an Optional holding a copy of the cached contact, or empty on a miss.
+   */
+  public Optional<Contact> getIfPresent(Long id) {
+    if (cache == null) {
+      return Optional.empty();
+    }
+    CompletableFuture<Contact> future = cache.getIfPresent(id);
+    if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(future.getNow(null)).map(Contact::new);
+  }
+
+  /**
+   * Returns the cached contacts among the given ids without loading any.
+   *
+   * @param ids the identifiers of the contacts.
+   * @return copies of the cached contacts by id; ids that are not cached are absent.
+   */
+  public Map<Long, Contact> getAllPresent(Collection<Long> ids) {
+    if (cache == null) {
+      return Map.of();
+    }
+    Map<Long, Contact> present = new HashMap<>();
+    for (Long id : ids) {
+      getIfPresent(id).ifPresent(contact -> present.put(id, contact));
+    }
+    return present;
+  }
+
+  /**
+   * Removes the contact with the given id from the cache.
+   *
+   * @param id the identifier of the contact.
+   */
+  public void invalidate(Long id) {
+    if (cache != null && id != null) {
+      cache.synchronous().invalidate(id);
+    }
+  }
+
+  /**
+   * Invalidates the cached entry of every contact that was created, updated or deleted.
+   *
+   * @param event the change that was committed.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onContactChanged(ContactChangedEvent event) {
+    invalidate(event.id());
+  }
+
+  /**
+   * Exposes the underlying Caffeine cache, e.g. for binding its statistics to a meter registry.
+   *
+   * @return a synchronous view of the cache, or empty if the cache is disabled.
+   */
+  public Optional<Cache<Long, Contact>> nativeCache() {
+    return cache == null ? Optional.empty() : Optional.of(cache.synchronous());
+  }
+
+  /**
+   * Returns the current hit, miss and eviction counters.
+   *
+   * @return a CacheStatistics snapshot.
+   */
+  public CacheStatistics statistics() {
+    if (cache == null) {
+      return new CacheStatistics(false, 0, 0, 0, 0.0, 0);
+    }
+    CacheStats stats = cache.synchronous().stats();
+    return new CacheStatistics(
+        true,
+        cache.synchronous().estimatedSize(),
+        stats.hitCount(),
+        stats.missCount(),
+        stats.hitRate(),
+        stats.evictionCount());
+  }
+}
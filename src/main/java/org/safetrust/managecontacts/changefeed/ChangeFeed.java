@@ -0,0 +1,143 @@
+package org.safetrust.managecontacts.changefeed;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.safetrust.managecontacts.dto.ChangeBatch;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * A bounded, in-memory feed of committed contact changes for incremental client sync.
+ *
+ * <p>Every committed create, update, patch and delete is appended as a {@link ChangeRecord} with
+ * the next sequence number. Only the latest {@code contact.change-feed.capacity} records are
+ * retained; a client whose position is older than that must resynchronize from the contact list.
+ * Sequence numbers start from the startup time in microseconds, so positions handed out before a
+ * restart are never mistaken for current ones and also lead to a resync.
+ */
+@Component
+public class ChangeFeed {
+  private static final int MAX_BATCH_SIZE = 1000;
+
+  private final ChangeRecord[] ring;
+  private final long firstSequence;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition appended = lock.newCondition();
+  private long latest;
+
+  public ChangeFeed(@Value("${contact.change-feed.capacity:100000}") int capacity) {
+    this.ring = new ChangeRecord[capacity];
+    this.firstSequence = Instant.now().toEpochMilli() * 1000;
+    this.latest = firstSequence;
+  }
+
+  /**
+   * Appends a committed change to the feed and wakes up waiting readers.
+   *
+   * @param event the change that was committed.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onContactChanged(ContactChangedEvent event) {
+    Contact contact = event.contact() == null ? null : new Contact(event.contact());
+    lock.lock();
+    try {
+      long seq = ++latest;
+      ring[(int) (seq % ring.length)] =
+          new ChangeRecord(seq, event.type(), event.id(), contact, Instant.now());
+      appended.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the sequence number of the latest change, the position a client starts from after a
+   * full load of the contacts.
+   *
+   * @return the latest sequence number.
+   */
+  public long latestSequence() {
+    lock.lock();
+    try {
+      return latest;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Reads the changes after a position.
+   *
+   * @param since the sequence number of the last change the client has seen.
+   * @param limit the maximum number of changes to return, at most 1000.
+   * @return the next changes, or an empty batch with {@code resyncRequired} set if changes after
+   *     {@code since} are no longer retained or {@code since} is not a position of this feed.
+   * @throws IllegalArgumentException if the limit is out of range.
+   */
+  public ChangeBatch read(long since, int limit) {
+    if (limit < 1 || limit > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_BATCH_SIZE);
+    }
+    lock.lock();
+    try {
+      long oldest = Math.max(firstSequence + 1, latest - ring.length + 1);
+      if (since > latest || since + 1 < oldest) {
+        return ChangeBatch.at(latest, true);
+      }
+      int count = (int) Math.min(limit, latest - since);
+      List<ChangeRecord> changes = new ArrayList<>(count);
+      for (long seq = since + 1; seq <= since + count; seq++) {
+        changes.add(ring[(int) (seq % ring.length)]);
+      }
+      return new ChangeBatch(changes, since + count, since + count < latest, false);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits until a change after the given position has been appended.
+   *
+   * @param since the sequence number of the last change the caller has seen.
+   * @param timeout the maximum time to wait.
+   * @return true if a newer change exists, false if the timeout elapsed first.
+   * @throws InterruptedException if the waiting thread is interrupted.
+   */
+  public boolean awaitChangeAfter(long since, Duration timeout) throws InterruptedException {
+    long remaining = timeout.toNanos();
+    lock.lock();
+    try {
+      while (latest <= since) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = appended.awaitNanos(remaining);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of changes currently retained.
+   *
+   * @return the retained change count.
+   */
+  public long retained() {
+    lock.lock();
+    try {
+      return Math.min(latest - firstSequence, ring.length);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package org.safetrust.managecontacts.changefeed;
+
+import java.time.Instant;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+
+/**
+ * One committed change to a contact, as retained by the {@link ChangeFeed}.
+ *
+ * @param seq the position of the change in the feed; strictly increasing.
+ * @param type the kind of change.
+ * @param id the identifier of the changed contact.
+ * @param contact the contact after the change; only the changed fields for {@code PATCHED}, null
+ *     for {@code DELETED}.
+ * @param timestamp when the change was appended to the feed.
+ */
+public record ChangeRecord(
+    long seq, ContactChangedEvent.Type type, Long id, Contact contact, Instant timestamp) {}
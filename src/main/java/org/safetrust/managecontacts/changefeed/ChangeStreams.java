@@ -0,0 +1,111 @@
+package org.safetrust.managecontacts.changefeed;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.safetrust.managecontacts.dto.ChangeBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams the {@link ChangeFeed} to subscribers as Server-Sent Events.
+ *
+ * <p>Each subscription is served by its own virtual thread that replays the retained changes after
+ * the subscriber's position and then waits for new ones, so a slow client only ever delays itself
+ * and writers never block on delivery. Every change is sent as an event whose id is its sequence
+ * number, so reconnecting clients resume through {@code Last-Event-ID}. A subscriber that falls
+ * behind the retained window receives a {@code resync} event and the stream is closed. Idle streams
+ * receive a comment every heartbeat interval so that dead connections are detected.
+ */
+@Component
+public class ChangeStreams {
+  private static final Logger logger = LoggerFactory.getLogger(ChangeStreams.class);
+
+  private final ChangeFeed changeFeed;
+  private final Duration timeout;
+  private final Duration heartbeat;
+  private final int batchSize;
+  private final Set<Thread> streams = ConcurrentHashMap.newKeySet();
+
+  public ChangeStreams(
+      ChangeFeed changeFeed,
+      @Value("${contact.change-feed.stream-timeout:30m}") Duration timeout,
+      @Value("${contact.change-feed.heartbeat:15s}") Duration heartbeat,
+      @Value("${contact.change-feed.stream-batch-size:500}") int batchSize) {
+    this.changeFeed = changeFeed;
+    this.timeout = timeout;
+    this.heartbeat = heartbeat;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Opens a stream of the changes after a position.
+   *
+   * @param since the sequence number of the last change the client has seen, or null to receive
+   *     only changes made from now on.
+   * @return the emitter the changes are sent through.
+   */
+  public SseEmitter subscribe(Long since) {
+    long position = since != null ? since : changeFeed.latestSequence();
+    SseEmitter emitter = new SseEmitter(timeout.toMillis());
+    Thread stream =
+        Thread.ofVirtual().name("change-stream").unstarted(() -> stream(emitter, position));
+    emitter.onCompletion(stream::interrupt);
+    emitter.onTimeout(stream::interrupt);
+    emitter.onError(error -> stream.interrupt());
+    streams.add(stream);
+    stream.start();
+    return emitter;
+  }
+
+  /**
+   * Returns the number of open streams.
+   *
+   * @return the subscriber count.
+   */
+  public int subscribers() {
+    return streams.size();
+  }
+
+  /** Closes all open streams. */
+  @PreDestroy
+  public void stop() {
+    streams.forEach(Thread::interrupt);
+  }
+
+  private void stream(SseEmitter emitter, long position) {
+    try {
+      long since = position;
+      while (!Thread.currentThread().isInterrupted()) {
+        ChangeBatch batch = changeFeed.read(since, batchSize);
+        if (batch.resyncRequired()) {
+          emitter.send(SseEmitter.event().name("resync").data(batch, MediaType.APPLICATION_JSON));
+          break;
+        }
+        for (ChangeRecord change : batch.changes()) {
+          emitter.send(
+              SseEmitter.event()
+                  .id(Long.toString(change.seq()))
+                  .data(change, MediaType.APPLICATION_JSON));
+        }
+        since = batch.next();
+        if (!batch.hasMore() && !changeFeed.awaitChangeAfter(since, heartbeat)) {
+          emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+      }
+      emitter.complete();
+    } catch (IOException | IllegalStateException ex) {
+      logger.debug("Change stream closed: {}", ex.getMessage());
+    } catch (InterruptedException ex) {
+      emitter.complete();
+    } finally {
+      streams.remove(Thread.currentThread());
+    }
+  }
+}
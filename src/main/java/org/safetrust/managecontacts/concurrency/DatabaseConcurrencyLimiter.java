@@ -0,0 +1,385 @@
+package org.safetrust.managecontacts.concurrency;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import org.safetrust.managecontacts.exception.DatabaseOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds the number of connections checked out at once to what the database sustains, as learned
+ * by a {@link VegasLimit} from how long each connection is held.
+ *
+ * <p>The limiter sits in front of the connection pool ({@link #limit(DataSource)}): a transaction
+ * takes a slot when it acquires its connection and frees it when the connection is closed, so
+ * everything done with the connection, including reading streams, is covered, and the queueing
+ * and rejecting happen before a caller could wait on the pool. The priority of a slot is that of
+ * the repository call that acquires the connection, as declared through {@link #withPriority}.
+ *
+ * <p>Connection requests over the limit wait in a bounded queue for at most {@code
+ * contact.db-limiter.max-wait} and are refused with a {@link DatabaseOverloadedException} when the
+ * queue is full or the wait runs out, so an overloaded database turns into fast failures instead of
+ * every request timing out. Freed slots go to {@link Priority#HIGH} calls first; {@link
+ * Priority#LOW} calls may only use a share of the limit, so expensive scans cannot crowd out id
+ * lookups. Connections held for long-running work, such as export streams, are marked {@link
+ * #longRunning()} and take a slot without feeding their hold time to the limit.
+ *
+ * <p>Settings: {@code contact.db-limiter.enabled}, {@code .initial-limit}, {@code .min-limit},
+ * {@code .max-limit}, {@code .max-wait}, {@code .max-queue} and {@code .low-priority-share}.
+ */
+@Component
+public class DatabaseConcurrencyLimiter {
+  private static final ThreadLocal<Priority> CURRENT_PRIORITY =
+      ThreadLocal.withInitial(() -> Priority.NORMAL);
+  private static final ThreadLocal<Boolean> LONG_RUNNING = ThreadLocal.withInitial(() -> false);
+
+  private final boolean enabled;
+  private final VegasLimit limit;
+  private final long maxWaitNanos;
+  private final int maxQueue;
+  private final double lowPriorityShare;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<Priority, Deque<Waiter>> waiters = new EnumMap<>(Priority.class);
+  private int inFlight;
+  private int lowInFlight;
+  private int queued;
+
+  private final LongAdder acquired = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public DatabaseConcurrencyLimiter(
+      @Value("${contact.db-limiter.enabled:true}") boolean enabled,
+      @Value("${contact.db-limiter.initial-limit:10}") int initialLimit,
+      @Value("${contact.db-limiter.min-limit:2}") int minLimit,
+      @Value("${contact.db-limiter.max-limit:64}") int maxLimit,
+      @Value("${contact.db-limiter.max-wait:250ms}") Duration maxWait,
+      @Value("${contact.db-limiter.max-queue:1000}") int maxQueue,
+      @Value("${contact.db-limiter.low-priority-share:0.75}") double lowPriorityShare) {
+    this.enabled = enabled;
+    this.limit = new VegasLimit(initialLimit, minLimit, maxLimit);
+    this.maxWaitNanos = maxWait.toNanos();
+    this.maxQueue = maxQueue;
+    this.lowPriorityShare = lowPriorityShare;
+    for (Priority priority : Priority.values()) {
+      waiters.put(priority, new ArrayDeque<>());
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Wraps a DataSource so that every connection it hands out holds a slot of the limiter until it
+   * is closed. Returns the target itself if the limiter is disabled.
+   *
+   * @param target the DataSource, typically the connection pool.
+   * @return the limited DataSource.
+   */
+  public DataSource limit(DataSource target) {
+    if (!enabled) {
+      return target;
+    }
+    return new DelegatingDataSource(target) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        return limited(super::getConnection);
+      }
+
+      @Override
+      public Connection getConnection(String username, String password) throws SQLException {
+        return limited(() -> super.getConnection(username, password));
+      }
+    };
+  }
+
+  /**
+   * Binds a task to the priority of the current thread, so that connections it acquires on another
+   * thread, such as a shard query run by an executor, keep the priority of the call that started
+   * it.
+   *
+   * @param task the task to run elsewhere.
+   * @param <T> the result type.
+   * @return a task that runs {@code task} with the caller's priority.
+   */
+  public static <T> Callable<T> withCurrentPriority(Callable<T> task) {
+    Priority priority = CURRENT_PRIORITY.get();
+    return () -> {
+      Priority previous = CURRENT_PRIORITY.get();
+      CURRENT_PRIORITY.set(priority);
+      try {
+        return task.call();
+      } finally {
+        CURRENT_PRIORITY.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Marks the connections the current thread acquires, until the returned scope is closed, as held
+   * for long-running work such as an export stream. They still take a slot, but how long they are
+   * held says nothing about database latency, so it is not fed to the limit.
+   *
+   * @return a scope that restores the previous state when closed.
+   */
+  public static Scope longRunning() {
+    boolean previous = LONG_RUNNING.get();
+    LONG_RUNNING.set(true);
+    return () -> LONG_RUNNING.set(previous);
+  }
+
+  /**
+   * Wraps an interface implementation, typically a repository, so that connections acquired during
+   * its calls are granted with the priority of the call. Returns the target itself if the limiter
+   * is disabled.
+   *
+   * @param type the interface to expose.
+   * @param target the implementation the calls are forwarded to.
+   * @param priorities assigns each interface method its priority.
+   * @param <T> the interface type.
+   * @return the prioritized implementation.
+   */
+  public <T> T withPriority(Class<T> type, T target, Function<Method, Priority> priorities) {
+    if (!enabled) {
+      return target;
+    }
+    InvocationHandler handler =
+        (proxy, method, args) -> {
+          if (method.getDeclaringClass() == Object.class) {
+            return invoke(target, method, args);
+          }
+          Priority previous = CURRENT_PRIORITY.get();
+          CURRENT_PRIORITY.set(priorities.apply(method));
+          try {
+            return invoke(target, method, args);
+          } finally {
+            CURRENT_PRIORITY.set(previous);
+          }
+        };
+    return type.cast(
+        Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+  }
+
+  /**
+   * Returns the current concurrency limit.
+   *
+   * @return the number of database calls that may run at once.
+   */
+  public int limit() {
+    return limit.limit();
+  }
+
+  /**
+   * Returns the number of database calls running through the limiter.
+   *
+   * @return the in-flight count.
+   */
+  public int inFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of calls waiting for a slot.
+   *
+   * @return the queue length.
+   */
+  public int queued() {
+    lock.lock();
+    try {
+      return queued;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of calls that were let through.
+   *
+   * @return the acquired count.
+   */
+  public long acquired() {
+    return acquired.sum();
+  }
+
+  /**
+   * Returns the number of calls refused because the queue was full or the wait ran out.
+   *
+   * @return the rejected count.
+   */
+  public long rejected() {
+    return rejected.sum();
+  }
+
+  /** Takes a slot, connects, and returns a connection that frees the slot when closed. */
+  private Connection limited(Connector connector) throws SQLException {
+    Priority priority = CURRENT_PRIORITY.get();
+    boolean sampled = !LONG_RUNNING.get();
+    int concurrency = acquire(priority);
+    long start = System.nanoTime();
+    Connection connection;
+    try {
+      connection = connector.connect();
+    } catch (SQLException | RuntimeException | Error ex) {
+      release(priority, -1, concurrency);
+      throw ex;
+    }
+    InvocationHandler handler =
+        new InvocationHandler() {
+          private boolean released;
+
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+              case "equals":
+                return proxy == args[0];
+              case "hashCode":
+                return System.identityHashCode(proxy);
+              case "close":
+                try {
+                  return DatabaseConcurrencyLimiter.invoke(connection, method, args);
+                } finally {
+                  if (!released) {
+                    released = true;
+                    release(priority, sampled ? System.nanoTime() - start : -1, concurrency);
+                  }
+                }
+              default:
+                return DatabaseConcurrencyLimiter.invoke(connection, method, args);
+            }
+          }
+        };
+    return (Connection)
+        Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+  }
+
+  /**
+   * Waits for a slot.
+   *
+   * @return the number of calls in flight once this one started, including itself.
+   */
+  private int acquire(Priority priority) {
+    lock.lock();
+    try {
+      if (waiters.get(priority).isEmpty() && tryStart(priority)) {
+        return inFlight;
+      }
+      if (queued >= maxQueue) {
+        rejected.increment();
+        throw new DatabaseOverloadedException("Database busy: too many queued calls");
+      }
+      Waiter waiter = new Waiter(lock.newCondition());
+      waiters.get(priority).addLast(waiter);
+      queued++;
+      long remaining = maxWaitNanos;
+      try {
+        while (waiter.inFlight == 0 && remaining > 0) {
+          remaining = waiter.condition.awaitNanos(remaining);
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      if (waiter.inFlight == 0) {
+        waiters.get(priority).remove(waiter);
+        queued--;
+        rejected.increment();
+        throw new DatabaseOverloadedException("Database busy: no slot within the maximum wait");
+      }
+      return waiter.inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void release(Priority priority, long latencyNanos, int concurrency) {
+    if (latencyNanos >= 0) {
+      limit.onSample(latencyNanos, concurrency);
+    }
+    lock.lock();
+    try {
+      inFlight--;
+      if (priority == Priority.LOW) {
+        lowInFlight--;
+      }
+      for (Priority next : Priority.values()) {
+        Deque<Waiter> queue = waiters.get(next);
+        while (!queue.isEmpty() && tryStart(next)) {
+          Waiter waiter = queue.pollFirst();
+          queued--;
+          waiter.inFlight = inFlight;
+          waiter.condition.signal();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Takes a slot if the limit allows a call of the priority to start. Must hold the lock. */
+  private boolean tryStart(Priority priority) {
+    int current = limit.limit();
+    if (inFlight >= current) {
+      return false;
+    }
+    if (priority == Priority.LOW) {
+      if (lowInFlight >= Math.max(1, (int) (current * lowPriorityShare))) {
+        return false;
+      }
+      lowInFlight++;
+    }
+    inFlight++;
+    acquired.increment();
+    return true;
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /** Ends a {@link #longRunning()} section; closing it never fails. */
+  public interface Scope extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /** Opens a connection. */
+  private interface Connector {
+    Connection connect() throws SQLException;
+  }
+
+  /** A call waiting for a slot; {@code inFlight} is set when the slot is granted. */
+  private static final class Waiter {
+    private final Condition condition;
+    private int inFlight;
+
+    private Waiter(Condition condition) {
+      this.condition = condition;
+    }
+  }
+}
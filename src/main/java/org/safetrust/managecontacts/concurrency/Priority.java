@@ -0,0 +1,11 @@
+package org.safetrust.managecontacts.concurrency;
+
+/** The order in which queued database calls are let through when the concurrency limit is hit. */
+public enum Priority {
+  /** Cheap single-row reads by id, which callers expect to be fast. */
+  HIGH,
+  /** Writes, pages and multi-gets. */
+  NORMAL,
+  /** Expensive scans such as keyword searches and counts; limited to a share of the limit. */
+  LOW
+}
@@ -0,0 +1,73 @@
+package org.safetrust.managecontacts.concurrency;
+
+/**
+ * Estimates the sustainable concurrency of a resource from observed latencies, following TCP
+ * Vegas.
+ *
+ * <p>The lowest latency seen stands for the resource without queuing. For each sample the number
+ * of calls queued inside the resource is estimated as {@code limit * (1 - minLatency / latency)}:
+ * while it stays small the limit grows, once it exceeds a threshold the limit shrinks. Thresholds
+ * scale with {@code log10(limit)}, so small limits move carefully and large ones quickly. The
+ * baseline is reset periodically so that it follows lasting changes, such as a grown table.
+ */
+final class VegasLimit {
+  private static final int BASELINE_RESET_SAMPLES = 10_000;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private double limit;
+  private long minLatencyNanos;
+  private int samples;
+
+  VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Returns the current limit.
+   *
+   * @return the number of calls that may run concurrently.
+   */
+  synchronized int limit() {
+    return (int) limit;
+  }
+
+  /**
+   * Updates the limit with the latency of a completed call.
+   *
+   * @param latencyNanos how long the call took.
+   * @param inFlight how many calls were running when it started, including itself.
+   */
+  synchronized void onSample(long latencyNanos, int inFlight) {
+    if (latencyNanos <= 0) {
+      return;
+    }
+    if (++samples >= BASELINE_RESET_SAMPLES) {
+      samples = 0;
+      minLatencyNanos = 0;
+    }
+    if (minLatencyNanos == 0 || latencyNanos < minLatencyNanos) {
+      minLatencyNanos = latencyNanos;
+      return;
+    }
+    // Far below the limit there is no evidence that more concurrency would be sustainable.
+    if (inFlight * 2 < limit) {
+      return;
+    }
+    double queued = Math.ceil(limit * (1 - (double) minLatencyNanos / latencyNanos));
+    double step = Math.max(1, Math.log10(limit));
+    double next;
+    if (queued <= step) {
+      next = limit + 6 * step;
+    } else if (queued < 3 * step) {
+      next = limit + step;
+    } else if (queued > 6 * step) {
+      next = limit - step;
+    } else {
+      return;
+    }
+    limit = Math.max(minLimit, Math.min(maxLimit, next));
+  }
+}
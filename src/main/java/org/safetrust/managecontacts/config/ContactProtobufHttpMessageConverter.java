@@ -0,0 +1,124 @@
+package org.safetrust.managecontacts.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.safetrust.managecontacts.dto.BulkDeleteReport;
+import org.safetrust.managecontacts.dto.BulkDeleteRequest;
+import org.safetrust.managecontacts.dto.ContactBatch;
+import org.safetrust.managecontacts.dto.SlicePage;
+import org.safetrust.managecontacts.entity.Contact;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Reads and writes the contact API payloads as Protobuf, using the schema in {@code
+ * proto/contact.proto}.
+ *
+ * <p>Encoding goes through Jackson's Protobuf data format, so the payloads are serialized with the
+ * same mapper configuration and property names as JSON and need no generated classes. Each
+ * supported Java type is mapped to a root message of the schema; request bodies that are plain id
+ * lists are wrapped in a {@code ContactIds} message.
+ */
+public class ContactProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+  public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+  private static final Map<Class<?>, String> MESSAGES = new LinkedHashMap<>();
+
+  static {
+    MESSAGES.put(Contact.class, "Contact");
+    MESSAGES.put(Page.class, "ContactPage");
+    MESSAGES.put(PagedModel.class, "ContactPage");
+    MESSAGES.put(SlicePage.class, "ContactSlice");
+    MESSAGES.put(ContactBatch.class, "ContactBatch");
+    MESSAGES.put(BulkDeleteRequest.class, "BulkDeleteRequest");
+    MESSAGES.put(BulkDeleteReport.class, "BulkDeleteReport");
+    MESSAGES.put(List.class, "ContactIds");
+  }
+
+  private final ObjectMapper mapper;
+  private final NativeProtobufSchema schema;
+  private final Map<String, ProtobufSchema> schemas = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the converter.
+   *
+   * @param mapper an ObjectMapper backed by a {@link ProtobufFactory}.
+   */
+  public ContactProtobufHttpMessageConverter(ObjectMapper mapper) {
+    super(APPLICATION_PROTOBUF, new MediaType("application", "protobuf"));
+    if (!(mapper.getFactory() instanceof ProtobufFactory)) {
+      throw new IllegalArgumentException("ObjectMapper must be configured with a ProtobufFactory");
+    }
+    this.mapper = mapper;
+    try {
+      this.schema =
+          ProtobufSchemaLoader.std.loadNative(
+              new ClassPathResource("proto/contact.proto").getURL());
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot load proto/contact.proto", ex);
+    }
+  }
+
+  /**
+   * Returns the schema of the root message a type is encoded as.
+   *
+   * @param clazz the payload type.
+   * @return the schema, or null if the type is not supported.
+   */
+  public ProtobufSchema schemaFor(Class<?> clazz) {
+    for (Map.Entry<Class<?>, String> message : MESSAGES.entrySet()) {
+      if (message.getKey().isAssignableFrom(clazz)) {
+        return schemas.computeIfAbsent(message.getValue(), schema::forType);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return schemaFor(clazz) != null;
+  }
+
+  @Override
+  public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+    return !List.class.isAssignableFrom(clazz) && super.canWrite(clazz, mediaType);
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+      throws IOException, HttpMessageNotReadableException {
+    ProtobufSchema messageSchema = schemaFor(clazz);
+    if (List.class.isAssignableFrom(clazz)) {
+      ContactIds ids =
+          mapper.readerFor(ContactIds.class).with(messageSchema).readValue(inputMessage.getBody());
+      return ids.ids() == null ? List.of() : ids.ids();
+    }
+    return mapper.readerFor(clazz).with(messageSchema).readValue(inputMessage.getBody());
+  }
+
+  @Override
+  protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+    mapper
+        .writer(schemaFor(value.getClass()))
+        .writeValue(StreamUtils.nonClosing(outputMessage.getBody()), value);
+  }
+
+  /** The {@code ContactIds} message, the Protobuf form of an id list request body. */
+  record ContactIds(List<Long> ids) {}
+}
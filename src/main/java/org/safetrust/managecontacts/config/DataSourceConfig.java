@@ -0,0 +1,64 @@
+package org.safetrust.managecontacts.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.safetrust.managecontacts.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * The application DataSource: a {@link LazyConnectionDataSourceProxy} over the primary pool
+ * configured by {@code spring.datasource.*}.
+ *
+ * <p>Transactions only take a pooled connection when their first statement runs, so requests
+ * answered from the contact cache, the email Bloom filter or a version check never hold one. When
+ * read replicas are configured, read-only transactions get their connection from the {@link
+ * ReplicaRoutingDataSource} instead. Primary connections are checked out through the {@link
+ * DatabaseConcurrencyLimiter}. Sharding replaces this DataSource with its own.
+ */
+@Configuration
+@ConditionalOnExpression("'${contact.sharding.shard-urls:}'.isEmpty()")
+class DataSourceConfig {
+
+  /**
+   * Creates the primary connection pool from the standard datasource properties.
+   *
+   * @param properties the {@code spring.datasource} properties.
+   * @return the primary pool, further configured from {@code spring.datasource.hikari}.
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  /**
+   * The application DataSource: primary connections, unless the transaction is read-only and read
+   * replicas are configured.
+   *
+   * @param primaryDataSource the primary pool.
+   * @param concurrencyLimiter the limiter primary connections are checked out through.
+   * @param replicaRoutingDataSource the router serving read-only transactions, if configured.
+   * @return the lazily connecting proxy used by JPA and JDBC.
+   */
+  @Bean
+  @Primary
+  public LazyConnectionDataSourceProxy dataSource(
+      HikariDataSource primaryDataSource,
+      DatabaseConcurrencyLimiter concurrencyLimiter,
+      ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+    LazyConnectionDataSourceProxy dataSource =
+        new LazyConnectionDataSourceProxy(concurrencyLimiter.limit(primaryDataSource));
+    replicaRoutingDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+    return dataSource;
+  }
+}
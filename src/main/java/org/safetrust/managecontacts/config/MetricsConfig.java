@@ -0,0 +1,254 @@
+package org.safetrust.managecontacts.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import org.safetrust.managecontacts.accesslog.AccessLog;
+import org.safetrust.managecontacts.admission.AdmissionControl;
+import org.safetrust.managecontacts.admission.EndpointClass;
+import org.safetrust.managecontacts.cache.ContactCache;
+import org.safetrust.managecontacts.changefeed.ChangeFeed;
+import org.safetrust.managecontacts.changefeed.ChangeStreams;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.safetrust.managecontacts.datasource.ReplicaRoutingDataSource;
+import org.safetrust.managecontacts.search.ContactSearchIndex;
+import org.safetrust.managecontacts.writebehind.WriteBehindQueue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application metrics on top of the ones Spring Boot Actuator registers by itself (HTTP server
+ * latency, HikariCP pool usage, Hibernate statistics, JVM memory, allocation and GC). Everything is
+ * exposed for scraping at {@code /actuator/prometheus}.
+ */
+@Configuration
+class MetricsConfig {
+
+  /**
+   * Enables {@code @Timed} on Spring beans, used to time every {@code ContactService} method.
+   *
+   * @param registry the registry the timers are published to.
+   * @return the aspect recording the timers.
+   */
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry registry) {
+    return new TimedAspect(registry);
+  }
+
+  /**
+   * Publishes the hit, miss, eviction and size counters of the contact cache.
+   *
+   * @param contactCache the contact cache.
+   * @return a MeterBinder registering the cache meters under the name {@code contact}.
+   */
+  @Bean
+  public MeterBinder contactCacheMetrics(ContactCache contactCache) {
+    return registry ->
+        contactCache
+            .nativeCache()
+            .ifPresent(cache -> CaffeineCacheMetrics.monitor(registry, cache, "contact"));
+  }
+
+  /**
+   * Publishes the number of contacts held by the search index and whether it is serving searches.
+   *
+   * @param searchIndex the search index.
+   * @return a MeterBinder registering the index gauges.
+   */
+  @Bean
+  public MeterBinder searchIndexMetrics(ContactSearchIndex searchIndex) {
+    return registry -> {
+      Gauge.builder("contact.search.index.size", searchIndex, ContactSearchIndex::size)
+          .description("Number of contacts in the search index")
+          .register(registry);
+      Gauge.builder("contact.search.index.ready", searchIndex, index -> index.isReady() ? 1 : 0)
+          .description("Whether searches are answered from the index")
+          .register(registry);
+    };
+  }
+
+  /**
+   * Publishes how many access log events were recorded, dropped on a full buffer or skipped by
+   * sampling.
+   *
+   * @param accessLog the access log.
+   * @return a MeterBinder registering the access log counters.
+   */
+  @Bean
+  public MeterBinder accessLogMetrics(AccessLog accessLog) {
+    return registry -> {
+      FunctionCounter.builder("contact.access.log.events", accessLog, AccessLog::recorded)
+          .tag("outcome", "recorded")
+          .description("Access log events by outcome")
+          .register(registry);
+      FunctionCounter.builder("contact.access.log.events", accessLog, AccessLog::dropped)
+          .tag("outcome", "dropped")
+          .description("Access log events by outcome")
+          .register(registry);
+      FunctionCounter.builder("contact.access.log.events", accessLog, AccessLog::sampledOut)
+          .tag("outcome", "sampled-out")
+          .description("Access log events by outcome")
+          .register(registry);
+    };
+  }
+
+  /**
+   * Publishes the number of changes retained by the change feed and the number of open change
+   * streams.
+   *
+   * @param changeFeed the change feed.
+   * @param changeStreams the Server-Sent Events subscriptions to the feed.
+   * @return a MeterBinder registering the change feed gauges.
+   */
+  @Bean
+  public MeterBinder changeFeedMetrics(ChangeFeed changeFeed, ChangeStreams changeStreams) {
+    return registry -> {
+      Gauge.builder("contact.change.feed.retained", changeFeed, ChangeFeed::retained)
+          .description("Number of changes retained by the change feed")
+          .register(registry);
+      Gauge.builder("contact.change.feed.subscribers", changeStreams, ChangeStreams::subscribers)
+          .description("Number of open change streams")
+          .register(registry);
+    };
+  }
+
+  /**
+   * Publishes the admission decisions and the number of running requests per endpoint class.
+   *
+   * @param admissionControl the admission control.
+   * @return a MeterBinder registering the admission counters and gauges.
+   */
+  @Bean
+  public MeterBinder admissionMetrics(AdmissionControl admissionControl) {
+    return registry -> {
+      for (EndpointClass endpointClass : EndpointClass.values()) {
+        for (AdmissionControl.Outcome outcome : AdmissionControl.Outcome.values()) {
+          FunctionCounter.builder(
+                  "contact.admission.decisions",
+                  admissionControl,
+                  control -> control.decisions(endpointClass, outcome))
+              .tag("class", endpointClass.key())
+              .tag("outcome", outcome.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+              .description("Admission decisions by endpoint class and outcome")
+              .register(registry);
+        }
+        Gauge.builder(
+                "contact.admission.in.flight",
+                admissionControl,
+                control -> control.inFlight(endpointClass))
+            .tag("class", endpointClass.key())
+            .description("Admitted requests still running, by endpoint class")
+            .register(registry);
+      }
+    };
+  }
+
+  /**
+   * Publishes the learned limit, the running and queued calls and the outcomes of the database
+   * concurrency limiter.
+   *
+   * @param limiter the database concurrency limiter.
+   * @return a MeterBinder registering the limiter gauges and counters.
+   */
+  @Bean
+  public MeterBinder databaseLimiterMetrics(DatabaseConcurrencyLimiter limiter) {
+    return registry -> {
+      Gauge.builder("contact.db.limiter.limit", limiter, DatabaseConcurrencyLimiter::limit)
+          .description("Learned number of database calls that may run at once")
+          .register(registry);
+      Gauge.builder("contact.db.limiter.in.flight", limiter, DatabaseConcurrencyLimiter::inFlight)
+          .description("Database calls running through the limiter")
+          .register(registry);
+      Gauge.builder("contact.db.limiter.queued", limiter, DatabaseConcurrencyLimiter::queued)
+          .description("Database calls waiting for a slot")
+          .register(registry);
+      FunctionCounter.builder(
+              "contact.db.limiter.calls", limiter, DatabaseConcurrencyLimiter::acquired)
+          .tag("outcome", "acquired")
+          .description("Database calls by limiter outcome")
+          .register(registry);
+      FunctionCounter.builder(
+              "contact.db.limiter.calls", limiter, DatabaseConcurrencyLimiter::rejected)
+          .tag("outcome", "rejected")
+          .description("Database calls by limiter outcome")
+          .register(registry);
+    };
+  }
+
+  /**
+   * Publishes where read-only connections were taken from and which replicas are in use, when read
+   * replicas are configured.
+   *
+   * @param replicaRouting the replica router, if read replicas are configured.
+   * @return a MeterBinder registering the routing counters and replica gauges.
+   */
+  @Bean
+  public MeterBinder replicaRoutingMetrics(
+      ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
+    return registry ->
+        replicaRouting.ifAvailable(
+            router -> {
+              FunctionCounter.builder(
+                      "contact.datasource.read.connections",
+                      router,
+                      ReplicaRoutingDataSource::primaryConnections)
+                  .tag("target", "primary")
+                  .description("Read-only connections by the database they were taken from")
+                  .register(registry);
+              for (String replica : router.replicaNames()) {
+                FunctionCounter.builder(
+                        "contact.datasource.read.connections",
+                        router,
+                        r -> r.replicaConnections(replica))
+                    .tag("target", replica)
+                    .description("Read-only connections by the database they were taken from")
+                    .register(registry);
+                Gauge.builder(
+                        "contact.datasource.replica.available",
+                        router,
+                        r -> r.isAvailable(replica) ? 1 : 0)
+                    .tag("replica", replica)
+                    .description("Whether a read replica is in use (1) or skipped after a failure")
+                    .register(registry);
+              }
+            });
+  }
+
+  /**
+   * Publishes the length of the write-behind queue and what became of the writes it accepted.
+   *
+   * @param queue the write-behind queue.
+   * @return a MeterBinder registering the queue gauge and counters.
+   */
+  @Bean
+  public MeterBinder writeBehindMetrics(WriteBehindQueue queue) {
+    return registry -> {
+      Gauge.builder("contact.write.behind.queued", queue, WriteBehindQueue::queued)
+          .description("Queued asynchronous writes, counting merged updates once")
+          .register(registry);
+      Map<String, ToDoubleFunction<WriteBehindQueue>> outcomes = new LinkedHashMap<>();
+      outcomes.put("accepted", WriteBehindQueue::accepted);
+      outcomes.put("coalesced", WriteBehindQueue::coalesced);
+      outcomes.put("rejected", WriteBehindQueue::rejected);
+      outcomes.put("applied", WriteBehindQueue::applied);
+      outcomes.put("failed", WriteBehindQueue::failed);
+      outcomes.forEach(
+          (outcome, count) ->
+              FunctionCounter.builder("contact.write.behind.writes", queue, count)
+                  .tag("outcome", outcome)
+                  .description("Asynchronous writes by outcome")
+                  .register(registry));
+      FunctionCounter.builder("contact.write.behind.batches", queue, WriteBehindQueue::batches)
+          .description("Transactions committed by the write-behind queue")
+          .register(registry);
+    };
+  }
+}
@@ -0,0 +1,80 @@
+package org.safetrust.managecontacts.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.safetrust.managecontacts.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Splits database traffic between the primary and read replicas, enabled by listing the replica
+ * JDBC URLs in {@code contact.datasource.replica-urls}.
+ *
+ * <p>The {@link ReplicaRoutingDataSource} becomes the read-only target of the application's lazily
+ * connecting DataSource (see {@link DataSourceConfig}). The proxy only fetches a physical
+ * connection when the first statement runs, after the transaction has marked the connection
+ * read-only, so read-only transactions are served by the replicas and everything else by the
+ * primary. Reads the router sends to the primary pass the {@link DatabaseConcurrencyLimiter}
+ * like every other primary connection. Replica pools use the primary's credentials, driver and pool
+ * size.
+ */
+@Configuration
+@ConditionalOnProperty("contact.datasource.replica-urls")
+class ReplicaDataSourceConfig {
+
+  /**
+   * Creates one pool per replica URL and the router choosing between them.
+   *
+   * @param primaryDataSource the primary pool, used as fallback.
+   * @param concurrencyLimiter the limiter primary connections are checked out through, including
+   *     reads pinned to or falling back to the primary.
+   * @param properties the {@code spring.datasource} properties holding the credentials.
+   * @param urls the replica JDBC URLs.
+   * @param strategy {@code round-robin} or {@code least-loaded}.
+   * @param retryInterval how long a failed replica is skipped.
+   * @param connectionTimeout how long to wait for a replica connection before falling back.
+   * @param meterRegistry the registry the replica pool meters are published to, if any.
+   * @return the replica router.
+   */
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(
+      HikariDataSource primaryDataSource,
+      DatabaseConcurrencyLimiter concurrencyLimiter,
+      DataSourceProperties properties,
+      @Value("${contact.datasource.replica-urls}") List<String> urls,
+      @Value("${contact.datasource.replica-strategy:round-robin}") String strategy,
+      @Value("${contact.datasource.replica-retry-interval:30s}") Duration retryInterval,
+      @Value("${contact.datasource.replica-connection-timeout:1s}") Duration connectionTimeout,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+    for (String url : urls) {
+      HikariDataSource replica = new HikariDataSource();
+      replica.setPoolName("replica-" + (replicas.size() + 1));
+      replica.setJdbcUrl(url.trim());
+      replica.setDriverClassName(properties.determineDriverClassName());
+      replica.setUsername(properties.determineUsername());
+      replica.setPassword(properties.determinePassword());
+      replica.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+      replica.setConnectionTimeout(connectionTimeout.toMillis());
+      replica.setReadOnly(true);
+      meterRegistry.ifAvailable(
+          registry ->
+              replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+      replicas.add(replica);
+    }
+    return new ReplicaRoutingDataSource(
+        concurrencyLimiter.limit(primaryDataSource),
+        replicas,
+        ReplicaRoutingDataSource.Strategy.from(strategy),
+        retryInterval);
+  }
+}
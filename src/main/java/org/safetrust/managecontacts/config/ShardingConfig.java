@@ -0,0 +1,119 @@
+package org.safetrust.managecontacts.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.safetrust.managecontacts.sharding.ShardedContactRepository;
+import org.safetrust.managecontacts.sharding.ShardedDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Partitions contacts across several databases by id range, enabled by listing one JDBC URL per
+ * shard in {@code contact.sharding.shard-urls}, as the {@code sharded} profile does.
+ *
+ * <p>The application DataSource becomes a lazily connecting {@link ShardedDataSource}, and the
+ * {@link ContactRepository} bean is replaced by its {@link ShardedContactRepository} wrapper, so
+ * every component using the repository sees all shards. Shard pools use the credentials and driver
+ * of {@code spring.datasource.*}. Cannot be combined with read replicas.
+ */
+@Configuration
+@ConditionalOnProperty("contact.sharding.shard-urls")
+class ShardingConfig {
+
+  /**
+   * Creates one connection pool per shard and the DataSource routing between them.
+   *
+   * @param properties the {@code spring.datasource} properties holding the credentials.
+   * @param urls the JDBC URL of every shard, in shard order.
+   * @param poolSize the maximum number of connections per shard.
+   * @param meterRegistry the registry the shard pool meters are published to, if any.
+   * @return the shard router.
+   */
+  @Bean
+  public ShardedDataSource shardedDataSource(
+      DataSourceProperties properties,
+      @Value("${contact.sharding.shard-urls}") List<String> urls,
+      @Value("${contact.sharding.pool-size:10}") int poolSize,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    List<DataSource> shards = new ArrayList<>(urls.size());
+    for (String url : urls) {
+      HikariDataSource shard = new HikariDataSource();
+      shard.setPoolName("shard-" + shards.size());
+      shard.setJdbcUrl(url.trim());
+      shard.setDriverClassName(properties.determineDriverClassName());
+      shard.setUsername(properties.determineUsername());
+      shard.setPassword(properties.determinePassword());
+      shard.setMaximumPoolSize(poolSize);
+      meterRegistry.ifAvailable(
+          registry ->
+              shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+      shards.add(shard);
+    }
+    return new ShardedDataSource(shards);
+  }
+
+  /**
+   * The application DataSource. Connections are only taken once the first statement runs, so
+   * transactions reach the shard chosen after they began.
+   *
+   * @param shardedDataSource the shard router.
+   * @param concurrencyLimiter the limiter shard connections are checked out through.
+   * @return the lazily connecting proxy used by JPA and JDBC.
+   */
+  @Bean
+  @Primary
+  public LazyConnectionDataSourceProxy dataSource(
+      ShardedDataSource shardedDataSource, DatabaseConcurrencyLimiter concurrencyLimiter) {
+    return new LazyConnectionDataSourceProxy(concurrencyLimiter.limit(shardedDataSource));
+  }
+
+  /**
+   * Creates the router spreading repository calls over the shards.
+   *
+   * @param shardedDataSource the shard router.
+   * @param transactionManager the transaction manager, for reading streams shard by shard.
+   * @param maxPageOffset the deepest row a scattered page may reach.
+   * @return the sharded repository factory.
+   */
+  @Bean
+  public ShardedContactRepository shardedContactRepository(
+      ShardedDataSource shardedDataSource,
+      ObjectProvider<PlatformTransactionManager> transactionManager,
+      @Value("${contact.sharding.max-page-offset:10000}") long maxPageOffset) {
+    return new ShardedContactRepository(shardedDataSource, transactionManager, maxPageOffset);
+  }
+
+  /**
+   * Replaces the contact repository bean with its sharded wrapper.
+   *
+   * @param shardedContactRepository the sharded repository factory, resolved on first use.
+   * @return a BeanPostProcessor wrapping the repository.
+   */
+  @Bean
+  static BeanPostProcessor shardedContactRepositoryWrapper(
+      ObjectProvider<ShardedContactRepository> shardedContactRepository) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ContactRepository repository) {
+          return shardedContactRepository.getObject().wrap(repository);
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -1,23 +1,26 @@
 package org.safetrust.managecontacts.config;
 
-import org.safetrust.managecontacts.interceptor.LoggingInterceptor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
 import org.springdoc.core.models.GroupedOpenApi;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 class WebConfig implements WebMvcConfigurer {
+  private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
 
-  /**
-   * Configures and adds custom interceptors to the application's interceptor registry.
-   *
-   * @param registry the InterceptorRegistry object used to register one or more interceptors.
-   */
-  @Override
-  public void addInterceptors(InterceptorRegistry registry) {
-    registry.addInterceptor(new LoggingInterceptor());
+  WebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders) {
+    this.objectMapperBuilders = objectMapperBuilders;
   }
 
   /**
@@ -30,4 +33,50 @@ class WebConfig implements WebMvcConfigurer {
   public GroupedOpenApi publicApi() {
     return GroupedOpenApi.builder().group("contact").pathsToMatch("/api/contact/**").build();
   }
+
+  /**
+   * Serves and accepts {@code application/cbor}, with the same mapper configuration (modules,
+   * page serialization, date handling) as JSON. Replaces Spring's default CBOR converter in place,
+   * so JSON stays the default format.
+   *
+   * @param builder the application's ObjectMapper builder.
+   * @return the CBOR converter.
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  /**
+   * Serves and accepts {@code application/x-jackson-smile}, with the same mapper configuration as
+   * JSON.
+   *
+   * @param builder the application's ObjectMapper builder.
+   * @return the Smile converter.
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.factory(new SmileFactory()).build());
+  }
+
+  /**
+   * Adds {@code application/x-protobuf} for the contact payloads. It is appended after the other
+   * converters rather than declared as a bean, which would put it first and make it the format
+   * for requests that accept anything.
+   *
+   * @param converters the configured converters.
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(
+        new ContactProtobufHttpMessageConverter(
+            objectMapperBuilders
+                .getObject()
+                .factory(new ProtobufFactory())
+                .featuresToEnable(JsonGenerator.Feature.IGNORE_UNKNOWN)
+                .build()));
+  }
 }
@@ -0,0 +1,70 @@
+package org.safetrust.managecontacts.controller;
+
+import org.safetrust.managecontacts.changefeed.ChangeFeed;
+import org.safetrust.managecontacts.changefeed.ChangeStreams;
+import org.safetrust.managecontacts.dto.ChangeBatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/contact/changes")
+public class ChangeFeedController {
+  private final ChangeFeed changeFeed;
+  private final ChangeStreams changeStreams;
+
+  @Autowired
+  public ChangeFeedController(ChangeFeed changeFeed, ChangeStreams changeStreams) {
+    this.changeFeed = changeFeed;
+    this.changeStreams = changeStreams;
+  }
+
+  /**
+   * Retrieves the changes made to contacts after a position, for incremental sync. Clients first
+   * call this without {@code since} to get their starting position, then load all contacts, and
+   * then repeatedly pass the returned {@code next} as {@code since}. Taking the position before the
+   * load means that a change made while the load runs is replayed rather than lost; replaying a
+   * change the load already saw is harmless, as applying a change twice gives the same result.
+   *
+   * @param since the sequence number of the last change the client has seen; omit it to get the
+   *     current position without any changes.
+   * @param limit the maximum number of changes to return, between 1 and 1000, defaulting to 500.
+   * @return a ResponseEntity containing a ChangeBatch (HTTP 200 OK), or HTTP 410 Gone with {@code
+   *     resyncRequired} set if the changes after {@code since} are no longer retained, in which
+   *     case the client must reload all contacts and then continue from the returned {@code
+   *     next}, which was taken before the reload.
+   */
+  @GetMapping
+  public ResponseEntity<ChangeBatch> getChanges(
+      @RequestParam(required = false) Long since,
+      @RequestParam(defaultValue = "500") int limit) {
+    if (since == null) {
+      return ResponseEntity.ok(ChangeBatch.at(changeFeed.latestSequence(), false));
+    }
+    ChangeBatch batch = changeFeed.read(since, limit);
+    return batch.resyncRequired()
+        ? ResponseEntity.status(HttpStatus.GONE).body(batch)
+        : ResponseEntity.ok(batch);
+  }
+
+  /**
+   * Subscribes to the changes made to contacts as Server-Sent Events. Each change is sent as an
+   * event whose id is its sequence number; a {@code resync} event ends the stream if the client
+   * has fallen behind the retained changes.
+   *
+   * @param since the sequence number of the last change the client has seen; omit it to receive
+   *     only new changes.
+   * @param lastEventId the id of the last event received, sent by reconnecting EventSource
+   *     clients; used when {@code since} is not given.
+   * @return the event stream.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamChanges(
+      @RequestParam(required = false) Long since,
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    return changeStreams.subscribe(since != null ? since : lastEventId);
+  }
+}
@@ -1,24 +1,77 @@
 package org.safetrust.managecontacts.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.safetrust.managecontacts.cache.CacheStatistics;
+import org.safetrust.managecontacts.cache.ContactCache;
+import org.safetrust.managecontacts.dto.BulkDeleteReport;
+import org.safetrust.managecontacts.dto.BulkDeleteRequest;
+import org.safetrust.managecontacts.dto.ContactBatch;
+import org.safetrust.managecontacts.dto.ContactPatch;
+import org.safetrust.managecontacts.dto.CursorPage;
+import org.safetrust.managecontacts.dto.ImportReport;
+import org.safetrust.managecontacts.dto.SlicePage;
+import org.safetrust.managecontacts.dto.WriteStatus;
 import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.service.ContactExportService;
+import org.safetrust.managecontacts.service.ContactFields;
+import org.safetrust.managecontacts.service.ContactImportService;
 import org.safetrust.managecontacts.service.ContactService;
+import org.safetrust.managecontacts.service.CountMode;
+import org.safetrust.managecontacts.service.ETags;
+import org.safetrust.managecontacts.writebehind.WriteBehindQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/contact")
 public class ContactController {
+  private static final String PREFER = "Prefer";
+  private static final String PREFERENCE_APPLIED = "Preference-Applied";
+  private static final String RESPOND_ASYNC = "respond-async";
+  private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
   private final ContactService contactService;
+  private final ContactImportService contactImportService;
+  private final ContactExportService contactExportService;
+  private final ContactCache contactCache;
+  private final WriteBehindQueue writeBehindQueue;
+  private final Validator validator;
 
   @Autowired
-  public ContactController(ContactService contactService) {
+  public ContactController(
+      ContactService contactService,
+      ContactImportService contactImportService,
+      ContactExportService contactExportService,
+      ContactCache contactCache,
+      WriteBehindQueue writeBehindQueue,
+      Validator validator) {
     this.contactService = contactService;
+    this.contactImportService = contactImportService;
+    this.contactExportService = contactExportService;
+    this.contactCache = contactCache;
+    this.writeBehindQueue = writeBehindQueue;
+    this.validator = validator;
   }
 
   /**
@@ -26,41 +79,220 @@ public class ContactController {
    *
    * @param page the page number to retrieve, defaulting to 0 (the first page) if not specified.
    * @param size the number of contacts per page, defaulting to 10 if not specified.
-   * @return a Page object containing a subset of Contact entities based on the specified pagination
-   *     parameters.
+   * @param count how the total is determined: {@code exact} (the default) runs a count query,
+   *     {@code estimate} reports the tracked number of contacts, and {@code none} omits the total
+   *     and only reports whether a next page exists.
+   * @param fields the comma-separated fields to return, e.g. {@code id,name,email}; when given,
+   *     only those columns are read and returned, without an ETag.
+   * @param ifNoneMatch the ETag of the client's copy of the page, if any.
+   * @return a ResponseEntity containing a Page of Contact entities (or a count-free page for {@code
+   *     count=none}) and its ETag, or HTTP 304 Not Modified without a body if the client's copy is
+   *     current.
    */
   @GetMapping
-  public Page<Contact> getAllContacts(
-      @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+  public ResponseEntity<?> getAllContacts(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(defaultValue = "exact") String count,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     Pageable pageable = PageRequest.of(page, size);
-    return contactService.getAllContacts(pageable);
+    CountMode mode = CountMode.from(count);
+    if (fields != null) {
+      return ResponseEntity.ok(
+          body(contactService.getAllContactFields(pageable, mode, ContactFields.parse(fields))));
+    }
+    return withETag(contactService.getAllContacts(pageable, mode), ifNoneMatch);
+  }
+
+  /**
+   * Retrieves contacts in ascending id order using keyset (cursor) pagination. Each response
+   * carries an opaque {@code next} cursor; passing it back as {@code after} returns the following
+   * slice. Deep slices cost the same as the first one and no total count is computed.
+   *
+   * @param after the cursor returned with the previous slice; omit it to start from the beginning.
+   * @param size the number of contacts per slice, defaulting to 10 if not specified.
+   * @return a CursorPage containing the contacts and the cursor of the next slice, if any.
+   * @throws IllegalArgumentException if the cursor is malformed or the size is out of range.
+   */
+  @GetMapping("/scroll")
+  public CursorPage<Contact> scrollContacts(
+      @RequestParam(required = false) String after, @RequestParam(defaultValue = "10") int size) {
+    return contactService.scrollContacts(after, size);
   }
 
   /**
    * Saves a new contact or updates an existing contact in the database.
    *
+   * <p>A contact carrying an ID updates that contact exactly like {@code PUT /api/contact/{id}},
+   * answering 404 Not Found if it does not exist. With {@code Prefer: respond-async}, a new contact
+   * (one without an ID) is queued and written in the background instead.
+   *
    * @param contact the Contact object received in the request body, validated to ensure it meets
    *     the constraints. This object should contain the necessary fields like name, email, and
    *     phone number.
-   * @return the saved Contact object, including any auto-generated fields such as ID or timestamps.
+   * @param prefer the value of the Prefer request header, if any.
+   * @return the saved Contact object, including any auto-generated fields such as ID or timestamps,
+   *     or HTTP 202 Accepted with the status of the queued write if it is processed asynchronously.
    */
   @PostMapping
-  public Contact saveContact(@RequestBody @Valid Contact contact) {
-    return contactService.saveContact(contact);
+  public ResponseEntity<?> saveContact(
+      @RequestBody @Valid Contact contact,
+      @RequestHeader(value = PREFER, required = false) String prefer) {
+    if (contact.getId() != null) {
+      return contactService.updateContact(contact.getId(), contact, null);
+    }
+    if (respondAsync(prefer)) {
+      return accepted(writeBehindQueue.create(contact));
+    }
+    return ResponseEntity.ok(contactService.saveContact(contact));
+  }
+
+  /**
+   * Retrieves the status of a write accepted with {@code Prefer: respond-async}.
+   *
+   * @param trackingId the tracking id returned when the write was accepted.
+   * @return a ResponseEntity containing the WriteStatus (HTTP 200 OK), or HTTP 404 Not Found if the
+   *     id is unknown or its status is no longer retained.
+   */
+  @GetMapping("/writes/{trackingId}")
+  public ResponseEntity<WriteStatus> getWriteStatus(@PathVariable String trackingId) {
+    return ResponseEntity.of(writeBehindQueue.status(trackingId));
+  }
+
+  /**
+   * Imports contacts in bulk from a streamed request body. The body is processed line by line and
+   * stored in batches, so uploads of any size can be imported with constant memory.
+   *
+   * @param contentType the media type of the body: {@code text/csv} with a header row naming the
+   *     columns (name, email, address, telephone_number, postal_address), or {@code
+   *     application/x-ndjson} with one JSON contact per line.
+   * @param body the streamed request body.
+   * @return an ImportReport listing how many rows were imported and why rows were rejected.
+   * @throws IOException if the request body cannot be read.
+   */
+  @PostMapping(
+      value = "/import",
+      consumes = {ContactImportService.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ImportReport importContacts(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body)
+      throws IOException {
+    return contactImportService.importContacts(body, contentType);
+  }
+
+  /**
+   * Exports all contacts, or all contacts matching a search keyword, as a stream. Rows are written
+   * to the response as they are read from a database cursor, so exports of any size run with
+   * constant memory.
+   *
+   * @param format the output format, {@code ndjson} (default) or {@code csv}.
+   * @param searchKeyword an optional keyword restricting the export to matching contacts.
+   * @return a ResponseEntity streaming the contacts in ascending id order.
+   * @throws IllegalArgumentException if the format is not supported or the keyword is blank.
+   */
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportContacts(
+      @RequestParam(defaultValue = "ndjson") String format,
+      @RequestParam(required = false) String searchKeyword) {
+    ContactExportService.Format exportFormat = ContactExportService.Format.from(format);
+    if (searchKeyword != null && searchKeyword.isBlank()) {
+      throw new IllegalArgumentException("Keyword must not be empty");
+    }
+    StreamingResponseBody body =
+        out -> contactExportService.exportContacts(out, exportFormat, searchKeyword);
+    return ResponseEntity.ok()
+        .contentType(exportFormat.mediaType())
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=contacts." + exportFormat.extension())
+        .body(body);
+  }
+
+  /**
+   * Retrieves the hit, miss and eviction counters of the contact cache used by id lookups.
+   *
+   * @return a CacheStatistics snapshot of the cache counters.
+   */
+  @GetMapping("/cache/stats")
+  public CacheStatistics getCacheStatistics() {
+    return contactCache.statistics();
   }
 
   /**
    * Retrieves a specific contact by its unique identifier (ID).
    *
    * @param id the unique identifier of the contact to retrieve, extracted from the URL path.
-   * @return a ResponseEntity containing: - The Contact object if found (HTTP 200 OK). - An
-   *     appropriate HTTP status with a detailed message if the contact does not exist (HTTP 404 Not
-   *     Found). - A bad request response if the provided ID is invalid (HTTP 400 Bad Request).
+   * @param ifNoneMatch the ETag of the client's copy of the contact, if any.
+   * @return a ResponseEntity containing: - The Contact object and its ETag if found (HTTP 200 OK).
+   *     - HTTP 304 Not Modified without a body if the client's copy is current. - An appropriate
+   *     HTTP status with a detailed message if the contact does not exist (HTTP 404 Not Found). - A
+   *     bad request response if the provided ID is invalid (HTTP 400 Bad Request).
    * @throws IllegalArgumentException if the provided ID is null or invalid.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<?> getContactById(@PathVariable Long id) {
-    return contactService.getContactById(id);
+  public ResponseEntity<?> getContactById(
+      @PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return contactService.getContactById(id, ifNoneMatch);
+  }
+
+  /**
+   * Retrieves many contacts by id in one request.
+   *
+   * @param ids the comma-separated identifiers of the contacts to retrieve, at most 1000.
+   * @return a ResponseEntity containing the contacts found, in request order, and the ids that were
+   *     not found (HTTP 200 OK), or HTTP 400 Bad Request if too many or no ids are given.
+   */
+  @GetMapping("/batch")
+  public ResponseEntity<ContactBatch> getContactsByIds(@RequestParam List<Long> ids) {
+    return ResponseEntity.ok(contactService.getContactsByIds(ids));
+  }
+
+  /**
+   * Looks up contacts by email address or by telephone number through their indexed lookup keys.
+   * Emails match regardless of case; telephone numbers match regardless of formatting, so {@code
+   * (123) 456-7890} finds a contact stored as {@code +1 123-456-7890}.
+   *
+   * @param email the email address to look up.
+   * @param phone the telephone number to look up.
+   * @return a ResponseEntity containing the matching contacts (HTTP 200 OK), or HTTP 400 Bad
+   *     Request unless exactly one of email and phone is given.
+   */
+  @GetMapping("/lookup")
+  public ResponseEntity<List<Contact>> lookupContacts(
+      @RequestParam(required = false) String email,
+      @RequestParam(required = false) String phone) {
+    if ((email == null) == (phone == null)) {
+      throw new IllegalArgumentException("Exactly one of email and phone must be given");
+    }
+    return ResponseEntity.ok(
+        email != null
+            ? contactService.findContactsByEmail(email)
+            : contactService.findContactsByTelephoneNumber(phone));
+  }
+
+  /**
+   * Tells whether a contact with the given email address exists, ignoring case. Unknown emails are
+   * usually answered from memory without touching the database.
+   *
+   * @param email the email address to check.
+   * @return a ResponseEntity containing {@code {"exists": true|false}} (HTTP 200 OK).
+   */
+  @GetMapping("/email-exists")
+  public ResponseEntity<Map<String, Boolean>> emailExists(@RequestParam String email) {
+    return ResponseEntity.ok(Map.of("exists", contactService.emailExists(email)));
+  }
+
+  /**
+   * Retrieves many contacts by id in one request, for id lists too long for a query string.
+   *
+   * @param ids a JSON array of the identifiers of the contacts to retrieve, at most 1000.
+   * @return a ResponseEntity containing the contacts found, in request order, and the ids that were
+   *     not found (HTTP 200 OK), or HTTP 400 Bad Request if too many or no ids are given.
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<ContactBatch> postContactsByIds(@RequestBody List<Long> ids) {
+    return ResponseEntity.ok(contactService.getContactsByIds(ids));
   }
 
   /**
@@ -77,22 +309,95 @@ public class ContactController {
     return contactService.deleteContactById(id);
   }
 
+  /**
+   * Deletes many contacts at once, selected by id or by a keyword their names contain (ignoring
+   * case; other fields are not matched). Contacts are removed in chunks without being loaded.
+   *
+   * @param request a body naming either {@code ids} or a {@code searchKeyword}.
+   * @return a ResponseEntity containing the number of selected and deleted contacts (HTTP 200 OK),
+   *     or HTTP 400 Bad Request if the request names neither or both.
+   */
+  @PostMapping("/delete")
+  public ResponseEntity<BulkDeleteReport> deleteContacts(@RequestBody BulkDeleteRequest request) {
+    return ResponseEntity.ok(contactService.deleteContacts(request));
+  }
+
   /**
    * Updates an existing contact with the provided details.
    *
    * @param id the unique identifier of the contact to update, extracted from the URL path.
    * @param updatedContact a valid Contact object containing the updated details, provided in the
    *     request body. Validation is applied to ensure the data is valid.
-   * @return a ResponseEntity containing: - The updated Contact object if the update is successful
-   *     (HTTP 200 OK). - HTTP 404 Not Found if the contact with the given ID does not exist. - HTTP
-   *     400 Bad Request if the provided ID is invalid or if validation on the updated contact
-   *     fails.
+   * @param ifMatch the ETag of the version the client edited, if any; the update is rejected if the
+   *     contact has changed since.
+   * @param prefer the value of the Prefer request header, if any; with {@code respond-async}, an
+   *     unconditional update is queued, merged with other queued updates of the contact, and
+   *     written in the background.
+   * @return a ResponseEntity containing: - The updated Contact object and its new ETag if the
+   *     update is successful (HTTP 200 OK). - HTTP 202 Accepted with the status of the queued write
+   *     if it is processed asynchronously. - HTTP 404 Not Found if the contact with the given ID
+   *     does not exist. - HTTP 400 Bad Request if the provided ID is invalid or if validation on
+   *     the updated contact fails. - HTTP 412 Precondition Failed if the If-Match ETag is stale.
    * @throws IllegalArgumentException if the provided ID is null or invalid.
    */
   @PutMapping("/{id}")
-  public ResponseEntity<Contact> updateContact(
-      @PathVariable Long id, @RequestBody @Valid Contact updatedContact) {
-    return contactService.updateContact(id, updatedContact);
+  public ResponseEntity<?> updateContact(
+      @PathVariable Long id,
+      @RequestBody @Valid Contact updatedContact,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestHeader(value = PREFER, required = false) String prefer) {
+    if (id != null && id > 0 && ifMatch == null && respondAsync(prefer)) {
+      return accepted(writeBehindQueue.update(id, updatedContact));
+    }
+    return contactService.updateContact(id, updatedContact, ifMatch);
+  }
+
+  /**
+   * Partially updates a contact: only the fields present in the request body are changed, and
+   * fields set to null keep their current value. The update runs as a single statement without
+   * reading the contact first.
+   *
+   * @param id the unique identifier of the contact to update, extracted from the URL path.
+   * @param patch the fields to change; each present field is validated like on create.
+   * @param ifMatch the ETag of the version the client edited, if any; the update is rejected if the
+   *     contact has changed since.
+   * @return a ResponseEntity with HTTP 204 No Content (and the new ETag for conditional updates) if
+   *     the contact was updated, HTTP 404 Not Found if it does not exist, HTTP 400 Bad Request if
+   *     the patch is empty or invalid, or HTTP 412 Precondition Failed if the If-Match ETag is
+   *     stale.
+   */
+  @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Void> patchContact(
+      @PathVariable Long id,
+      @RequestBody @Valid ContactPatch patch,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return contactService.patchContact(id, patch, ifMatch);
+  }
+
+  /**
+   * Applies a JSON merge patch (RFC 7396) to a contact. Unlike a plain JSON patch, a member set to
+   * null removes the field; only the address may be removed, since every contact must keep the
+   * other fields.
+   *
+   * @param id the unique identifier of the contact to update, extracted from the URL path.
+   * @param document the merge patch; each field it sets is validated like on create.
+   * @param ifMatch the ETag of the version the client edited, if any; the update is rejected if the
+   *     contact has changed since.
+   * @return the same responses as {@link #patchContact(Long, ContactPatch, String)}, and HTTP 400
+   *     Bad Request if the patch removes a required field.
+   */
+  @PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON)
+  public ResponseEntity<Void> mergePatchContact(
+      @PathVariable Long id,
+      @RequestBody JsonNode document,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    ContactPatch patch = ContactPatch.fromMergePatch(document);
+    Set<ConstraintViolation<ContactPatch>> violations = validator.validate(patch);
+    if (!violations.isEmpty()) {
+      throw new ConstraintViolationException(violations);
+    }
+    return contactService.patchContact(
+        id, patch, ContactPatch.removesAddress(document), ifMatch);
   }
 
   /**
@@ -102,17 +407,73 @@ public class ContactController {
    *     etc.).
    * @param page the page number to retrieve, defaulting to 0 (the first page) if not specified.
    * @param size the number of contacts to retrieve per page, defaulting to 10 if not specified.
-   * @return a Page object containing the matching contacts and pagination metadata. - If matches
-   *     are found, it returns the contacts (HTTP 200 OK). - If no matches are found, it returns an
-   *     empty page.
+   * @param count how the total is determined: {@code exact} (the default), {@code estimate} or
+   *     {@code none}; only {@code exact} may run a count query.
+   * @param fields the comma-separated fields to return, e.g. {@code id,name,email}; when given,
+   *     only those columns are read and returned, without an ETag.
+   * @param ifNoneMatch the ETag of the client's copy of the results, if any.
+   * @return a ResponseEntity containing a Page of the matching contacts, pagination metadata and an
+   *     ETag. - If matches are found, it returns the contacts (HTTP 200 OK). - If no matches are
+   *     found, it returns an empty page. - If the client's copy is current, it returns HTTP 304
+   *     Not Modified without a body.
    * @throws IllegalArgumentException if the `searchKeyword` is null or empty.
    */
   @GetMapping("/search")
-  public Page<Contact> searchContacts(
+  public ResponseEntity<?> searchContacts(
       @RequestParam String searchKeyword,
       @RequestParam(defaultValue = "0") int page,
-      @RequestParam(defaultValue = "10") int size) {
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(defaultValue = "exact") String count,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     Pageable pageable = PageRequest.of(page, size);
-    return contactService.searchContacts(searchKeyword, pageable);
+    CountMode mode = CountMode.from(count);
+    if (fields != null) {
+      return ResponseEntity.ok(
+          body(
+              contactService.searchContactFields(
+                  searchKeyword, pageable, mode, ContactFields.parse(fields))));
+    }
+    return withETag(contactService.searchContacts(searchKeyword, pageable, mode), ifNoneMatch);
+  }
+
+  /**
+   * Wraps a page of contacts in a response carrying its ETag, or answers 304 Not Modified without
+   * serializing the page when the client already holds it. Slices without a total are returned as
+   * a {@link SlicePage}.
+   */
+  private static ResponseEntity<?> withETag(Slice<Contact> page, String ifNoneMatch) {
+    String etag = ETags.of(page);
+    if (ETags.matchesAny(ifNoneMatch, etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+    return ResponseEntity.ok().eTag(etag).body(body(page));
+  }
+
+  /** Returns pages as they are, and slices without a total as a {@link SlicePage}. */
+  private static Object body(Slice<?> slice) {
+    if (slice instanceof Page<?> page) {
+      return page;
+    }
+    return new SlicePage<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+  }
+
+  /** Returns whether the Prefer header asks for asynchronous processing and it is available. */
+  private boolean respondAsync(String prefer) {
+    return prefer != null
+        && prefer.toLowerCase(Locale.ROOT).contains(RESPOND_ASYNC)
+        && writeBehindQueue.isEnabled();
+  }
+
+  /** Answers 202 Accepted for a queued write, pointing to its status. */
+  private static ResponseEntity<WriteStatus> accepted(WriteStatus status) {
+    return ResponseEntity.accepted()
+        .location(
+            ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/contact/writes/{trackingId}")
+                .buildAndExpand(status.trackingId())
+                .toUri())
+        .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+        .body(status);
   }
 }
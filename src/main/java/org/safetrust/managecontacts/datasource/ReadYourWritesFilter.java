@@ -0,0 +1,75 @@
+package org.safetrust.managecontacts.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.safetrust.managecontacts.admission.ClientIdentity;
+import org.safetrust.managecontacts.admission.EndpointClass;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Gives clients read-your-writes consistency on top of asynchronously updated read replicas.
+ *
+ * <p>Write requests run entirely on the primary. The client is then remembered until {@code
+ * contact.datasource.read-your-writes-window} after the write completes, and its reads until then
+ * are {@linkplain RoutingContext#pinToPrimary() pinned to the primary} as well, so they cannot hit
+ * a replica that has not yet caught up. The window should exceed the usual replication lag.
+ * Clients are identified by {@link ClientIdentity}, like in admission control, and at most {@code
+ * contact.datasource.read-your-writes-clients} of them are remembered.
+ */
+@Component
+@ConditionalOnProperty("contact.datasource.replica-urls")
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+  private static final String API_PATH = "/api/contact";
+
+  private final ClientIdentity clientIdentity;
+  private final Cache<String, Boolean> recentWriters;
+
+  public ReadYourWritesFilter(
+      ClientIdentity clientIdentity,
+      @Value("${contact.datasource.read-your-writes-window:5s}") Duration window,
+      @Value("${contact.datasource.read-your-writes-clients:100000}") long maxClients) {
+    this.clientIdentity = clientIdentity;
+    this.recentWriters =
+        Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maxClients).build();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String client = clientIdentity.of(request);
+    boolean write = EndpointClass.of(request) == EndpointClass.WRITE;
+    if (write) {
+      // Remembered up front too, since the response may reach the client before the filter ends.
+      recentWriters.put(client, Boolean.TRUE);
+    }
+    if (write || recentWriters.getIfPresent(client) != null) {
+      RoutingContext.pinToPrimary();
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      RoutingContext.clear();
+      if (write) {
+        recentWriters.put(client, Boolean.TRUE);
+      }
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package org.safetrust.managecontacts.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Hands out connections to read-only transactions from a set of replica pools, falling back to the
+ * primary.
+ *
+ * <p>Each connection request picks a replica by the configured {@link Strategy}. A replica that
+ * fails to hand out a connection is skipped for the retry interval and the next one is tried; when
+ * no replica is available, or the current thread is {@linkplain RoutingContext#isPinnedToPrimary()
+ * pinned to the primary}, the primary serves the read. Failures of a replica while a query runs
+ * are not retried; they surface to the caller like any other database error.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  /** How a replica is chosen for a connection. */
+  public enum Strategy {
+    /** Cycles through the replicas. */
+    ROUND_ROBIN,
+    /** Picks the replica with the fewest active and waiting connections. */
+    LEAST_LOADED;
+
+    /**
+     * Parses a strategy name such as {@code round-robin} or {@code least-loaded}.
+     *
+     * @param name the strategy name, in any case, with dashes or underscores.
+     * @return the Strategy.
+     * @throws IllegalArgumentException if the name is unknown.
+     */
+    public static Strategy from(String name) {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+  }
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final Strategy strategy;
+  private final long retryNanos;
+  private final AtomicInteger next = new AtomicInteger();
+  private final LongAdder primaryConnections = new LongAdder();
+
+  /**
+   * Creates the router.
+   *
+   * @param primary the primary, used when no replica can serve a read.
+   * @param replicas the replica pools, named by their pool names.
+   * @param strategy how a replica is chosen.
+   * @param retryInterval how long a failed replica is skipped before it is tried again.
+   */
+  public ReplicaRoutingDataSource(
+      DataSource primary,
+      List<HikariDataSource> replicas,
+      Strategy strategy,
+      Duration retryInterval) {
+    this.primary = primary;
+    this.replicas = replicas.stream().map(Replica::new).toList();
+    this.strategy = strategy;
+    this.retryNanos = retryInterval.toNanos();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (!RoutingContext.isPinnedToPrimary()) {
+      for (Replica replica : candidates()) {
+        try {
+          Connection connection = replica.pool.getConnection();
+          replica.connections.increment();
+          return connection;
+        } catch (SQLException | RuntimeException ex) {
+          replica.downUntil = System.nanoTime() + retryNanos;
+          logger.warn(
+              "Replica '{}' unavailable, skipping it for {} ms: {}",
+              replica.name(),
+              retryNanos / 1_000_000,
+              ex.getMessage());
+        }
+      }
+    }
+    primaryConnections.increment();
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return getConnection();
+  }
+
+  /**
+   * Returns the names of the replicas.
+   *
+   * @return the replica pool names, in configuration order.
+   */
+  public List<String> replicaNames() {
+    return replicas.stream().map(Replica::name).toList();
+  }
+
+  /**
+   * Returns the number of read-only connections handed out by a replica.
+   *
+   * @param name the replica pool name.
+   * @return the connection count, or 0 for an unknown replica.
+   */
+  public long replicaConnections(String name) {
+    return replicas.stream()
+        .filter(replica -> replica.name().equals(name))
+        .mapToLong(replica -> replica.connections.sum())
+        .sum();
+  }
+
+  /**
+   * Returns the number of read-only connections that fell back to, or were pinned to, the primary.
+   *
+   * @return the connection count.
+   */
+  public long primaryConnections() {
+    return primaryConnections.sum();
+  }
+
+  /**
+   * Tells whether a replica is currently used, that is, has not failed within the retry interval.
+   *
+   * @param name the replica pool name.
+   * @return true if the replica is available.
+   */
+  public boolean isAvailable(String name) {
+    long now = System.nanoTime();
+    return replicas.stream()
+        .anyMatch(replica -> replica.name().equals(name) && replica.isAvailable(now));
+  }
+
+  @Override
+  public void destroy() {
+    replicas.forEach(replica -> replica.pool.close());
+  }
+
+  /** Orders the available replicas by preference. */
+  private List<Replica> candidates() {
+    long now = System.nanoTime();
+    List<Replica> available = new ArrayList<>(replicas.size());
+    int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+    for (int i = 0; i < replicas.size(); i++) {
+      Replica replica = replicas.get((start + i) % replicas.size());
+      if (replica.isAvailable(now)) {
+        available.add(replica);
+      }
+    }
+    if (strategy == Strategy.LEAST_LOADED) {
+      available.sort(Comparator.comparingInt(Replica::load));
+    }
+    return available;
+  }
+
+  /** A replica pool and its routing state. */
+  private static final class Replica {
+    private final HikariDataSource pool;
+    private final LongAdder connections = new LongAdder();
+    private volatile long downUntil;
+
+    private Replica(HikariDataSource pool) {
+      this.pool = pool;
+    }
+
+    private String name() {
+      return pool.getPoolName();
+    }
+
+    private boolean isAvailable(long now) {
+      return downUntil == 0 || now - downUntil >= 0;
+    }
+
+    /** Connections in use plus threads waiting for one; 0 before the pool has started. */
+    private int load() {
+      HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+      return bean == null ? 0 : bean.getActiveConnections() + bean.getThreadsAwaitingConnection();
+    }
+  }
+}
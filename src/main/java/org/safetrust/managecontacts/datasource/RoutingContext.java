@@ -0,0 +1,30 @@
+package org.safetrust.managecontacts.datasource;
+
+/**
+ * Per-thread routing hints for the read replica setup. While a thread is pinned to the primary,
+ * read-only transactions get primary connections too, so a client reads its own writes.
+ */
+public final class RoutingContext {
+  private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+  private RoutingContext() {}
+
+  /** Sends all connections requested by the current thread to the primary. */
+  public static void pinToPrimary() {
+    PINNED_TO_PRIMARY.set(Boolean.TRUE);
+  }
+
+  /** Lets read-only transactions of the current thread use the replicas again. */
+  public static void clear() {
+    PINNED_TO_PRIMARY.remove();
+  }
+
+  /**
+   * Tells whether the current thread is pinned to the primary.
+   *
+   * @return true if reads must not go to a replica.
+   */
+  public static boolean isPinnedToPrimary() {
+    return PINNED_TO_PRIMARY.get() != null;
+  }
+}
@@ -0,0 +1,9 @@
+package org.safetrust.managecontacts.dto;
+
+/**
+ * Outcome of a bulk delete.
+ *
+ * @param requested the number of contacts selected by the request.
+ * @param deleted the number of contacts actually removed; ids that did not exist are not counted.
+ */
+public record BulkDeleteReport(long requested, long deleted) {}
@@ -0,0 +1,12 @@
+package org.safetrust.managecontacts.dto;
+
+import java.util.List;
+
+/**
+ * Selects the contacts to remove in a bulk delete: either an explicit list of ids or every contact
+ * whose name contains a keyword, ignoring case, but not both.
+ *
+ * @param ids the identifiers of the contacts to delete, or null.
+ * @param searchKeyword the keyword the names of the contacts to delete contain, or null.
+ */
+public record BulkDeleteRequest(List<Long> ids, String searchKeyword) {}
@@ -0,0 +1,28 @@
+package org.safetrust.managecontacts.dto;
+
+import java.util.List;
+import org.safetrust.managecontacts.changefeed.ChangeRecord;
+
+/**
+ * A batch of changes read from the change feed.
+ *
+ * @param changes the changes after the requested sequence number, in order.
+ * @param next the sequence number to pass as {@code since} for the following batch.
+ * @param hasMore whether further changes are already available after {@code next}.
+ * @param resyncRequired whether the requested position is no longer retained, so the client must
+ *     reload all contacts and continue from {@code next}.
+ */
+public record ChangeBatch(
+    List<ChangeRecord> changes, long next, boolean hasMore, boolean resyncRequired) {
+
+  /**
+   * Creates an empty batch positioned at the end of the feed.
+   *
+   * @param latest the sequence number of the latest change.
+   * @param resyncRequired whether the client must reload all contacts first.
+   * @return the batch.
+   */
+  public static ChangeBatch at(long latest, boolean resyncRequired) {
+    return new ChangeBatch(List.of(), latest, false, resyncRequired);
+  }
+}
@@ -0,0 +1,12 @@
+package org.safetrust.managecontacts.dto;
+
+import java.util.List;
+import org.safetrust.managecontacts.entity.Contact;
+
+/**
+ * Result of a multi-get by ids.
+ *
+ * @param contacts the contacts found, in the order their ids were requested.
+ * @param missing the requested ids for which no contact exists, in request order.
+ */
+public record ContactBatch(List<Contact> contacts, List<Long> missing) {}
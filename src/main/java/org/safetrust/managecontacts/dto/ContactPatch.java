@@ -0,0 +1,109 @@
+package org.safetrust.managecontacts.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import org.safetrust.managecontacts.entity.Contact;
+
+/**
+ * A partial update of a contact. Only the fields present in the request are changed; absent (null)
+ * fields keep their current value. Present fields are validated with the same rules as {@link
+ * Contact}.
+ *
+ * <p>A JSON merge patch ({@code application/merge-patch+json}) can also remove a field by setting
+ * it to null; see {@link #fromMergePatch(JsonNode)} and {@link #removesAddress(JsonNode)}.
+ *
+ * @param name the new name, or null to keep the current one.
+ * @param email the new email address, or null to keep the current one.
+ * @param address the new address, or null to keep the current one.
+ * @param telephoneNumber the new telephone number, or null to keep the current one.
+ * @param postalAddress the new postal address, or null to keep the current one.
+ */
+public record ContactPatch(
+    @Pattern(regexp = ".*\\S.*", message = "Name must not be blank")
+        @Size(max = 100, message = "Name must be less than 100 characters")
+        String name,
+    @Pattern(regexp = ".*\\S.*", message = "Email must not be blank")
+        @Email(message = "Email should be valid")
+        String email,
+    String address,
+    @Pattern(regexp = "\\+?[0-9 .()-]{7,15}", message = "Telephone number is invalid")
+        String telephoneNumber,
+    @Pattern(regexp = ".*\\S.*", message = "Postal address must not be blank")
+        @Size(max = 255, message = "Postal address must be less than 255 characters")
+        String postalAddress) {
+
+  /**
+   * Returns true if the patch does not change any field.
+   *
+   * @return whether every field is null.
+   */
+  public boolean isEmpty() {
+    return name == null
+        && email == null
+        && address == null
+        && telephoneNumber == null
+        && postalAddress == null;
+  }
+
+  /**
+   * Returns the changed fields as a contact, for publishing the change. Unchanged fields are null.
+   *
+   * @param id the identifier of the patched contact.
+   * @return a Contact holding only the changed fields.
+   */
+  public Contact toChanges(Long id) {
+    return new Contact(id, name, email, address, telephoneNumber, postalAddress);
+  }
+
+  /**
+   * Reads the changed fields of a JSON merge patch (RFC 7396). Members set to null are removals
+   * and are left out; {@link #removesAddress(JsonNode)} reports the only one that is allowed.
+   * Unknown members are ignored, as they are for plain JSON patches.
+   *
+   * @param document the merge patch document.
+   * @return the fields the merge patch sets.
+   * @throws IllegalArgumentException if the document is not an object, if a field is not a string,
+   *     or if it removes a field every contact must have.
+   */
+  public static ContactPatch fromMergePatch(JsonNode document) {
+    if (document == null || !document.isObject()) {
+      throw new IllegalArgumentException("Merge patch must be a JSON object");
+    }
+    return new ContactPatch(
+        required(document, "name"),
+        required(document, "email"),
+        optional(document, "address"),
+        required(document, "telephoneNumber"),
+        required(document, "postalAddress"));
+  }
+
+  /**
+   * Returns true if a JSON merge patch removes the address, by setting it to null.
+   *
+   * @param document the merge patch document.
+   * @return whether the document holds {@code "address": null}.
+   */
+  public static boolean removesAddress(JsonNode document) {
+    return document != null && document.path("address").isNull();
+  }
+
+  private static String required(JsonNode document, String field) {
+    if (document.path(field).isNull()) {
+      throw new IllegalArgumentException("Field " + field + " is required and cannot be removed");
+    }
+    return optional(document, field);
+  }
+
+  private static String optional(JsonNode document, String field) {
+    JsonNode value = document.path(field);
+    if (value.isMissingNode() || value.isNull()) {
+      return null;
+    }
+    if (!value.isTextual()) {
+      throw new IllegalArgumentException("Field " + field + " must be a string");
+    }
+    return value.textValue();
+  }
+}
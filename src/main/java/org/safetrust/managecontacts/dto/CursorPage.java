@@ -0,0 +1,14 @@
+package org.safetrust.managecontacts.dto;
+
+import java.util.List;
+
+/**
+ * A slice of results addressed by an opaque cursor instead of a page number.
+ *
+ * @param content the items of this slice, in ascending id order.
+ * @param size the requested slice size.
+ * @param hasNext whether more items exist after this slice.
+ * @param next the cursor to pass as {@code after} to fetch the following slice, or null when this
+ *     is the last slice.
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String next) {}
@@ -0,0 +1,24 @@
+package org.safetrust.managecontacts.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk contact import.
+ *
+ * @param received the number of data rows read from the upload.
+ * @param imported the number of contacts stored.
+ * @param rejected the number of rows that were not stored.
+ * @param errors the reasons rows were rejected, in upload order; capped to keep the report small.
+ * @param errorsTruncated whether more rows were rejected than listed in {@code errors}.
+ */
+public record ImportReport(
+    long received, long imported, long rejected, List<RowError> errors, boolean errorsTruncated) {
+
+  /**
+   * The reason a single row was rejected.
+   *
+   * @param line the 1-based line number of the row in the upload.
+   * @param message a description of what was wrong with the row.
+   */
+  public record RowError(long line, String message) {}
+}
@@ -0,0 +1,13 @@
+package org.safetrust.managecontacts.dto;
+
+import java.util.List;
+
+/**
+ * A page of results without a total count, so producing it never runs a count query.
+ *
+ * @param content the items of this page.
+ * @param number the zero-based page number.
+ * @param size the requested page size.
+ * @param hasNext whether more items exist after this page.
+ */
+public record SlicePage<T>(List<T> content, int number, int size, boolean hasNext) {}
@@ -0,0 +1,32 @@
+package org.safetrust.managecontacts.dto;
+
+import java.time.Instant;
+
+/**
+ * The state of a write accepted for asynchronous processing.
+ *
+ * @param trackingId the id returned when the write was accepted.
+ * @param state whether the write is still queued, was applied or failed.
+ * @param contactId the id of the contact written; for creates only known once applied.
+ * @param coalesced whether the write was merged with other queued updates of the same contact and
+ *     applied together with them.
+ * @param message why the write failed, or null.
+ * @param acceptedAt when the write was accepted.
+ * @param completedAt when the write was applied or failed, or null while queued.
+ */
+public record WriteStatus(
+    String trackingId,
+    State state,
+    Long contactId,
+    boolean coalesced,
+    String message,
+    Instant acceptedAt,
+    Instant completedAt) {
+
+  /** The processing state of a queued write. */
+  public enum State {
+    QUEUED,
+    APPLIED,
+    FAILED
+  }
+}
@@ -1,5 +1,6 @@
 package org.safetrust.managecontacts.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -7,10 +8,16 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "Contact")
+@Table(
+    name = "Contact",
+    indexes = {
+      @Index(name = "idx_contact_email_key", columnList = "email_key"),
+      @Index(name = "idx_contact_phone_key", columnList = "phone_key")
+    })
 public class Contact {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_seq")
+  @SequenceGenerator(name = "contact_seq", sequenceName = "contact_seq", allocationSize = 50)
   private Long id;
 
   @Column(name = "name")
@@ -36,6 +43,20 @@ public class Contact {
   @Size(max = 255, message = "Postal address must be less than 255 characters")
   private String postalAddress;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
+  /** Lower-cased email, maintained on every write for exact-match lookups. */
+  @JsonIgnore
+  @Column(name = "email_key")
+  private String emailKey;
+
+  /** Telephone number normalized by {@link ContactKeys#phone(String)}, for exact-match lookups. */
+  @JsonIgnore
+  @Column(name = "phone_key")
+  private String phoneKey;
+
   public Contact(
       Long id,
       String name,
@@ -53,6 +74,22 @@ public class Contact {
 
   public Contact() {}
 
+  /**
+   * Creates a detached copy of another contact, field by field.
+   *
+   * @param other the contact to copy.
+   */
+  public Contact(Contact other) {
+    this(
+        other.id,
+        other.name,
+        other.email,
+        other.address,
+        other.telephoneNumber,
+        other.postalAddress);
+    this.version = other.version;
+  }
+
   public Long getId() {
     return id;
   }
@@ -100,4 +137,27 @@ public class Contact {
   public void setPostalAddress(String postalAddress) {
     this.postalAddress = postalAddress;
   }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  public String getEmailKey() {
+    return emailKey;
+  }
+
+  public String getPhoneKey() {
+    return phoneKey;
+  }
+
+  @PrePersist
+  @PreUpdate
+  void updateLookupKeys() {
+    emailKey = ContactKeys.email(email);
+    phoneKey = ContactKeys.phone(telephoneNumber);
+  }
 }
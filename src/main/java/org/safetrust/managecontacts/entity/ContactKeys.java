@@ -0,0 +1,60 @@
+package org.safetrust.managecontacts.entity;
+
+import java.util.Locale;
+
+/**
+ * Normalizes emails and telephone numbers into the keys stored for exact-match lookups, so that
+ * differently written forms of the same address or number find the same contact.
+ */
+public final class ContactKeys {
+
+  private ContactKeys() {}
+
+  /**
+   * Returns the lookup key of an email address: trimmed and lower-cased.
+   *
+   * @param email the email address.
+   * @return the key, or null if the email is null or blank.
+   */
+  public static String email(String email) {
+    if (email == null || email.isBlank()) {
+      return null;
+    }
+    return email.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the E.164-style lookup key of a telephone number: a {@code +} followed by its digits.
+   * Punctuation and spaces are dropped, an international {@code 00} prefix becomes {@code +}, and a
+   * ten-digit number without a country code is taken as a North American number ({@code +1}).
+   *
+   * @param telephoneNumber the telephone number as entered.
+   * @return the key, or null if the number contains no digits.
+   */
+  public static String phone(String telephoneNumber) {
+    if (telephoneNumber == null) {
+      return null;
+    }
+    String trimmed = telephoneNumber.trim();
+    StringBuilder digits = new StringBuilder(trimmed.length());
+    for (int i = 0; i < trimmed.length(); i++) {
+      char c = trimmed.charAt(i);
+      if (c >= '0' && c <= '9') {
+        digits.append(c);
+      }
+    }
+    if (digits.isEmpty()) {
+      return null;
+    }
+    if (trimmed.startsWith("+")) {
+      return "+" + digits;
+    }
+    if (trimmed.startsWith("00") && digits.length() > 2) {
+      return "+" + digits.substring(2);
+    }
+    if (digits.length() == 10) {
+      return "+1" + digits;
+    }
+    return "+" + digits;
+  }
+}
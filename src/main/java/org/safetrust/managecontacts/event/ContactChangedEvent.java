@@ -0,0 +1,43 @@
+package org.safetrust.managecontacts.event;
+
+import org.safetrust.managecontacts.entity.Contact;
+
+/**
+ * Describes a change to a contact, so that in-process views of the contact data (such as the
+ * search index) stay in sync with the database. Listeners are {@code
+ * TransactionalEventListener}s for {@code AFTER_COMMIT} with fallback execution: an event
+ * published inside a transaction reaches them only once it has committed, and never if it rolls
+ * back; an event published outside a transaction, after the write has committed on its own,
+ * reaches them at once. Either way they run synchronously on the writing thread, before the write
+ * request returns.
+ *
+ * @param type the kind of change.
+ * @param id the identifier of the changed contact.
+ * @param contact the state of the contact after the change, or null for deletions. For partial
+ *     updates only the changed fields are set; the others are null and kept their previous value.
+ */
+public record ContactChangedEvent(Type type, Long id, Contact contact) {
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    PATCHED,
+    DELETED
+  }
+
+  public static ContactChangedEvent created(Contact contact) {
+    return new ContactChangedEvent(Type.CREATED, contact.getId(), contact);
+  }
+
+  public static ContactChangedEvent updated(Contact contact) {
+    return new ContactChangedEvent(Type.UPDATED, contact.getId(), contact);
+  }
+
+  public static ContactChangedEvent patched(Contact changes) {
+    return new ContactChangedEvent(Type.PATCHED, changes.getId(), changes);
+  }
+
+  public static ContactChangedEvent deleted(Long id) {
+    return new ContactChangedEvent(Type.DELETED, id, null);
+  }
+}
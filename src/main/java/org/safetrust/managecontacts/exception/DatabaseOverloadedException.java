@@ -0,0 +1,12 @@
+package org.safetrust.managecontacts.exception;
+
+/**
+ * Thrown when a database call is refused because the adaptive concurrency limit is reached and the
+ * call could not be queued, or waited too long for a slot.
+ */
+public class DatabaseOverloadedException extends RuntimeException {
+
+  public DatabaseOverloadedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,9 @@
+package org.safetrust.managecontacts.exception;
+
+/** Thrown when a contact is created with an email address that another contact already uses. */
+public class DuplicateContactException extends RuntimeException {
+
+  public DuplicateContactException(String message) {
+    super(message);
+  }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.ConstraintViolationException;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -73,6 +74,64 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorMessage.toString(), HttpStatus.BAD_REQUEST);
   }
 
+  /**
+   * Handles exceptions of type IllegalArgumentException, which are thrown by the service layer
+   * when request parameters such as a search keyword or a pagination cursor are invalid.
+   *
+   * @param ex the IllegalArgumentException describing the invalid argument.
+   * @return a ResponseEntity with the error message and an HTTP 400 (Bad Request) status code.
+   */
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+    logger.warn("Invalid request argument: {}", ex.getMessage());
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * Handles exceptions of type DuplicateContactException, which are thrown when duplicate emails
+   * are rejected and a contact reuses an existing email.
+   *
+   * @param ex the DuplicateContactException describing the conflict.
+   * @return a ResponseEntity with the error message and an HTTP 409 (Conflict) status code.
+   */
+  @ExceptionHandler(DuplicateContactException.class)
+  public ResponseEntity<String> handleDuplicateContactException(DuplicateContactException ex) {
+    logger.warn("Duplicate contact rejected: {}", ex.getMessage());
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+  }
+
+  /**
+   * Handles exceptions of type DatabaseOverloadedException, which are thrown when the database
+   * concurrency limiter refuses a call instead of letting it queue.
+   *
+   * @param ex the DatabaseOverloadedException describing why the call was refused.
+   * @return a ResponseEntity with the error message, a Retry-After header and an HTTP 503 (Service
+   *     Unavailable) status code.
+   */
+  @ExceptionHandler(DatabaseOverloadedException.class)
+  public ResponseEntity<String> handleDatabaseOverloadedException(DatabaseOverloadedException ex) {
+    logger.warn("Database call refused: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(ex.getMessage());
+  }
+
+  /**
+   * Handles exceptions of type WriteQueueFullException, which are thrown when an asynchronous write
+   * arrives while the write-behind queue is full.
+   *
+   * @param ex the WriteQueueFullException describing the refused write.
+   * @return a ResponseEntity with the error message, a Retry-After header and an HTTP 503 (Service
+   *     Unavailable) status code.
+   */
+  @ExceptionHandler(WriteQueueFullException.class)
+  public ResponseEntity<String> handleWriteQueueFullException(WriteQueueFullException ex) {
+    logger.warn("Asynchronous write refused: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(ex.getMessage());
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<String> handleGenericException(Exception ex) {
     logger.error("Unhandled exception: " + ex.getMessage());
@@ -0,0 +1,12 @@
+package org.safetrust.managecontacts.exception;
+
+/**
+ * Thrown when an asynchronous write is refused because the write-behind queue holds as many
+ * pending writes as it may.
+ */
+public class WriteQueueFullException extends RuntimeException {
+
+  public WriteQueueFullException(String message) {
+    super(message);
+  }
+}
@@ -1,40 +0,0 @@
-package org.safetrust.managecontacts.interceptor;
-
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.servlet.ModelAndView;
-
-public class LoggingInterceptor implements HandlerInterceptor {
-
-  private static final Logger logger = LoggerFactory.getLogger(LoggingInterceptor.class);
-
-  @Override
-  public boolean preHandle(
-      HttpServletRequest request, HttpServletResponse response, Object handler) {
-    logger.info("Incoming request: {} {}", request.getMethod(), request.getRequestURI());
-    return true;
-  }
-
-  @Override
-  public void afterCompletion(
-      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-    if (ex != null) {
-      logger.error("Request completed with exception: {}", ex.getMessage(), ex);
-    } else {
-      logger.info(
-          "Request completed successfully: {} {}", response.getStatus(), request.getRequestURI());
-    }
-  }
-
-  @Override
-  public void postHandle(
-      HttpServletRequest request,
-      HttpServletResponse response,
-      Object handler,
-      ModelAndView modelAndView) {
-    // No-op
-  }
-}
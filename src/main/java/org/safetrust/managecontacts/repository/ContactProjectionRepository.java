@@ -0,0 +1,34 @@
+package org.safetrust.managecontacts.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads selected contact columns only, for responses that do not need whole contacts. Rows are
+ * returned as maps from field name to value, in the order the fields were requested, and no
+ * managed entities are created.
+ */
+public interface ContactProjectionRepository {
+
+  /**
+   * Reads the given fields of the contacts in ascending id order, optionally filtered by name.
+   *
+   * @param fields the entity attribute names to read, such as {@code id} or {@code email}.
+   * @param nameContains the substring the names must contain, ignoring case, or null for all.
+   * @param offset the number of rows to skip.
+   * @param limit the maximum number of rows to return.
+   * @return one map per contact, holding the requested fields.
+   */
+  List<Map<String, Object>> findFields(
+      List<String> fields, String nameContains, long offset, int limit);
+
+  /**
+   * Reads the given fields of the contacts with the given ids, in no particular order.
+   *
+   * @param fields the entity attribute names to read; must include {@code id}.
+   * @param ids the identifiers of the contacts.
+   * @return one map per existing contact, holding the requested fields.
+   */
+  List<Map<String, Object>> findFieldsByIds(List<String> fields, Collection<Long> ids);
+}
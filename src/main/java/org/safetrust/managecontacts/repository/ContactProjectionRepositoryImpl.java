@@ -0,0 +1,94 @@
+package org.safetrust.managecontacts.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.hibernate.jpa.HibernateHints;
+import org.safetrust.managecontacts.entity.Contact;
+
+/**
+ * Criteria API implementation of {@link ContactProjectionRepository}: the SELECT list is built from
+ * the requested fields, and results are read as tuples so Hibernate never instantiates a contact.
+ */
+class ContactProjectionRepositoryImpl implements ContactProjectionRepository {
+  private final EntityManager entityManager;
+
+  ContactProjectionRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<Map<String, Object>> findFields(
+      List<String> fields, String nameContains, long offset, int limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Contact> contact = query.from(Contact.class);
+    query.multiselect(selections(contact, fields));
+    if (nameContains != null) {
+      query.where(
+          cb.like(
+              cb.lower(contact.get("name")),
+              "%" + escapeLike(nameContains.toLowerCase(Locale.ROOT)) + "%",
+              '\\'));
+    }
+    query.orderBy(cb.asc(contact.get("id")));
+    List<Tuple> rows =
+        entityManager
+            .createQuery(query)
+            .setFirstResult(Math.toIntExact(offset))
+            .setMaxResults(limit)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultList();
+    return toMaps(rows, fields);
+  }
+
+  @Override
+  public List<Map<String, Object>> findFieldsByIds(List<String> fields, Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Contact> contact = query.from(Contact.class);
+    query.multiselect(selections(contact, fields)).where(contact.get("id").in(ids));
+    List<Tuple> rows =
+        entityManager
+            .createQuery(query)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultList();
+    return toMaps(rows, fields);
+  }
+
+  private static List<Selection<?>> selections(Root<Contact> contact, List<String> fields) {
+    List<Selection<?>> selections = new ArrayList<>(fields.size());
+    for (String field : fields) {
+      selections.add(contact.get(field).alias(field));
+    }
+    return selections;
+  }
+
+  private static List<Map<String, Object>> toMaps(List<Tuple> rows, List<String> fields) {
+    List<Map<String, Object>> maps = new ArrayList<>(rows.size());
+    for (Tuple row : rows) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      for (String field : fields) {
+        map.put(field, row.get(field));
+      }
+      maps.add(map);
+    }
+    return maps;
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
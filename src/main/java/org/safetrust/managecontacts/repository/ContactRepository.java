@@ -1,13 +1,27 @@
 package org.safetrust.managecontacts.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.safetrust.managecontacts.entity.Contact;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface ContactRepository extends JpaRepository<Contact, Long> {
+public interface ContactRepository
+    extends JpaRepository<Contact, Long>, ContactProjectionRepository {
   /**
    * Finds contacts whose names contain the specified substring, ignoring case.
    *
@@ -18,4 +32,202 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
    *     pagination metadata.
    */
   Page<Contact> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+  /**
+   * Same as {@link #findByNameContainingIgnoreCase(String, Pageable)}, but fetches one extra row
+   * to tell whether a next page exists instead of running a count query.
+   *
+   * @param name the substring to search for in the contact names. This is case-insensitive.
+   * @param pageable a Pageable object specifying the pagination and sorting details.
+   * @return a Slice of the matching contacts, without a total.
+   */
+  Slice<Contact> findSliceByNameContainingIgnoreCase(String name, Pageable pageable);
+
+  /**
+   * Counts the contacts whose names contain the specified substring, ignoring case.
+   *
+   * @param name the substring to search for in the contact names.
+   * @return the number of matching contacts.
+   */
+  long countByNameContainingIgnoreCase(String name);
+
+  /**
+   * Retrieves a page of contacts without running a count query; one extra row is fetched to tell
+   * whether a next page exists.
+   *
+   * @param pageable a Pageable object specifying the pagination and sorting details.
+   * @return a Slice of contacts, without a total.
+   */
+  Slice<Contact> findAllBy(Pageable pageable);
+
+  /**
+   * Seeks past the given id and returns the next contacts in ascending id order. Unlike offset
+   * paging this walks the primary key index directly, so the cost does not grow with the position
+   * in the table and no count query is issued.
+   *
+   * @param id the id to seek after; contacts with a strictly greater id are returned.
+   * @param limit the maximum number of contacts to return.
+   * @return the contacts following the given id, ordered by id.
+   */
+  List<Contact> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /**
+   * Streams every contact in ascending id order from a forward-only database cursor. The rows are
+   * fetched in chunks and loaded read-only, so the caller can process the whole table without
+   * materializing it. Must be consumed inside a transaction and closed afterwards; callers should
+   * detach each entity once processed to keep the persistence context from growing.
+   *
+   * @return a Stream over all contacts, ordered by id.
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select c from Contact c order by c.id")
+  Stream<Contact> streamAll();
+
+  /**
+   * Streams the contacts whose names contain the specified substring, ignoring case, in ascending
+   * id order. Same cursor semantics as {@link #streamAll()}.
+   *
+   * @param name the substring to search for in the contact names.
+   * @return a Stream over the matching contacts, ordered by id.
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<Contact> streamByNameContainingIgnoreCaseOrderByIdAsc(String name);
+
+  /**
+   * Finds the contacts with the given email key, using its index.
+   *
+   * @param emailKey the email normalized by {@code ContactKeys.email}.
+   * @return the matching contacts, in ascending id order.
+   */
+  List<Contact> findByEmailKeyOrderByIdAsc(String emailKey);
+
+  /**
+   * Finds the contacts with the given telephone number key, using its index.
+   *
+   * @param phoneKey the telephone number normalized by {@code ContactKeys.phone}.
+   * @return the matching contacts, in ascending id order.
+   */
+  List<Contact> findByPhoneKeyOrderByIdAsc(String phoneKey);
+
+  /**
+   * Tells whether any contact has the given email key, with an index-only probe.
+   *
+   * @param emailKey the email normalized by {@code ContactKeys.email}.
+   * @return true if a contact has this email.
+   */
+  boolean existsByEmailKey(String emailKey);
+
+  /**
+   * Streams the email keys of all contacts, for filling the email Bloom filter. Must be consumed
+   * inside a transaction and closed afterwards.
+   *
+   * @return a Stream over the non-null email keys.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select c.emailKey from Contact c where c.emailKey is not null")
+  Stream<String> streamEmailKeys();
+
+  /**
+   * Looks up only the optimistic-lock version of a contact, without loading the entity. Used to
+   * answer conditional requests cheaply.
+   *
+   * @param id the identifier of the contact.
+   * @return an Optional holding the current version, or empty if the contact does not exist.
+   */
+  @Query("select c.version from Contact c where c.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  /**
+   * Applies a partial update in a single UPDATE statement, without reading the row first. Null
+   * arguments leave the corresponding column unchanged. The version is incremented like a regular
+   * entity update, so optimistic locking and entity tags keep working.
+   *
+   * @param id the identifier of the contact to update.
+   * @param version the version the update is conditional on, or null for an unconditional update.
+   * @param name the new name, or null to keep the current one.
+   * @param email the new email address, or null to keep the current one.
+   * @param address the new address, or null to keep the current one.
+   * @param clearAddress whether to remove the address instead; takes precedence over {@code
+   *     address}.
+   * @param telephoneNumber the new telephone number, or null to keep the current one.
+   * @param postalAddress the new postal address, or null to keep the current one.
+   * @param emailKey the lookup key of the new email address, or null to keep the current one.
+   * @param phoneKey the lookup key of the new telephone number, or null to keep the current one.
+   * @return the number of updated rows: 0 if the contact does not exist or has another version.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update Contact c set c.name = coalesce(:name, c.name),"
+          + " c.email = coalesce(:email, c.email),"
+          + " c.address = case when :clearAddress = true then null"
+          + " else coalesce(:address, c.address) end,"
+          + " c.telephoneNumber = coalesce(:telephoneNumber, c.telephoneNumber),"
+          + " c.postalAddress = coalesce(:postalAddress, c.postalAddress),"
+          + " c.emailKey = coalesce(:emailKey, c.emailKey),"
+          + " c.phoneKey = coalesce(:phoneKey, c.phoneKey),"
+          + " c.version = c.version + 1"
+          + " where c.id = :id and (:version is null or c.version = :version)")
+  int patchById(
+      @Param("id") Long id,
+      @Param("version") Long version,
+      @Param("name") String name,
+      @Param("email") String email,
+      @Param("address") String address,
+      @Param("clearAddress") boolean clearAddress,
+      @Param("telephoneNumber") String telephoneNumber,
+      @Param("postalAddress") String postalAddress,
+      @Param("emailKey") String emailKey,
+      @Param("phoneKey") String phoneKey);
+
+  /**
+   * Deletes a contact with a single DELETE statement, without loading it first.
+   *
+   * @param id the identifier of the contact to delete.
+   * @return the number of deleted rows: 1, or 0 if the contact does not exist.
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from Contact c where c.id = :id")
+  int removeById(@Param("id") Long id);
+
+  /**
+   * Deletes the given contacts with a single DELETE statement, without loading them. Callers should
+   * keep the collection to a bounded size, since it becomes an IN list.
+   *
+   * @param ids the identifiers of the contacts to delete.
+   * @return the number of deleted rows; ids that do not exist are not counted.
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from Contact c where c.id in :ids")
+  int removeAllByIds(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Finds which of the given ids belong to existing contacts, without loading the entities. Callers
+   * should keep the collection to a bounded size, since it becomes an IN list.
+   *
+   * @param ids the identifiers to look for.
+   * @return the ids that exist, in ascending order.
+   */
+  @Query("select c.id from Contact c where c.id in :ids order by c.id")
+  List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Finds the ids of the contacts whose names contain the specified substring, ignoring case,
+   * without loading the entities.
+   *
+   * @param name the substring to search for in the contact names.
+   * @return the matching ids, in ascending order.
+   */
+  @Query(
+      "select c.id from Contact c where lower(c.name) like lower(concat('%', :name, '%'))"
+          + " order by c.id")
+  List<Long> findIdsByNameContainingIgnoreCase(@Param("name") String name);
 }
@@ -0,0 +1,545 @@
+package org.safetrust.managecontacts.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-process trigram inverted index over the searchable contact fields (name, email, telephone
+ * number, address and postal address).
+ *
+ * <p>Every field value is lower-cased and split into overlapping three-character grams; each gram
+ * maps to the sorted ids of the contacts containing it. A query is answered by intersecting the
+ * posting lists of its own grams and verifying the few surviving candidates with a substring check,
+ * so results keep the "contains, ignoring case" semantics of the database search without scanning
+ * the table. Matches are ranked by the field they hit and whether they hit a word start.
+ *
+ * <p>The index is built from the database once the application is ready and is kept in sync with
+ * writes through {@link ContactChangedEvent}s. Writes that bypass {@code ContactService} (for
+ * example manual SQL through the H2 console) are not seen until the next rebuild.
+ */
+@Component
+public class ContactSearchIndex {
+  private static final Logger logger = LoggerFactory.getLogger(ContactSearchIndex.class);
+  private static final int GRAM = 3;
+  private static final int REBUILD_BATCH_SIZE = 1000;
+  /** Ranking weight per indexed field, in the order produced by {@link #fieldsOf(Contact)}. */
+  private static final int[] FIELD_WEIGHTS = {8, 6, 4, 2, 1};
+
+  private final ContactRepository contactRepository;
+  private final boolean enabled;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, String[]> documents = new HashMap<>();
+  private final Map<String, PostingList> postings = new HashMap<>();
+  private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+  /** Patched contacts that were not indexed yet when patched; reloaded once the rebuild ends. */
+  private final Set<Long> reloadAfterRebuild = new HashSet<>();
+  private volatile boolean rebuilding;
+  private volatile boolean ready;
+
+  public ContactSearchIndex(
+      ContactRepository contactRepository,
+      @Value("${contact.search.index.enabled:true}") boolean enabled) {
+    this.contactRepository = contactRepository;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Indicates whether the index is enabled and fully built, i.e. whether searches can be answered
+   * from memory instead of the database.
+   *
+   * @return true if the index can serve searches.
+   */
+  public boolean isReady() {
+    return enabled && ready;
+  }
+
+  /**
+   * Indicates whether a keyword can be searched in the index: the index must be ready and the
+   * keyword at least one gram long. Shorter keywords have no grams to look up and would have to
+   * scan every posting list, so they are left to the database.
+   *
+   * @param keyword the text to look for.
+   * @return true if {@link #search} and {@link #matchIds} can answer the keyword.
+   */
+  public boolean canServe(String keyword) {
+    return isReady() && keyword != null && normalize(keyword).length() >= GRAM;
+  }
+
+  /**
+   * Returns the number of contacts currently held by the index.
+   *
+   * @return the number of indexed contacts.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Builds the index from the database once the application has started. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  /**
+   * Rebuilds the index from the database, walking the contact table in id order. Writes that happen
+   * while the rebuild is running are applied directly and take precedence over the rows read by the
+   * rebuild.
+   */
+  public void rebuild() {
+    long start = System.nanoTime();
+    lock.writeLock().lock();
+    try {
+      documents.clear();
+      postings.clear();
+      touchedDuringRebuild.clear();
+      reloadAfterRebuild.clear();
+      rebuilding = true;
+      ready = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    long afterId = 0L;
+    List<Contact> batch;
+    do {
+      batch =
+          contactRepository.findByIdGreaterThanOrderByIdAsc(
+              afterId, Limit.of(REBUILD_BATCH_SIZE));
+      lock.writeLock().lock();
+      try {
+        for (Contact contact : batch) {
+          if (!touchedDuringRebuild.contains(contact.getId())) {
+            put(contact.getId(), fieldsOf(contact));
+          }
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+      if (!batch.isEmpty()) {
+        afterId = batch.get(batch.size() - 1).getId();
+      }
+    } while (batch.size() == REBUILD_BATCH_SIZE);
+
+    List<Long> reload;
+    lock.writeLock().lock();
+    try {
+      rebuilding = false;
+      reload = new ArrayList<>(reloadAfterRebuild);
+      reloadAfterRebuild.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    touchedDuringRebuild.clear();
+    for (Long id : reload) {
+      contactRepository.findById(id).ifPresentOrElse(this::index, () -> remove(id));
+    }
+    ready = true;
+    logger.info(
+        "Search index built with {} contacts in {} ms",
+        size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Keeps the index in sync with committed contact changes.
+   *
+   * @param event the change that was committed.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onContactChanged(ContactChangedEvent event) {
+    if (!enabled || event.id() == null) {
+      return;
+    }
+    if (rebuilding) {
+      touchedDuringRebuild.add(event.id());
+    }
+    if (event.type() == ContactChangedEvent.Type.PATCHED) {
+      merge(event.contact());
+    } else if (event.type() == ContactChangedEvent.Type.DELETED) {
+      remove(event.id());
+    } else {
+      index(event.contact());
+    }
+  }
+
+  /**
+   * Applies a partial update to an indexed contact: fields that are null in {@code changes} keep
+   * their indexed value. A contact that is not indexed yet is loaded from the database instead,
+   * once the rebuild is over if one is running, since the rows it already read predate the patch.
+   *
+   * @param changes the changed fields; must have an id.
+   */
+  public void merge(Contact changes) {
+    String[] raw = rawFieldsOf(changes);
+    lock.writeLock().lock();
+    try {
+      String[] previous = documents.get(changes.getId());
+      if (previous != null) {
+        String[] merged = previous.clone();
+        for (int f = 0; f < raw.length; f++) {
+          if (raw[f] != null) {
+            merged[f] = normalize(raw[f]);
+          }
+        }
+        put(changes.getId(), merged);
+        return;
+      }
+      if (rebuilding) {
+        reloadAfterRebuild.add(changes.getId());
+        return;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    contactRepository.findById(changes.getId()).ifPresent(this::index);
+  }
+
+  /**
+   * Adds a contact to the index, replacing any previously indexed state of the same contact.
+   *
+   * @param contact the contact to index; must have an id.
+   */
+  public void index(Contact contact) {
+    String[] fields = fieldsOf(contact);
+    lock.writeLock().lock();
+    try {
+      put(contact.getId(), fields);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a contact from the index.
+   *
+   * @param id the identifier of the contact to remove.
+   */
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      String[] previous = documents.remove(id);
+      if (previous != null) {
+        unlinkGrams(id, previous);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Searches the index for contacts having any field that contains the keyword, ignoring case, and
+   * returns the requested page of the ranked results.
+   *
+   * @param keyword the text to look for.
+   * @param offset the number of ranked results to skip.
+   * @param limit the maximum number of results to return.
+   * @return the ids on the requested page, best match first, and the total number of matches.
+   * @throws IllegalArgumentException if the keyword is too short; see {@link #canServe(String)}.
+   */
+  public SearchHits search(String keyword, long offset, int limit) {
+    String query = normalize(keyword);
+    lock.readLock().lock();
+    try {
+      Matches matches = match(query);
+      int wanted = (int) Math.min(matches.size, Math.max(0L, offset) + limit);
+      int[] top = matches.top(wanted);
+      int from = (int) Math.min(Math.max(0L, offset), top.length);
+      List<Long> ids = new ArrayList<>(top.length - from);
+      for (int i = from; i < top.length; i++) {
+        ids.add(matches.ids[top[i]]);
+      }
+      return new SearchHits(ids, matches.size);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the next chunk of ids matching the keyword, in ascending id order, regardless of rank.
+   * Used when all matches are needed, such as for an export: callers page through the matches by
+   * passing the last id of the previous chunk, so only one chunk is held at a time.
+   *
+   * @param keyword the text to look for.
+   * @param afterId only ids greater than this one are returned.
+   * @param limit the maximum number of ids to return.
+   * @return up to {@code limit} matching ids, sorted ascending; fewer when no more match.
+   * @throws IllegalArgumentException if the keyword is too short; see {@link #canServe(String)}.
+   */
+  public long[] matchIds(String keyword, long afterId, int limit) {
+    String query = normalize(keyword);
+    lock.readLock().lock();
+    try {
+      List<PostingList> lists = postingListsOf(query);
+      if (lists == null) {
+        return new long[0];
+      }
+      // Posting lists are sorted by id, so walking the smallest one yields matches in id order.
+      PostingList smallest = lists.get(0);
+      long[] ids = new long[Math.min(limit, smallest.size())];
+      int found = 0;
+      for (int i = smallest.indexAfter(afterId); i < smallest.size() && found < limit; i++) {
+        long id = smallest.get(i);
+        if (inAll(lists, id) && score(documents.get(id), query) > 0) {
+          ids[found++] = id;
+        }
+      }
+      return found == ids.length ? ids : Arrays.copyOf(ids, found);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void put(Long id, String[] fields) {
+    String[] previous = documents.put(id, fields);
+    if (previous != null) {
+      unlinkGrams(id, previous);
+    }
+    for (String gram : gramsOf(fields)) {
+      postings.computeIfAbsent(gram, key -> new PostingList()).add(id);
+    }
+  }
+
+  private void unlinkGrams(Long id, String[] fields) {
+    for (String gram : gramsOf(fields)) {
+      PostingList list = postings.get(gram);
+      if (list != null && list.remove(id) && list.size() == 0) {
+        postings.remove(gram);
+      }
+    }
+  }
+
+  private Matches match(String query) {
+    Matches matches = new Matches();
+    List<PostingList> lists = postingListsOf(query);
+    if (lists == null) {
+      return matches;
+    }
+    PostingList smallest = lists.get(0);
+    for (int i = 0; i < smallest.size(); i++) {
+      long id = smallest.get(i);
+      if (inAll(lists, id)) {
+        matches.offer(id, score(documents.get(id), query));
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Returns the posting lists of the query's grams, smallest first, or null if some gram is not
+   * indexed at all (so nothing can match).
+   */
+  private List<PostingList> postingListsOf(String query) {
+    if (query.length() < GRAM) {
+      throw new IllegalArgumentException("Keyword is shorter than " + GRAM + " characters");
+    }
+    Set<String> grams = new HashSet<>();
+    collectGrams(query, grams);
+    List<PostingList> lists = new ArrayList<>(grams.size());
+    for (String gram : grams) {
+      PostingList list = postings.get(gram);
+      if (list == null) {
+        return null;
+      }
+      lists.add(list);
+    }
+    lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+    return lists;
+  }
+
+  /** Tells whether every list but the first (which the id was taken from) contains the id. */
+  private static boolean inAll(List<PostingList> lists, long id) {
+    for (int j = 1; j < lists.size(); j++) {
+      if (!lists.get(j).contains(id)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Scores a document against the query; 0 means the grams matched but no field actually contains
+   * the query. A hit at the start of the field or of a word counts double, an exact field match
+   * triple.
+   */
+  private static int score(String[] fields, String query) {
+    if (fields == null) {
+      return 0;
+    }
+    int score = 0;
+    for (int f = 0; f < fields.length; f++) {
+      String value = fields[f];
+      int pos = value.indexOf(query);
+      if (pos < 0) {
+        continue;
+      }
+      int weight = FIELD_WEIGHTS[f];
+      if (value.length() == query.length()) {
+        score += 3 * weight;
+      } else if (pos == 0 || !Character.isLetterOrDigit(value.charAt(pos - 1))) {
+        score += 2 * weight;
+      } else {
+        score += weight;
+      }
+    }
+    return score;
+  }
+
+  private static String[] fieldsOf(Contact contact) {
+    String[] fields = rawFieldsOf(contact);
+    for (int f = 0; f < fields.length; f++) {
+      fields[f] = normalize(fields[f]);
+    }
+    return fields;
+  }
+
+  private static String[] rawFieldsOf(Contact contact) {
+    return new String[] {
+      contact.getName(),
+      contact.getEmail(),
+      contact.getTelephoneNumber(),
+      contact.getAddress(),
+      contact.getPostalAddress()
+    };
+  }
+
+  private static Set<String> gramsOf(String[] fields) {
+    Set<String> grams = new HashSet<>();
+    for (String field : fields) {
+      collectGrams(field, grams);
+    }
+    return grams;
+  }
+
+  private static void collectGrams(String value, Set<String> grams) {
+    if (value.isEmpty()) {
+      return;
+    }
+    if (value.length() < GRAM) {
+      grams.add(value);
+      return;
+    }
+    for (int i = 0; i + GRAM <= value.length(); i++) {
+      grams.add(value.substring(i, i + GRAM));
+    }
+  }
+
+  private static String normalize(String value) {
+    return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /** Matching ids with their scores, stored in parallel primitive arrays. */
+  private static final class Matches {
+    private long[] ids = new long[16];
+    private int[] scores = new int[16];
+    private int size;
+
+    void offer(long id, int score) {
+      if (score <= 0) {
+        return;
+      }
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+        scores = Arrays.copyOf(scores, size * 2);
+      }
+      ids[size] = id;
+      scores[size] = score;
+      size++;
+    }
+
+    /** Returns the positions of the best {@code k} matches, best first. */
+    int[] top(int k) {
+      if (k <= 0) {
+        return new int[0];
+      }
+      // Bounded min-heap of positions: the root is the worst of the best k seen so far.
+      int[] heap = new int[k];
+      int heapSize = 0;
+      for (int i = 0; i < size; i++) {
+        if (heapSize < k) {
+          heap[heapSize] = i;
+          siftUp(heap, heapSize++);
+        } else if (better(i, heap[0])) {
+          heap[0] = i;
+          siftDown(heap, heapSize, 0);
+        }
+      }
+      Integer[] ordered = new Integer[heapSize];
+      for (int i = 0; i < heapSize; i++) {
+        ordered[i] = heap[i];
+      }
+      Arrays.sort(ordered, (a, b) -> better(a, b) ? -1 : (better(b, a) ? 1 : 0));
+      int[] result = new int[heapSize];
+      for (int i = 0; i < heapSize; i++) {
+        result[i] = ordered[i];
+      }
+      return result;
+    }
+
+    private boolean better(int a, int b) {
+      if (scores[a] != scores[b]) {
+        return scores[a] > scores[b];
+      }
+      return ids[a] < ids[b];
+    }
+
+    private void siftUp(int[] heap, int pos) {
+      while (pos > 0) {
+        int parent = (pos - 1) >>> 1;
+        if (!better(heap[parent], heap[pos])) {
+          break;
+        }
+        swap(heap, parent, pos);
+        pos = parent;
+      }
+    }
+
+    private void siftDown(int[] heap, int heapSize, int pos) {
+      while (true) {
+        int left = 2 * pos + 1;
+        if (left >= heapSize) {
+          return;
+        }
+        int right = left + 1;
+        int worst = right < heapSize && better(heap[left], heap[right]) ? right : left;
+        if (!better(heap[pos], heap[worst])) {
+          return;
+        }
+        swap(heap, pos, worst);
+        pos = worst;
+      }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+      int tmp = heap[a];
+      heap[a] = heap[b];
+      heap[b] = tmp;
+    }
+  }
+}
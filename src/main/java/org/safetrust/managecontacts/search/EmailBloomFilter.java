@@ -0,0 +1,153 @@
+package org.safetrust.managecontacts.search;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+import org.safetrust.managecontacts.entity.ContactKeys;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bloom filter over the email keys of all contacts, answering "might this email exist?" without a
+ * database round trip. A negative answer is definite, so checks for new emails (the common case
+ * when inserting) skip the database; a positive answer must be confirmed with a query.
+ *
+ * <p>The filter is filled from the database once the application is ready and every email written
+ * afterwards is added through {@link ContactChangedEvent}s. Deleted or changed emails cannot be
+ * removed from a Bloom filter, so they only cost an occasional extra query. Until the initial fill
+ * completes the filter answers "maybe" for everything. Bits are set with atomic updates, so reads
+ * and writes need no lock.
+ */
+@Component
+public class EmailBloomFilter {
+  private static final Logger logger = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+  private final ContactRepository contactRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashes;
+  private volatile boolean ready;
+
+  public EmailBloomFilter(
+      ContactRepository contactRepository,
+      TransactionTemplate transactionTemplate,
+      @Value("${contact.email-filter.expected-insertions:1000000}") long expectedInsertions,
+      @Value("${contact.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+    this.contactRepository = contactRepository;
+    this.transactionTemplate = transactionTemplate;
+    long n = Math.max(1L, expectedInsertions);
+    double ln2 = Math.log(2);
+    long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+    this.words = new AtomicLongArray(Math.toIntExact((optimalBits + 63) / 64));
+    this.bits = words.length() * 64L;
+    this.hashes = Math.max(1, (int) Math.round((double) bits / n * ln2));
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** Adds the email of every stored contact, then starts answering definite negatives. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long start = System.nanoTime();
+    long[] added = {0};
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          try (Stream<String> keys = contactRepository.streamEmailKeys()) {
+            keys.forEach(
+                key -> {
+                  add(key);
+                  added[0]++;
+                });
+          }
+        });
+    ready = true;
+    logger.info(
+        "Email filter built with {} emails ({} bits, {} hashes) in {} ms",
+        added[0],
+        bits,
+        hashes,
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Adds the emails of created and changed contacts.
+   *
+   * @param event the change that was committed.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onContactChanged(ContactChangedEvent event) {
+    if (event.contact() != null && event.contact().getEmail() != null) {
+      add(ContactKeys.email(event.contact().getEmail()));
+    }
+  }
+
+  /**
+   * Adds an email key to the filter.
+   *
+   * @param emailKey the normalized email.
+   */
+  public void add(String emailKey) {
+    if (emailKey == null) {
+      return;
+    }
+    long h1 = hash(emailKey);
+    long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1L;
+    for (int i = 0; i < hashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bits);
+      long mask = 1L << bit;
+      words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+    }
+  }
+
+  /**
+   * Tells whether the email key may have been added. Always true until the filter is ready.
+   *
+   * @param emailKey the normalized email.
+   * @return false only if no contact has this email.
+   */
+  public boolean mightContain(String emailKey) {
+    if (!ready) {
+      return true;
+    }
+    long h1 = hash(emailKey);
+    long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1L;
+    for (int i = 0; i < hashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bits);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** 64-bit FNV-1a over the characters, finished with a strong mix for well-spread bits. */
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  /** The MurmurHash3 64-bit finalizer. */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
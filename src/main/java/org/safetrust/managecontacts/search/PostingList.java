@@ -0,0 +1,61 @@
+package org.safetrust.managecontacts.search;
+
+import java.util.Arrays;
+
+/**
+ * A sorted set of contact ids stored in a primitive array. Ids are mostly appended in ascending
+ * order, so inserts are amortized O(1); out-of-order inserts and removals shift the tail.
+ */
+final class PostingList {
+  private long[] ids = new long[4];
+  private int size;
+
+  int size() {
+    return size;
+  }
+
+  long get(int index) {
+    return ids[index];
+  }
+
+  boolean contains(long id) {
+    return Arrays.binarySearch(ids, 0, size, id) >= 0;
+  }
+
+  /** Returns the index of the first id greater than the given one, or {@link #size()} if none. */
+  int indexAfter(long id) {
+    int pos = Arrays.binarySearch(ids, 0, size, id);
+    return pos >= 0 ? pos + 1 : -pos - 1;
+  }
+
+  void add(long id) {
+    if (size > 0 && ids[size - 1] >= id) {
+      int pos = Arrays.binarySearch(ids, 0, size, id);
+      if (pos >= 0) {
+        return;
+      }
+      insertAt(-pos - 1, id);
+      return;
+    }
+    insertAt(size, id);
+  }
+
+  boolean remove(long id) {
+    int pos = Arrays.binarySearch(ids, 0, size, id);
+    if (pos < 0) {
+      return false;
+    }
+    System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+    size--;
+    return true;
+  }
+
+  private void insertAt(int pos, long id) {
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+    }
+    System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+    ids[pos] = id;
+    size++;
+  }
+}
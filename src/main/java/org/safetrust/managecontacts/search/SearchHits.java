@@ -0,0 +1,11 @@
+package org.safetrust.managecontacts.search;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results produced by the {@link ContactSearchIndex}.
+ *
+ * @param ids the ids of the matching contacts on the requested page, best match first.
+ * @param total the total number of contacts matching the query.
+ */
+public record SearchHits(List<Long> ids, long total) {}
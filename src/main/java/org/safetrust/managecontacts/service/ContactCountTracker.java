@@ -0,0 +1,62 @@
+package org.safetrust.managecontacts.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps an approximate number of contacts so listings can report a total without a count query.
+ *
+ * <p>The number is adjusted on every committed create and delete and periodically re-read from the
+ * database, which corrects any drift: for example from bulk deletes naming ids that did not exist,
+ * or from writes that bypass the API.
+ */
+@Component
+public class ContactCountTracker {
+  private final ContactRepository contactRepository;
+  private final AtomicLong count = new AtomicLong(-1);
+
+  public ContactCountTracker(ContactRepository contactRepository) {
+    this.contactRepository = contactRepository;
+  }
+
+  /**
+   * Returns the approximate number of contacts.
+   *
+   * @return the tracked count, or -1 if it has not been initialized yet.
+   */
+  public long estimate() {
+    return count.get();
+  }
+
+  /** Re-reads the exact number of contacts from the database. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      fixedDelayString = "${contact.count.refresh-interval:60s}",
+      initialDelayString = "${contact.count.refresh-interval:60s}")
+  public void refresh() {
+    count.set(contactRepository.count());
+  }
+
+  /**
+   * Adjusts the count for a committed create or delete.
+   *
+   * @param event the change that was committed.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onContactChanged(ContactChangedEvent event) {
+    switch (event.type()) {
+      case CREATED -> count.updateAndGet(n -> n < 0 ? n : n + 1);
+      case DELETED -> count.updateAndGet(n -> n <= 0 ? n : n - 1);
+      default -> {
+        // Updates do not change the number of contacts.
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package org.safetrust.managecontacts.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.safetrust.managecontacts.entity.Contact;
+
+/**
+ * Minimal RFC 4180 style CSV support for contact import and export. Fields may be quoted with
+ * double quotes and embedded quotes are doubled; quoted fields may span lines, up to {@link
+ * #MAX_RECORD_LINES} lines per record.
+ */
+final class ContactCsv {
+  static final String HEADER = "id,name,email,address,telephone_number,postal_address";
+  /** Bounds how far an unterminated quote can read ahead before the record is rejected. */
+  static final int MAX_RECORD_LINES = 32;
+
+  private ContactCsv() {}
+
+  /**
+   * Tells whether a record ends inside a quoted field, i.e. whether it continues on the next line.
+   * Escaped quotes come in pairs, so an odd number of quotes leaves a field open.
+   *
+   * @param record the record read so far, without its final line terminator.
+   * @return true if a quoted field is still open.
+   */
+  static boolean endsInsideQuotes(String record) {
+    int quotes = 0;
+    for (int i = 0; i < record.length(); i++) {
+      if (record.charAt(i) == '"') {
+        quotes++;
+      }
+    }
+    return (quotes & 1) != 0;
+  }
+
+  /**
+   * Splits one CSV record into its fields.
+   *
+   * @param line the record to split, without its final line terminator.
+   * @return the unquoted field values.
+   * @throws IllegalArgumentException if a quoted field is not terminated.
+   */
+  static List<String> parseLine(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"') {
+          if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+            current.append('"');
+            i++;
+          } else {
+            quoted = false;
+          }
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Unterminated quoted field");
+    }
+    fields.add(current.toString());
+    return fields;
+  }
+
+  /**
+   * Appends a contact as one CSV record, without line terminator, in the column order of {@link
+   * #HEADER}.
+   *
+   * @param out the builder to append to.
+   * @param contact the contact to format.
+   */
+  static void appendRecord(StringBuilder out, Contact contact) {
+    out.append(contact.getId() == null ? "" : contact.getId());
+    appendField(out, contact.getName());
+    appendField(out, contact.getEmail());
+    appendField(out, contact.getAddress());
+    appendField(out, contact.getTelephoneNumber());
+    appendField(out, contact.getPostalAddress());
+  }
+
+  private static void appendField(StringBuilder out, String value) {
+    out.append(',');
+    if (value == null) {
+      return;
+    }
+    boolean quote =
+        value.indexOf(',') >= 0
+            || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0
+            || value.indexOf('\r') >= 0;
+    if (!quote) {
+      out.append(value);
+      return;
+    }
+    out.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        out.append('"');
+      }
+      out.append(c);
+    }
+    out.append('"');
+  }
+}
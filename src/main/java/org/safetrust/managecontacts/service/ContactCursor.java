@@ -0,0 +1,51 @@
+package org.safetrust.managecontacts.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursor tokens used by keyset pagination. A token carries the id of
+ * the last contact returned, so the next slice can seek directly to it instead of skipping rows.
+ */
+public final class ContactCursor {
+  private static final String PREFIX = "id:";
+
+  private ContactCursor() {}
+
+  /**
+   * Encodes the id of the last contact of a slice into an opaque cursor token.
+   *
+   * @param lastId the id of the last contact returned.
+   * @return a URL-safe cursor token.
+   */
+  public static String encode(long lastId) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor token back into the id to seek after.
+   *
+   * @param token the cursor token, or null/blank for the first slice.
+   * @return the id to seek after; 0 when no token is given.
+   * @throws IllegalArgumentException if the token is malformed.
+   */
+  public static long decode(String token) {
+    if (token == null || token.isBlank()) {
+      return 0L;
+    }
+    long id;
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      id = raw.startsWith(PREFIX) ? Long.parseLong(raw.substring(PREFIX.length())) : -1L;
+    } catch (IllegalArgumentException ex) {
+      // Base64 and number parsing failures both surface as IllegalArgumentException.
+      id = -1L;
+    }
+    if (id < 0) {
+      throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+    return id;
+  }
+}
@@ -0,0 +1,227 @@
+package org.safetrust.managecontacts.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.safetrust.managecontacts.search.ContactSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Streams contacts to an output stream as NDJSON or CSV.
+ *
+ * <p>Contacts are read from a forward-only database cursor (or, for search exports, loaded in
+ * id-ordered chunks of the index matches, fetched from the index one chunk at a time) and written
+ * as they arrive. Each entity is detached right after it has been written, so heap use does not
+ * depend on the number of exported rows.
+ */
+@Service
+public class ContactExportService {
+  private static final Logger logger = LoggerFactory.getLogger(ContactExportService.class);
+  private static final int CHUNK_SIZE = 500;
+
+  private final ContactRepository contactRepository;
+  private final ContactSearchIndex searchIndex;
+  private final EntityManager entityManager;
+  private final ObjectWriter contactWriter;
+
+  @Autowired
+  public ContactExportService(
+      ContactRepository contactRepository,
+      ContactSearchIndex searchIndex,
+      EntityManager entityManager,
+      ObjectMapper objectMapper) {
+    this.contactRepository = contactRepository;
+    this.searchIndex = searchIndex;
+    this.entityManager = entityManager;
+    this.contactWriter =
+        objectMapper.writerFor(Contact.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /** The formats contacts can be exported in. */
+  public enum Format {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(MediaType.parseMediaType(ContactImportService.TEXT_CSV_VALUE), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    Format(MediaType mediaType, String extension) {
+      this.mediaType = mediaType;
+      this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+      return mediaType;
+    }
+
+    public String extension() {
+      return extension;
+    }
+
+    /**
+     * Resolves a format from its name, ignoring case.
+     *
+     * @param name the format name, e.g. {@code ndjson} or {@code csv}.
+     * @return the matching Format.
+     * @throws IllegalArgumentException if the name does not denote a supported format.
+     */
+    public static Format from(String name) {
+      try {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException | NullPointerException ex) {
+        throw new IllegalArgumentException("Unsupported export format: " + name);
+      }
+    }
+  }
+
+  /**
+   * Writes all contacts, or all contacts matching the keyword, to the output stream in ascending id
+   * order. The output stream is flushed but not closed.
+   *
+   * @param out the stream to write to.
+   * @param format the output format.
+   * @param keyword an optional search keyword; when null, every contact is exported.
+   * @return the number of contacts written.
+   * @throws IllegalArgumentException if the keyword is blank.
+   * @throws IOException if writing to the output stream fails.
+   */
+  @Transactional(readOnly = true)
+  public long exportContacts(OutputStream out, Format format, String keyword) throws IOException {
+    if (keyword != null && keyword.isBlank()) {
+      throw new IllegalArgumentException("Keyword must not be empty");
+    }
+
+    long start = System.nanoTime();
+    long count = 0;
+    try (DatabaseConcurrencyLimiter.Scope longRunning = DatabaseConcurrencyLimiter.longRunning();
+        RecordWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out)) {
+      if (keyword == null) {
+        try (Stream<Contact> stream = contactRepository.streamAll()) {
+          count = writeAll(stream.iterator(), writer);
+        }
+      } else if (searchIndex.canServe(keyword)) {
+        count = writeMatches(keyword, writer);
+      } else {
+        try (Stream<Contact> stream =
+            contactRepository.streamByNameContainingIgnoreCaseOrderByIdAsc(keyword)) {
+          count = writeAll(stream.iterator(), writer);
+        }
+      }
+    }
+    logger.info(
+        "Exported {} contacts as {} in {} ms",
+        count,
+        format,
+        (System.nanoTime() - start) / 1_000_000);
+    return count;
+  }
+
+  private long writeAll(Iterator<Contact> contacts, RecordWriter writer) throws IOException {
+    long count = 0;
+    while (contacts.hasNext()) {
+      Contact contact = contacts.next();
+      writer.write(contact);
+      entityManager.detach(contact);
+      count++;
+    }
+    return count;
+  }
+
+  private long writeMatches(String keyword, RecordWriter writer) throws IOException {
+    long count = 0;
+    long lastId = Long.MIN_VALUE;
+    long[] ids;
+    do {
+      ids = searchIndex.matchIds(keyword, lastId, CHUNK_SIZE);
+      if (ids.length == 0) {
+        break;
+      }
+      List<Long> chunk = new ArrayList<>(ids.length);
+      for (long id : ids) {
+        chunk.add(id);
+      }
+      List<Contact> contacts = new ArrayList<>(contactRepository.findAllById(chunk));
+      contacts.sort(Comparator.comparing(Contact::getId));
+      count += writeAll(contacts.iterator(), writer);
+      lastId = ids[ids.length - 1];
+    } while (ids.length == CHUNK_SIZE);
+    return count;
+  }
+
+  /** Serializes contacts one at a time to the export stream. */
+  private interface RecordWriter extends AutoCloseable {
+    void write(Contact contact) throws IOException;
+
+    @Override
+    void close() throws IOException;
+  }
+
+  private final class NdjsonWriter implements RecordWriter {
+    private final JsonGenerator generator;
+
+    NdjsonWriter(OutputStream out) throws IOException {
+      this.generator = contactWriter.createGenerator(out);
+      this.generator.setRootValueSeparator(null);
+      this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void write(Contact contact) throws IOException {
+      contactWriter.writeValue(generator, contact);
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+      generator.close();
+    }
+  }
+
+  private static final class CsvWriter implements RecordWriter {
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+
+    CsvWriter(OutputStream out) throws IOException {
+      this.writer =
+          new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+      this.writer.write(ContactCsv.HEADER);
+      this.writer.write('\n');
+    }
+
+    @Override
+    public void write(Contact contact) throws IOException {
+      line.setLength(0);
+      ContactCsv.appendRecord(line, contact);
+      line.append('\n');
+      writer.append(line);
+    }
+
+    @Override
+    public void close() throws IOException {
+      // Flush only: the servlet container owns the response stream.
+      writer.flush();
+    }
+  }
+}
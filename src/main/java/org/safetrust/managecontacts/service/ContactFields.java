@@ -0,0 +1,40 @@
+package org.safetrust.managecontacts.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Parses and validates the {@code fields} parameter selecting a sparse fieldset of contacts. */
+public final class ContactFields {
+  /** The fields a client may select, named as in the contact JSON. */
+  public static final Set<String> SELECTABLE =
+      Set.of("id", "name", "email", "address", "telephoneNumber", "postalAddress", "version");
+
+  private ContactFields() {}
+
+  /**
+   * Parses a comma-separated list of field names, keeping their order and dropping duplicates.
+   *
+   * @param fields the parameter value, e.g. {@code id,name,email}.
+   * @return the selected field names.
+   * @throws IllegalArgumentException if the list is empty or names an unknown field.
+   */
+  public static List<String> parse(String fields) {
+    Set<String> selected = new LinkedHashSet<>();
+    for (String field : fields.split(",")) {
+      String name = field.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      if (!SELECTABLE.contains(name)) {
+        throw new IllegalArgumentException("Unknown field: " + name);
+      }
+      selected.add(name);
+    }
+    if (selected.isEmpty()) {
+      throw new IllegalArgumentException("At least one field must be selected");
+    }
+    return new ArrayList<>(selected);
+  }
+}
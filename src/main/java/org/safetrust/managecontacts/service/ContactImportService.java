@@ -0,0 +1,295 @@
+package org.safetrust.managecontacts.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.safetrust.managecontacts.dto.ImportReport;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.entity.ContactKeys;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports contacts in bulk from a streamed CSV or NDJSON upload.
+ *
+ * <p>The upload is read line by line and never held in memory as a whole. Valid rows are persisted
+ * in batches, each batch in its own transaction, and the persistence context is cleared after every
+ * batch, so memory use stays flat regardless of the upload size. Rows that fail to parse or violate
+ * the {@link Contact} constraints are skipped and reported by line number. When duplicate emails
+ * are rejected, rows whose email already exists, or appeared earlier in the same upload, are
+ * skipped as well.
+ */
+@Service
+public class ContactImportService {
+  public static final String TEXT_CSV_VALUE = "text/csv";
+
+  private static final Logger logger = LoggerFactory.getLogger(ContactImportService.class);
+
+  private final ContactRepository contactRepository;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final DuplicateEmailGuard duplicateEmailGuard;
+  private final int batchSize;
+  private final int maxReportedErrors;
+
+  @Autowired
+  public ContactImportService(
+      ContactRepository contactRepository,
+      EntityManager entityManager,
+      TransactionTemplate transactionTemplate,
+      Validator validator,
+      ObjectMapper objectMapper,
+      ApplicationEventPublisher eventPublisher,
+      DuplicateEmailGuard duplicateEmailGuard,
+      @Value("${contact.import.batch-size:500}") int batchSize,
+      @Value("${contact.import.max-reported-errors:1000}") int maxReportedErrors) {
+    this.contactRepository = contactRepository;
+    this.entityManager = entityManager;
+    this.transactionTemplate = transactionTemplate;
+    this.validator = validator;
+    this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
+    this.duplicateEmailGuard = duplicateEmailGuard;
+    this.batchSize = batchSize;
+    this.maxReportedErrors = maxReportedErrors;
+  }
+
+  /**
+   * Imports the contacts contained in the given upload.
+   *
+   * @param body the streamed request body.
+   * @param contentType the media type of the body, either {@code text/csv} (with a header row;
+   *     quoted fields may span lines) or {@code application/x-ndjson} (one JSON contact per line).
+   * @return an ImportReport with the number of imported and rejected rows and the reasons for the
+   *     rejections.
+   * @throws IllegalArgumentException if the content type is not supported or the CSV header is
+   *     invalid.
+   * @throws IOException if the upload cannot be read.
+   */
+  public ImportReport importContacts(InputStream body, String contentType) throws IOException {
+    MediaType mediaType = MediaType.parseMediaType(contentType);
+    boolean csv = mediaType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE));
+    if (!csv && !mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+      throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+    }
+
+    long start = System.nanoTime();
+    Run run = new Run();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      String line;
+      long lineNumber = 0;
+      int continuedLines = 0;
+      int[] columns = null;
+      while ((line = reader.readLine()) != null) {
+        // Rows are reported by the line they start on.
+        lineNumber += 1 + continuedLines;
+        continuedLines = 0;
+        if (line.isBlank()) {
+          continue;
+        }
+        if (csv) {
+          String next;
+          while (ContactCsv.endsInsideQuotes(line)
+              && continuedLines < ContactCsv.MAX_RECORD_LINES - 1
+              && (next = reader.readLine()) != null) {
+            line = line + '\n' + next;
+            continuedLines++;
+          }
+        }
+        if (csv && columns == null) {
+          columns = csvColumns(line);
+          continue;
+        }
+        run.received++;
+        Contact contact;
+        try {
+          contact = csv ? fromCsv(line, columns) : fromJson(line);
+        } catch (JsonProcessingException ex) {
+          run.reject(lineNumber, "Malformed row: " + ex.getOriginalMessage());
+          continue;
+        } catch (IllegalArgumentException ex) {
+          run.reject(lineNumber, "Malformed row: " + ex.getMessage());
+          continue;
+        }
+        Set<ConstraintViolation<Contact>> violations = validator.validate(contact);
+        if (!violations.isEmpty()) {
+          run.reject(lineNumber, describe(violations));
+          continue;
+        }
+        if (duplicateEmailGuard.isRejectingDuplicates() && !run.isNewEmail(contact.getEmail())) {
+          run.reject(lineNumber, "Duplicate email: " + contact.getEmail());
+          continue;
+        }
+        run.add(contact, lineNumber);
+        if (run.pending.size() >= batchSize) {
+          flush(run);
+        }
+      }
+    }
+    flush(run);
+
+    logger.info(
+        "Imported {} of {} contacts in {} ms",
+        run.imported,
+        run.received,
+        (System.nanoTime() - start) / 1_000_000);
+    return new ImportReport(
+        run.received,
+        run.imported,
+        run.rejected,
+        run.errors,
+        run.rejected > run.errors.size());
+  }
+
+  /** Persists the pending rows in one transaction and detaches them again. */
+  private void flush(Run run) {
+    if (run.pending.isEmpty()) {
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            // Through the repository, so that the sharded profile places the batch on a shard.
+            contactRepository.saveAll(run.pending);
+            entityManager.flush();
+            entityManager.clear();
+          });
+      for (Contact contact : run.pending) {
+        eventPublisher.publishEvent(ContactChangedEvent.created(contact));
+      }
+      run.imported += run.pending.size();
+    } catch (RuntimeException ex) {
+      logger.error("Failed to import batch of {} contacts", run.pending.size(), ex);
+      entityManager.clear();
+      for (Long lineNumber : run.pendingLines) {
+        run.reject(lineNumber, "Batch could not be stored: " + ex.getMessage());
+      }
+    }
+    run.pending.clear();
+    run.pendingLines.clear();
+    // Stored rows are found by the duplicate guard from now on; only pending ones need the set.
+    run.emails.clear();
+  }
+
+  private Contact fromJson(String line) throws JsonProcessingException {
+    Contact contact = objectMapper.readValue(line, Contact.class);
+    if (contact == null) {
+      throw new IllegalArgumentException("Row is not a JSON object");
+    }
+    contact.setId(null);
+    contact.setVersion(null);
+    return contact;
+  }
+
+  private static Contact fromCsv(String line, int[] columns) {
+    List<String> values = ContactCsv.parseLine(line);
+    Contact contact = new Contact();
+    for (int i = 0; i < columns.length && i < values.size(); i++) {
+      String value = values.get(i).isEmpty() ? null : values.get(i);
+      switch (columns[i]) {
+        case 0 -> contact.setName(value);
+        case 1 -> contact.setEmail(value);
+        case 2 -> contact.setAddress(value);
+        case 3 -> contact.setTelephoneNumber(value);
+        case 4 -> contact.setPostalAddress(value);
+        default -> {
+          // Unknown column, ignored.
+        }
+      }
+    }
+    return contact;
+  }
+
+  /** Maps the CSV header row to field positions; unknown columns map to -1 and are ignored. */
+  private static int[] csvColumns(String header) {
+    List<String> names = ContactCsv.parseLine(header);
+    int[] columns = new int[names.size()];
+    boolean any = false;
+    for (int i = 0; i < names.size(); i++) {
+      columns[i] =
+          switch (names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "")) {
+            case "name" -> 0;
+            case "email" -> 1;
+            case "address" -> 2;
+            case "telephonenumber" -> 3;
+            case "postaladdress" -> 4;
+            default -> -1;
+          };
+      any |= columns[i] >= 0;
+    }
+    if (!any) {
+      throw new IllegalArgumentException("CSV header does not contain any contact column");
+    }
+    return columns;
+  }
+
+  private static String describe(Set<ConstraintViolation<Contact>> violations) {
+    StringBuilder message = new StringBuilder("Validation failed:");
+    for (ConstraintViolation<Contact> violation : violations) {
+      message
+          .append(" Field '")
+          .append(violation.getPropertyPath())
+          .append("': ")
+          .append(violation.getMessage())
+          .append(";");
+    }
+    return message.toString();
+  }
+
+  /** Mutable state of one import run. */
+  private final class Run {
+    private final List<Contact> pending = new ArrayList<>(batchSize);
+    private final List<Long> pendingLines = new ArrayList<>(batchSize);
+    private final List<ImportReport.RowError> errors = new ArrayList<>();
+    /** Email keys of the pending rows, so the set never outgrows a batch. */
+    private final Set<String> emails = new HashSet<>();
+    private long received;
+    private long imported;
+    private long rejected;
+
+    void add(Contact contact, long lineNumber) {
+      pending.add(contact);
+      pendingLines.add(lineNumber);
+    }
+
+    /**
+     * Tells whether the email is neither stored yet nor used by an earlier row of this run. Rows of
+     * earlier batches are stored already, so only the pending batch is checked in memory.
+     */
+    boolean isNewEmail(String email) {
+      String key = ContactKeys.email(email);
+      return key == null || (emails.add(key) && !duplicateEmailGuard.exists(key));
+    }
+
+    void reject(long lineNumber, String message) {
+      rejected++;
+      if (errors.size() < maxReportedErrors) {
+        errors.add(new ImportReport.RowError(lineNumber, message));
+      }
+    }
+  }
+}
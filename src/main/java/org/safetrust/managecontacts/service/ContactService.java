@@ -1,26 +1,108 @@
 package org.safetrust.managecontacts.service;
 
+import io.micrometer.core.annotation.Timed;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import org.safetrust.managecontacts.cache.ContactCache;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.safetrust.managecontacts.concurrency.Priority;
+import org.safetrust.managecontacts.dto.BulkDeleteReport;
+import org.safetrust.managecontacts.dto.BulkDeleteRequest;
+import org.safetrust.managecontacts.dto.ContactBatch;
+import org.safetrust.managecontacts.dto.ContactPatch;
+import org.safetrust.managecontacts.dto.CursorPage;
 import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.entity.ContactKeys;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.safetrust.managecontacts.exception.DuplicateContactException;
 import org.safetrust.managecontacts.repository.ContactRepository;
+import org.safetrust.managecontacts.search.ContactSearchIndex;
+import org.safetrust.managecontacts.search.SearchHits;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
+@Timed(
+    value = "contact.service",
+    description = "Time spent in ContactService methods",
+    histogram = true,
+    percentiles = {0.5, 0.95, 0.99})
 public class ContactService {
   private static final Logger logger = LoggerFactory.getLogger(ContactService.class);
+  private static final int MAX_SCROLL_SIZE = 1000;
+  private static final int MAX_BATCH_SIZE = 1000;
+  private static final int IN_CHUNK_SIZE = 500;
   private final ContactRepository contactRepository;
+  private final ContactSearchIndex searchIndex;
+  private final ContactCache contactCache;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ContactCountTracker countTracker;
+  private final DuplicateEmailGuard duplicateEmailGuard;
+  private final TransactionTemplate transactionTemplate;
+  private final int deleteChunkSize;
 
   @Autowired
-  public ContactService(ContactRepository contactRepository) {
-    this.contactRepository = contactRepository;
+  public ContactService(
+      ContactRepository contactRepository,
+      ContactSearchIndex searchIndex,
+      ContactCache contactCache,
+      ApplicationEventPublisher eventPublisher,
+      ContactCountTracker countTracker,
+      DuplicateEmailGuard duplicateEmailGuard,
+      DatabaseConcurrencyLimiter concurrencyLimiter,
+      TransactionTemplate transactionTemplate,
+      @Value("${contact.bulk-delete.chunk-size:1000}") int deleteChunkSize) {
+    this.contactRepository =
+        concurrencyLimiter.withPriority(
+            ContactRepository.class, contactRepository, ContactService::priorityOf);
+    this.searchIndex = searchIndex;
+    this.contactCache = contactCache;
+    this.eventPublisher = eventPublisher;
+    this.countTracker = countTracker;
+    this.duplicateEmailGuard = duplicateEmailGuard;
+    this.transactionTemplate = transactionTemplate;
+    this.deleteChunkSize = deleteChunkSize;
+  }
+
+  /**
+   * Ranks repository calls for the concurrency limiter, which grants the connection a call acquires
+   * with its priority: single-row lookups by id or key go first, name scans and counts last.
+   */
+  static Priority priorityOf(Method method) {
+    String name = method.getName();
+    if (name.equals("findById")
+        || name.equals("findVersionById")
+        || name.equals("findAllById")
+        || name.startsWith("existsBy")
+        || name.endsWith("KeyOrderByIdAsc")) {
+      return Priority.HIGH;
+    }
+    if (name.contains("NameContaining") || name.startsWith("count")) {
+      return Priority.LOW;
+    }
+    return Priority.NORMAL;
   }
 
   /**
@@ -31,32 +113,124 @@ public class ContactService {
    * @return a Page object containing a subset of Contact entities based on the pagination
    *     parameters.
    */
+  @Transactional(readOnly = true)
   public Page<Contact> getAllContacts(Pageable pageable) {
     return contactRepository.findAll(pageable);
   }
 
   /**
-   * Retrieves a specific contact by its unique identifier (ID).
+   * Retrieves a page of all contacts, determining the total as requested. Only {@link
+   * CountMode#EXACT} runs a count query; the other modes fetch one extra row to detect a next page.
+   *
+   * @param pageable a Pageable object that specifies the pagination and sorting information.
+   * @param mode how the total number of contacts is determined.
+   * @return a Page for {@link CountMode#EXACT} and {@link CountMode#ESTIMATE}, or a Slice without a
+   *     total for {@link CountMode#NONE}.
+   */
+  @Transactional(readOnly = true)
+  public Slice<Contact> getAllContacts(Pageable pageable, CountMode mode) {
+    return switch (mode) {
+      case EXACT -> contactRepository.findAll(pageable);
+      case ESTIMATE ->
+          withEstimatedTotal(contactRepository.findAllBy(pageable), countTracker.estimate());
+      case NONE -> contactRepository.findAllBy(pageable);
+    };
+  }
+
+  /**
+   * Turns a count-free slice into a page with an estimated total. While more pages remain, the
+   * total is the given estimate, raised if needed to the lower bound the slice itself proves; the
+   * last page knows the exact total and reports it instead.
+   */
+  private static <T> Page<T> withEstimatedTotal(Slice<T> slice, long estimate) {
+    long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+    long total;
+    if (slice.hasNext()) {
+      total = Math.max(estimate, seen + 1);
+    } else if (slice.hasContent() || seen == 0) {
+      total = seen;
+    } else {
+      // An empty page past the end only proves that the total is at most its offset.
+      total = estimate < 0 ? seen : Math.min(estimate, seen);
+    }
+    return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+  }
+
+  /**
+   * Retrieves the slice of contacts following the given cursor, ordered by id. The query seeks on
+   * the primary key and fetches one extra row to detect whether another slice exists, so deep
+   * slices cost the same as the first one and no count query is run.
+   *
+   * @param after the opaque cursor returned with the previous slice, or null for the first slice.
+   * @param size the number of contacts per slice, between 1 and 1000.
+   * @return a CursorPage holding the contacts and the cursor of the next slice, if any.
+   * @throws IllegalArgumentException if the cursor is malformed or the size is out of range.
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<Contact> scrollContacts(String after, int size) {
+    if (size <= 0 || size > MAX_SCROLL_SIZE) {
+      throw new IllegalArgumentException(
+          "Size must be between 1 and " + MAX_SCROLL_SIZE + ": " + size);
+    }
+
+    long afterId = ContactCursor.decode(after);
+    List<Contact> rows =
+        contactRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1));
+    boolean hasNext = rows.size() > size;
+    List<Contact> content = hasNext ? rows.subList(0, size) : rows;
+    String next = hasNext ? ContactCursor.encode(content.get(content.size() - 1).getId()) : null;
+    return new CursorPage<>(content, size, hasNext, next);
+  }
+
+  /**
+   * Retrieves a specific contact by its unique identifier (ID). Lookups are served from the
+   * in-process contact cache when possible and only go to the database on a miss, so cache hits
+   * never take a connection. Misses run in a read-write transaction, which reads from the primary
+   * even when read replicas are configured, so that a lagging replica cannot put a stale copy into
+   * the cache.
+   *
+   * <p>When the client sends the entity tag of its copy, the current version is looked up (from the
+   * cache, or with a version-only query) and a 304 Not Modified is returned without loading the row
+   * or serializing the contact if the copy is still current.
    *
    * @param id the unique identifier of the contact to retrieve.
-   * @return a ResponseEntity containing the Contact object if found, or an appropriate HTTP status
-   *     (e.g., 404 Not Found) if the contact does not exist.
+   * @param ifNoneMatch the value of the If-None-Match request header, or null if absent.
+   * @return a ResponseEntity containing the Contact object and its ETag if found, HTTP 304 Not
+   *     Modified if the client's copy is current, or an appropriate HTTP status (e.g., 404 Not
+   *     Found) if the contact does not exist.
    */
-  public ResponseEntity<?> getContactById(Long id) {
+  public ResponseEntity<?> getContactById(Long id, String ifNoneMatch) {
     if (id == null || id <= 0) {
       return ResponseEntity.badRequest().body("Invalid ID: " + id);
     }
 
-    return contactRepository
-        .findById(id)
+    if (ifNoneMatch != null) {
+      Optional<Long> version =
+          contactCache
+              .getIfPresent(id)
+              .map(Contact::getVersion)
+              .or(
+                  () ->
+                      transactionTemplate.execute(
+                          status -> contactRepository.findVersionById(id)));
+      if (version.isPresent()) {
+        String etag = ETags.of(id, version.get());
+        if (ETags.matchesAny(ifNoneMatch, etag)) {
+          return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+      }
+    }
+
+    return contactCache
+        .get(id, key -> transactionTemplate.execute(status -> contactRepository.findById(key)))
         .map(
             contact -> {
-              logger.info("Found contact with ID: {}", id);
-              return ResponseEntity.ok(contact);
+              logger.debug("Found contact with ID: {}", id);
+              return ResponseEntity.ok().eTag(ETags.of(contact)).body(contact);
             })
         .orElseGet(
             () -> {
-              logger.warn("Contact not found with ID: {}", id);
+              logger.debug("Contact not found with ID: {}", id);
               return ResponseEntity.status(HttpStatus.NOT_FOUND)
                   .header("Message", "Contact with ID " + id + " not found")
                   .build();
@@ -64,11 +238,101 @@ public class ContactService {
   }
 
   /**
-   * Retrieves a specific contact by its unique identifier (ID).
+   * Retrieves many contacts by id in one call. Contacts held by the contact cache are taken from
+   * it; the rest are loaded with as few {@code IN} queries as possible, in chunks of 500 ids.
    *
-   * @param id the unique identifier of the contact to retrieve.
-   * @return a ResponseEntity containing the Contact object if found, or an appropriate HTTP status
-   *     (e.g., 404 Not Found) if the contact does not exist.
+   * @param ids the identifiers of the contacts to retrieve, at most 1000; duplicates are ignored.
+   * @return a ContactBatch holding the contacts found, in request order, and the ids not found.
+   * @throws IllegalArgumentException if no ids or more than 1000 ids are requested.
+   */
+  @Transactional(readOnly = true)
+  public ContactBatch getContactsByIds(List<Long> ids) {
+    if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException(
+          "Between 1 and " + MAX_BATCH_SIZE + " ids must be requested");
+    }
+
+    List<Long> requested = new ArrayList<>(new LinkedHashSet<>(ids));
+    List<Long> valid = requested.stream().filter(id -> id != null && id > 0).toList();
+    Map<Long, Contact> byId = new HashMap<>(contactCache.getAllPresent(valid));
+    List<Long> toLoad = valid.stream().filter(id -> !byId.containsKey(id)).toList();
+    for (int from = 0; from < toLoad.size(); from += IN_CHUNK_SIZE) {
+      List<Long> chunk = toLoad.subList(from, Math.min(from + IN_CHUNK_SIZE, toLoad.size()));
+      for (Contact contact : contactRepository.findAllById(chunk)) {
+        byId.put(contact.getId(), contact);
+      }
+    }
+
+    List<Contact> contacts = new ArrayList<>(byId.size());
+    List<Long> missing = new ArrayList<>();
+    for (Long id : requested) {
+      Contact contact = id == null ? null : byId.get(id);
+      if (contact != null) {
+        contacts.add(contact);
+      } else {
+        missing.add(id);
+      }
+    }
+    logger.debug(
+        "Resolved {} of {} contacts, {} from the cache",
+        contacts.size(),
+        requested.size(),
+        valid.size() - toLoad.size());
+    return new ContactBatch(contacts, missing);
+  }
+
+  /**
+   * Finds the contacts with the given email address, ignoring case, through the indexed email key.
+   *
+   * @param email the email address to look up.
+   * @return the matching contacts, in ascending id order; empty if there are none.
+   */
+  @Transactional(readOnly = true)
+  public List<Contact> findContactsByEmail(String email) {
+    String key = ContactKeys.email(email);
+    if (key == null) {
+      throw new IllegalArgumentException("Email must not be null or empty");
+    }
+    return contactRepository.findByEmailKeyOrderByIdAsc(key);
+  }
+
+  /**
+   * Finds the contacts with the given telephone number, however it is formatted, through the
+   * indexed normalized phone key.
+   *
+   * @param telephoneNumber the telephone number to look up.
+   * @return the matching contacts, in ascending id order; empty if there are none.
+   */
+  @Transactional(readOnly = true)
+  public List<Contact> findContactsByTelephoneNumber(String telephoneNumber) {
+    String key = ContactKeys.phone(telephoneNumber);
+    if (key == null) {
+      throw new IllegalArgumentException("Telephone number must contain digits");
+    }
+    return contactRepository.findByPhoneKeyOrderByIdAsc(key);
+  }
+
+  /**
+   * Tells whether a contact with the given email address exists. Emails that certainly do not exist
+   * are answered from an in-memory Bloom filter without querying the database.
+   *
+   * @param email the email address to check.
+   * @return true if a contact uses this email.
+   */
+  public boolean emailExists(String email) {
+    if (ContactKeys.email(email) == null) {
+      throw new IllegalArgumentException("Email must not be null or empty");
+    }
+    return duplicateEmailGuard.exists(email);
+  }
+
+  /**
+   * Deletes a specific contact by its unique identifier (ID) with a single DELETE statement; the
+   * affected-row count tells whether the contact existed.
+   *
+   * @param id the unique identifier of the contact to delete.
+   * @return a ResponseEntity with HTTP 204 No Content if the contact was deleted, or an appropriate
+   *     HTTP status (e.g., 404 Not Found) if the contact does not exist.
    */
   public ResponseEntity<Void> deleteContactById(Long id) {
     if (id == null || id <= 0) {
@@ -76,14 +340,15 @@ public class ContactService {
     }
 
     try {
-      contactRepository.deleteById(id);
-      logger.info("Deleted contact with ID: {}", id);
+      if (contactRepository.removeById(id) == 0) {
+        logger.debug("Contact with ID {} not found for deletion", id);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .header("Message", "Contact with ID " + id + " not found")
+            .build();
+      }
+      eventPublisher.publishEvent(ContactChangedEvent.deleted(id));
+      logger.debug("Deleted contact with ID: {}", id);
       return ResponseEntity.noContent().build();
-    } catch (EmptyResultDataAccessException ex) {
-      logger.warn("Contact with ID {} not found for deletion", id);
-      return ResponseEntity.status(HttpStatus.NOT_FOUND)
-          .header("Message", "Contact with ID " + id + " not found")
-          .build();
     } catch (DataAccessException ex) {
       logger.error("Database error while deleting contact with ID: {}", id, ex);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -92,16 +357,70 @@ public class ContactService {
     }
   }
 
+  /**
+   * Deletes many contacts at once, selected either by id or by keyword. A keyword selects every
+   * contact whose name contains it, ignoring case, and nothing else: unlike a search, the selection
+   * never depends on the search index, so the same request always removes the same contacts.
+   *
+   * <p>The contacts are never loaded: each chunk of ids is narrowed to the ids that exist and
+   * removed with one DELETE statement, in its own transaction, so memory and lock time stay bounded
+   * however many contacts match. Deletion events are published only for the contacts actually
+   * removed. A failure part-way leaves the earlier chunks deleted.
+   *
+   * @param request the ids or the search keyword selecting the contacts to delete.
+   * @return a BulkDeleteReport with the number of selected and deleted contacts.
+   * @throws IllegalArgumentException if the request names neither or both of ids and keyword.
+   */
+  public BulkDeleteReport deleteContacts(BulkDeleteRequest request) {
+    boolean byIds = request != null && request.ids() != null && !request.ids().isEmpty();
+    boolean byKeyword =
+        request != null && request.searchKeyword() != null && !request.searchKeyword().isBlank();
+    if (byIds == byKeyword) {
+      throw new IllegalArgumentException("Specify either ids or a searchKeyword to delete");
+    }
+
+    List<Long> ids =
+        byIds
+            ? request.ids().stream().filter(id -> id != null && id > 0).distinct().toList()
+            : contactRepository.findIdsByNameContainingIgnoreCase(request.searchKeyword().trim());
+
+    long deleted = 0;
+    for (int from = 0; from < ids.size(); from += deleteChunkSize) {
+      List<Long> chunk = ids.subList(from, Math.min(from + deleteChunkSize, ids.size()));
+      List<Long> removed =
+          transactionTemplate.execute(
+              status -> {
+                List<Long> existing = contactRepository.findIdsByIdIn(chunk);
+                if (!existing.isEmpty()) {
+                  contactRepository.removeAllByIds(existing);
+                }
+                return existing;
+              });
+      deleted += removed.size();
+      for (Long id : removed) {
+        eventPublisher.publishEvent(ContactChangedEvent.deleted(id));
+      }
+    }
+    logger.debug("Deleted {} of {} selected contacts", deleted, ids.size());
+    return new BulkDeleteReport(ids.size(), deleted);
+  }
+
   /**
    * Updates an existing contact with the provided details.
    *
+   * <p>When the client sends the entity tag of the version it edited, the update only proceeds if
+   * that is still the current version; the version column also guards against a concurrent write
+   * committing between the read and the update.
+   *
    * @param id the unique identifier of the contact to update.
    * @param updatedContact a Contact object containing the updated information.
-   * @return a ResponseEntity containing the updated Contact object if the update is successful, or
-   *     an appropriate HTTP status (e.g., 404 Not Found if the contact does not exist, or 400 Bad
-   *     Request if validation fails).
+   * @param ifMatch the value of the If-Match request header, or null if absent.
+   * @return a ResponseEntity containing the updated Contact object and its new ETag if the update
+   *     is successful, or an appropriate HTTP status (e.g., 404 Not Found if the contact does not
+   *     exist, 400 Bad Request if validation fails, or 412 Precondition Failed if the contact was
+   *     modified since the client read it).
    */
-  public ResponseEntity<Contact> updateContact(Long id, Contact updatedContact) {
+  public ResponseEntity<Contact> updateContact(Long id, Contact updatedContact, String ifMatch) {
     if (id == null || id <= 0) {
       return ResponseEntity.badRequest().header("Message", "Invalid ID: " + id).build();
     }
@@ -117,12 +436,22 @@ public class ContactService {
           .findById(id)
           .map(
               existingContact -> {
+                if (ifMatch != null && !ETags.matchesStrong(ifMatch, ETags.of(existingContact))) {
+                  logger.warn("Contact with ID {} was modified concurrently", id);
+                  return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                      .eTag(ETags.of(existingContact))
+                      .header("Message", "Contact with ID " + id + " has been modified")
+                      .<Contact>build();
+                }
                 if (updatedContact.getName() != null) {
                   existingContact.setName(updatedContact.getName());
                 }
                 if (updatedContact.getEmail() != null) {
                   existingContact.setEmail(updatedContact.getEmail());
                 }
+                if (updatedContact.getAddress() != null) {
+                  existingContact.setAddress(updatedContact.getAddress());
+                }
                 if (updatedContact.getTelephoneNumber() != null) {
                   existingContact.setTelephoneNumber(updatedContact.getTelephoneNumber());
                 }
@@ -130,16 +459,23 @@ public class ContactService {
                   existingContact.setPostalAddress(updatedContact.getPostalAddress());
                 }
                 Contact savedContact = contactRepository.save(existingContact);
-                logger.info("Updated contact with ID: {}", id);
-                return ResponseEntity.ok(savedContact);
+                eventPublisher.publishEvent(ContactChangedEvent.updated(savedContact));
+                logger.debug("Updated contact with ID: {}", id);
+                return ResponseEntity.ok().eTag(ETags.of(savedContact)).body(savedContact);
               })
           .orElseGet(
               () -> {
-                logger.warn("Contact with ID {} not found", id);
+                logger.debug("Contact with ID {} not found", id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .header("Message", "Contact with ID " + id + " not found")
                     .build();
               });
+    } catch (OptimisticLockingFailureException ex) {
+      logger.warn("Concurrent update of contact with ID: {}", id);
+      return ResponseEntity.status(
+              ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+          .header("Message", "Contact with ID " + id + " has been modified")
+          .build();
     } catch (DataAccessException ex) {
       logger.error("Database error while updating contact with ID: {}", id, ex);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -148,6 +484,115 @@ public class ContactService {
     }
   }
 
+  /**
+   * Applies a partial update to a contact with a single UPDATE statement and no prior read. The
+   * affected-row count tells whether the contact exists; only when nothing was updated is the
+   * current version looked up, to tell a missing contact from a stale If-Match.
+   *
+   * @param id the unique identifier of the contact to update.
+   * @param patch the fields to change; absent fields keep their current value.
+   * @param ifMatch the value of the If-Match request header, or null if absent.
+   * @return a ResponseEntity with HTTP 204 No Content if the contact was updated (carrying the new
+   *     ETag when the update was conditional), or an appropriate HTTP status (e.g., 404 Not Found
+   *     if the contact does not exist, 400 Bad Request if the patch is empty, or 412 Precondition
+   *     Failed if the contact was modified since the client read it).
+   */
+  public ResponseEntity<Void> patchContact(Long id, ContactPatch patch, String ifMatch) {
+    return patchContact(id, patch, false, ifMatch);
+  }
+
+  /**
+   * Applies a partial update to a contact that may also remove its address, as a JSON merge patch
+   * does with {@code "address": null}. Otherwise behaves like {@link #patchContact(Long,
+   * ContactPatch, String)}; {@code If-Match: *} only matches an existing contact, so on a missing
+   * one it fails with 412 Precondition Failed instead of 404 Not Found.
+   *
+   * @param id the unique identifier of the contact to update.
+   * @param patch the fields to change; absent fields keep their current value.
+   * @param removeAddress whether to remove the address of the contact.
+   * @param ifMatch the value of the If-Match request header, or null if absent.
+   * @return a ResponseEntity as described for {@link #patchContact(Long, ContactPatch, String)}.
+   */
+  public ResponseEntity<Void> patchContact(
+      Long id, ContactPatch patch, boolean removeAddress, String ifMatch) {
+    if (id == null || id <= 0) {
+      return ResponseEntity.badRequest().header("Message", "Invalid ID: " + id).build();
+    }
+
+    if (patch == null || (patch.isEmpty() && !removeAddress)) {
+      return ResponseEntity.badRequest()
+          .header("Message", "Patch must change at least one field")
+          .build();
+    }
+
+    Long expectedVersion = null;
+    if (ifMatch != null && !ifMatch.trim().equals("*")) {
+      expectedVersion = ETags.versionOf(ifMatch, id);
+      if (expectedVersion == null) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+            .header("Message", "Contact with ID " + id + " has been modified")
+            .build();
+      }
+    }
+
+    try {
+      int updated =
+          contactRepository.patchById(
+              id,
+              expectedVersion,
+              patch.name(),
+              patch.email(),
+              patch.address(),
+              removeAddress,
+              patch.telephoneNumber(),
+              patch.postalAddress(),
+              ContactKeys.email(patch.email()),
+              ContactKeys.phone(patch.telephoneNumber()));
+      if (updated == 0) {
+        Optional<Long> current =
+            expectedVersion == null ? Optional.empty() : contactRepository.findVersionById(id);
+        if (current.isPresent()) {
+          logger.warn("Contact with ID {} was modified concurrently", id);
+          return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+              .eTag(ETags.of(id, current.get()))
+              .header("Message", "Contact with ID " + id + " has been modified")
+              .build();
+        }
+        logger.debug("Contact with ID {} not found", id);
+        if (ifMatch != null) {
+          // If-Match: * is a precondition that the contact exists.
+          return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+              .header("Message", "Contact with ID " + id + " not found")
+              .build();
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .header("Message", "Contact with ID " + id + " not found")
+            .build();
+      }
+
+      if (removeAddress) {
+        // A patched event cannot express a removed field, so publish the whole contact instead.
+        contactRepository
+            .findById(id)
+            .map(ContactChangedEvent::updated)
+            .ifPresent(eventPublisher::publishEvent);
+      } else {
+        eventPublisher.publishEvent(ContactChangedEvent.patched(patch.toChanges(id)));
+      }
+      logger.debug("Patched contact with ID: {}", id);
+      ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+      if (expectedVersion != null) {
+        response.eTag(ETags.of(id, expectedVersion + 1));
+      }
+      return response.build();
+    } catch (DataAccessException ex) {
+      logger.error("Database error while patching contact with ID: {}", id, ex);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .header("Message", "Database error occurred: " + ex.getMessage())
+          .build();
+    }
+  }
+
   /**
    * Searches for contacts that match the given keyword in their attributes.
    *
@@ -158,7 +603,24 @@ public class ContactService {
    * @return a Page object containing a subset of Contact entities that match the keyword, based on
    *     the pagination parameters.
    */
+  @Transactional(readOnly = true)
   public Page<Contact> searchContacts(String keyword, Pageable pageable) {
+    return (Page<Contact>) searchContacts(keyword, pageable, CountMode.EXACT);
+  }
+
+  /**
+   * Searches for contacts that match the given keyword in their attributes, determining the total
+   * as requested. Searches answered by the index know their total without a count query; the
+   * database fallback only runs one for {@link CountMode#EXACT}.
+   *
+   * @param keyword the search keyword to look for in the contacts' attributes.
+   * @param pageable a Pageable object that specifies the pagination and sorting information.
+   * @param mode how the total number of matches is determined.
+   * @return a Page for {@link CountMode#EXACT} and {@link CountMode#ESTIMATE}, or a Slice without a
+   *     total for {@link CountMode#NONE}.
+   */
+  @Transactional(readOnly = true)
+  public Slice<Contact> searchContacts(String keyword, Pageable pageable, CountMode mode) {
     if (keyword == null || keyword.trim().isEmpty()) {
       throw new IllegalArgumentException("Keyword must not be null or empty");
     }
@@ -168,13 +630,30 @@ public class ContactService {
     }
 
     try {
-      Page<Contact> result =
-          contactRepository.findByNameContainingIgnoreCase(keyword.trim(), pageable);
+      String trimmed = keyword.trim();
+      Slice<Contact> result;
+      if (searchIndex.canServe(trimmed)) {
+        Page<Contact> page = searchIndexed(trimmed, pageable);
+        result =
+            mode == CountMode.NONE
+                ? new SliceImpl<>(page.getContent(), pageable, page.hasNext())
+                : page;
+      } else {
+        result =
+            switch (mode) {
+              case EXACT -> contactRepository.findByNameContainingIgnoreCase(trimmed, pageable);
+              case ESTIMATE ->
+                  withEstimatedTotal(
+                      contactRepository.findSliceByNameContainingIgnoreCase(trimmed, pageable),
+                      -1);
+              case NONE -> contactRepository.findSliceByNameContainingIgnoreCase(trimmed, pageable);
+            };
+      }
 
       if (result.isEmpty()) {
-        logger.warn("No contacts found for keyword: {}", keyword);
+        logger.debug("No contacts found for keyword: {}", keyword);
       } else {
-        logger.info("Found {} contacts for keyword: {}", result.getTotalElements(), keyword);
+        logger.debug("Found {} contacts for keyword: {}", result.getNumberOfElements(), keyword);
       }
 
       return result;
@@ -186,19 +665,138 @@ public class ContactService {
   }
 
   /**
-   * Saves a new contact or updates an existing contact in the database.
+   * Retrieves only the selected fields of a page of contacts, in ascending id order. The query
+   * reads just those columns and creates no entities.
+   *
+   * @param pageable a Pageable object that specifies the page number and size.
+   * @param mode how the total number of contacts is determined.
+   * @param fields the fields to return, as parsed by {@link ContactFields#parse(String)}.
+   * @return a Page (or a count-free Slice for {@link CountMode#NONE}) of field maps.
+   */
+  @Transactional(readOnly = true)
+  public Slice<Map<String, Object>> getAllContactFields(
+      Pageable pageable, CountMode mode, List<String> fields) {
+    List<Map<String, Object>> rows =
+        contactRepository.findFields(
+            fields, null, pageable.getOffset(), pageable.getPageSize() + 1);
+    return toSlice(rows, pageable, mode, contactRepository::count, countTracker.estimate());
+  }
+
+  /**
+   * Searches for contacts like {@link #searchContacts(String, Pageable, CountMode)}, but returns
+   * only the selected fields of each match.
+   *
+   * @param keyword the search keyword to look for in the contacts' attributes.
+   * @param pageable a Pageable object that specifies the page number and size.
+   * @param mode how the total number of matches is determined.
+   * @param fields the fields to return, as parsed by {@link ContactFields#parse(String)}.
+   * @return a Page (or a count-free Slice for {@link CountMode#NONE}) of field maps, best match
+   *     first when the search index is used.
+   */
+  @Transactional(readOnly = true)
+  public Slice<Map<String, Object>> searchContactFields(
+      String keyword, Pageable pageable, CountMode mode, List<String> fields) {
+    if (keyword == null || keyword.trim().isEmpty()) {
+      throw new IllegalArgumentException("Keyword must not be null or empty");
+    }
+
+    String trimmed = keyword.trim();
+    if (!searchIndex.canServe(trimmed)) {
+      List<Map<String, Object>> rows =
+          contactRepository.findFields(
+              fields, trimmed, pageable.getOffset(), pageable.getPageSize() + 1);
+      LongSupplier count = () -> contactRepository.countByNameContainingIgnoreCase(trimmed);
+      return toSlice(rows, pageable, mode, count, -1);
+    }
+
+    SearchHits hits = searchIndex.search(trimmed, pageable.getOffset(), pageable.getPageSize());
+    List<String> columns = fields;
+    if (!fields.contains("id")) {
+      columns = new ArrayList<>(fields);
+      columns.add("id");
+    }
+    Map<Long, Map<String, Object>> byId = new HashMap<>();
+    for (Map<String, Object> row : contactRepository.findFieldsByIds(columns, hits.ids())) {
+      byId.put((Long) row.get("id"), row);
+    }
+    List<Map<String, Object>> content = new ArrayList<>(hits.ids().size());
+    for (Long id : hits.ids()) {
+      Map<String, Object> row = byId.get(id);
+      if (row != null) {
+        if (columns != fields) {
+          row.remove("id");
+        }
+        content.add(row);
+      }
+    }
+    Page<Map<String, Object>> page = new PageImpl<>(content, pageable, hits.total());
+    return mode == CountMode.NONE ? new SliceImpl<>(content, pageable, page.hasNext()) : page;
+  }
+
+  /**
+   * Builds the response slice from rows fetched with one extra row beyond the page size, running
+   * the count only in {@link CountMode#EXACT}.
+   */
+  private static <T> Slice<T> toSlice(
+      List<T> rows, Pageable pageable, CountMode mode, LongSupplier exactCount, long estimate) {
+    boolean hasNext = rows.size() > pageable.getPageSize();
+    List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+    Slice<T> slice = new SliceImpl<>(content, pageable, hasNext);
+    return switch (mode) {
+      case EXACT -> new PageImpl<>(content, pageable, exactCount.getAsLong());
+      case ESTIMATE -> withEstimatedTotal(slice, estimate);
+      case NONE -> slice;
+    };
+  }
+
+  /**
+   * Answers a search from the in-memory index: the index ranks the matches and picks the ids of the
+   * requested page, and only those rows are loaded from the database.
+   */
+  private Page<Contact> searchIndexed(String keyword, Pageable pageable) {
+    SearchHits hits =
+        searchIndex.search(keyword, pageable.getOffset(), pageable.getPageSize());
+    Map<Long, Contact> byId = new HashMap<>();
+    for (Contact contact : contactRepository.findAllById(hits.ids())) {
+      byId.put(contact.getId(), contact);
+    }
+    List<Contact> content = new ArrayList<>(hits.ids().size());
+    for (Long id : hits.ids()) {
+      Contact contact = byId.get(id);
+      if (contact != null) {
+        content.add(contact);
+      }
+    }
+    return new PageImpl<>(content, pageable, hits.total());
+  }
+
+  /**
+   * Saves a new contact in the database. Existing contacts are changed with {@link
+   * #updateContact(Long, Contact, String)}; any version sent with the new contact is ignored.
    *
-   * @param contact the Contact object to be saved or updated.
+   * @param contact the Contact object to be saved, without an ID.
    * @return the saved Contact object, including any generated fields like ID or timestamps.
+   * @throws IllegalArgumentException if the contact is null or already has an ID.
    */
   public Contact saveContact(Contact contact) {
     if (contact == null) {
       throw new IllegalArgumentException("Contact cannot be null");
     }
+    if (contact.getId() != null) {
+      throw new IllegalArgumentException("A new contact must not have an ID: " + contact.getId());
+    }
+    contact.setVersion(null);
+
+    if (duplicateEmailGuard.isRejectingDuplicates()
+        && duplicateEmailGuard.exists(contact.getEmail())) {
+      throw new DuplicateContactException(
+          "A contact with email " + contact.getEmail() + " already exists");
+    }
 
     try {
       Contact savedContact = contactRepository.save(contact);
-      logger.info("Contact saved successfully with ID: {}", savedContact.getId());
+      eventPublisher.publishEvent(ContactChangedEvent.created(savedContact));
+      logger.debug("Contact saved successfully with ID: {}", savedContact.getId());
       return savedContact;
     } catch (DataAccessException ex) {
       logger.error("Failed to save contact: {}", contact, ex);
@@ -0,0 +1,31 @@
+package org.safetrust.managecontacts.service;
+
+import java.util.Locale;
+
+/** How the total number of results is determined for a list or search response. */
+public enum CountMode {
+  /** Run a count query, or use the search index total, for an exact total. */
+  EXACT,
+  /**
+   * Skip the count query and report an estimate: the tracked number of contacts for listings, the
+   * search index total for searches, or a lower bound when neither is available.
+   */
+  ESTIMATE,
+  /** Skip the total altogether and only report whether a next page exists. */
+  NONE;
+
+  /**
+   * Resolves a count mode from its name, ignoring case.
+   *
+   * @param name the mode name, e.g. {@code exact}, {@code estimate} or {@code none}.
+   * @return the matching CountMode.
+   * @throws IllegalArgumentException if the name does not denote a count mode.
+   */
+  public static CountMode from(String name) {
+    try {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException | NullPointerException ex) {
+      throw new IllegalArgumentException("Unsupported count mode: " + name);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package org.safetrust.managecontacts.service;
+
+import org.safetrust.managecontacts.entity.ContactKeys;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.safetrust.managecontacts.search.EmailBloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers whether an email is already in use, consulting the {@link EmailBloomFilter} first so
+ * that emails which definitely do not exist never cost a query.
+ *
+ * <p>Rejecting duplicates on insert is opt-in ({@code contact.email.reject-duplicates}), since
+ * existing data may already hold duplicates. The check is best-effort: two concurrent inserts of
+ * the same new email can both pass it.
+ */
+@Component
+public class DuplicateEmailGuard {
+  private final ContactRepository contactRepository;
+  private final EmailBloomFilter emailFilter;
+  private final boolean rejectDuplicates;
+
+  public DuplicateEmailGuard(
+      ContactRepository contactRepository,
+      EmailBloomFilter emailFilter,
+      @Value("${contact.email.reject-duplicates:false}") boolean rejectDuplicates) {
+    this.contactRepository = contactRepository;
+    this.emailFilter = emailFilter;
+    this.rejectDuplicates = rejectDuplicates;
+  }
+
+  public boolean isRejectingDuplicates() {
+    return rejectDuplicates;
+  }
+
+  /**
+   * Tells whether a contact with the given email exists, ignoring case.
+   *
+   * @param email the email address.
+   * @return true if a contact uses this email.
+   */
+  public boolean exists(String email) {
+    String key = ContactKeys.email(email);
+    if (key == null || !emailFilter.mightContain(key)) {
+      return false;
+    }
+    return contactRepository.existsByEmailKey(key);
+  }
+}
@@ -0,0 +1,138 @@
+package org.safetrust.managecontacts.service;
+
+import org.safetrust.managecontacts.entity.Contact;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Builds and compares the entity tags of contact responses.
+ *
+ * <p>A contact's tag is derived from its id and its optimistic-lock version, which changes on every
+ * write, so it can be computed without loading or serializing the row. A page's tag hashes the ids
+ * and versions of its contacts together with the paging metadata.
+ */
+public final class ETags {
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private ETags() {}
+
+  /**
+   * Returns the strong entity tag of a contact.
+   *
+   * @param contact the contact, which must have an id and a version.
+   * @return the quoted entity tag.
+   */
+  public static String of(Contact contact) {
+    return of(contact.getId(), contact.getVersion());
+  }
+
+  /**
+   * Returns the strong entity tag of the contact with the given id and version.
+   *
+   * @param id the identifier of the contact.
+   * @param version the version of the contact.
+   * @return the quoted entity tag.
+   */
+  public static String of(Long id, Long version) {
+    return "\"" + id + "-" + version + "\"";
+  }
+
+  /**
+   * Returns the strong entity tag of a page of contacts. Pages reported with a total include it in
+   * the tag; count-free slices do not.
+   *
+   * @param page the page or slice of contacts.
+   * @return the quoted entity tag.
+   */
+  public static String of(Slice<Contact> page) {
+    long hash = FNV_OFFSET;
+    hash = mix(hash, page.getNumber());
+    hash = mix(hash, page.getSize());
+    hash = mix(hash, page instanceof Page<Contact> counted ? counted.getTotalElements() : -1L);
+    for (Contact contact : page.getContent()) {
+      hash = mix(hash, contact.getId() == null ? 0L : contact.getId());
+      hash = mix(hash, contact.getVersion() == null ? 0L : contact.getVersion());
+    }
+    return "\"p-" + Long.toHexString(hash) + "\"";
+  }
+
+  /**
+   * Evaluates an {@code If-None-Match} header against the current tag, using the weak comparison
+   * mandated for that header.
+   *
+   * @param ifNoneMatch the header value, possibly listing several tags or {@code *}.
+   * @param etag the current entity tag.
+   * @return true if the header matches, i.e. the client's copy is current.
+   */
+  public static boolean matchesAny(String ifNoneMatch, String etag) {
+    return matches(ifNoneMatch, etag, false);
+  }
+
+  /**
+   * Evaluates an {@code If-Match} header against the current tag, using strong comparison.
+   *
+   * @param ifMatch the header value, possibly listing several tags or {@code *}.
+   * @param etag the current entity tag.
+   * @return true if the header matches, i.e. the client edited the current version.
+   */
+  public static boolean matchesStrong(String ifMatch, String etag) {
+    return matches(ifMatch, etag, true);
+  }
+
+  /**
+   * Extracts the version the client expects from an {@code If-Match} header, so a conditional
+   * update can be checked by the database instead of by reading the row first.
+   *
+   * @param ifMatch the header value, possibly listing several tags.
+   * @param id the identifier of the contact being updated.
+   * @return the version named by the first strong tag of this contact, or null if there is none.
+   */
+  public static Long versionOf(String ifMatch, Long id) {
+    if (ifMatch == null) {
+      return null;
+    }
+    String prefix = "\"" + id + "-";
+    for (String candidate : ifMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+        try {
+          return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+        } catch (NumberFormatException ex) {
+          // Not one of our tags; keep looking.
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean matches(String header, String etag, boolean strong) {
+    if (header == null || etag == null) {
+      return false;
+    }
+    for (String candidate : header.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*")) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        if (strong) {
+          continue;
+        }
+        tag = tag.substring(2);
+      }
+      if (tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static long mix(long hash, long value) {
+    for (int i = 0; i < Long.BYTES; i++) {
+      hash ^= (value >>> (i * 8)) & 0xff;
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+}
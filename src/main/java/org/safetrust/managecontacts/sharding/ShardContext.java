@@ -0,0 +1,64 @@
+package org.safetrust.managecontacts.sharding;
+
+/**
+ * The shard the current thread's database work goes to, and the id layout that ties contacts to
+ * shards.
+ *
+ * <p>Contact ids carry their shard in the bits above {@link #SHARD_SHIFT}: shard {@code k} owns the
+ * id range {@code [k << 48, (k + 1) << 48)}, because each shard's id sequence starts at the bottom
+ * of its range. A contact is therefore found from its id alone, and ascending id order across all
+ * shards is shard order followed by id order within each shard. Threads without a shard use shard
+ * 0, which also holds the contacts seeded at startup.
+ */
+public final class ShardContext {
+  /** The number of id bits below the shard number. */
+  public static final int SHARD_SHIFT = 48;
+
+  private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+  private ShardContext() {}
+
+  /**
+   * Returns the shard of the current thread.
+   *
+   * @return the shard number, 0 if none is set.
+   */
+  public static int current() {
+    Integer shard = CURRENT.get();
+    return shard == null ? 0 : shard;
+  }
+
+  /**
+   * Sends the current thread's database work to a shard.
+   *
+   * @param shard the shard number.
+   */
+  public static void set(int shard) {
+    CURRENT.set(shard);
+  }
+
+  /** Sends the current thread's database work back to the default shard. */
+  public static void clear() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Returns the shard owning an id.
+   *
+   * @param id the contact id.
+   * @return the shard number.
+   */
+  public static int shardOf(long id) {
+    return (int) (id >>> SHARD_SHIFT);
+  }
+
+  /**
+   * Returns the lowest id of a shard's range, where its id sequence starts.
+   *
+   * @param shard the shard number.
+   * @return the first id of the shard.
+   */
+  public static long firstId(int shard) {
+    return (long) shard << SHARD_SHIFT;
+  }
+}
@@ -0,0 +1,61 @@
+package org.safetrust.managecontacts.sharding;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.relational.SchemaManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the schema on every shard but the first, where Hibernate creates it on startup.
+ *
+ * <p>Runs only when Hibernate is set to create the schema, as with the default {@code
+ * create-drop} on embedded databases; otherwise the shards are expected to be provisioned. The
+ * mapped tables and sequences are recreated from the entity mappings, and the id sequence of shard
+ * {@code k} is restarted at {@link ShardContext#firstId(int) k << 48}, so that its contacts get ids
+ * from its own range.
+ */
+@Component
+@ConditionalOnProperty("contact.sharding.shard-urls")
+public class ShardSchemaInitializer implements SmartInitializingSingleton {
+  private static final Logger logger = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+  private static final Set<String> CREATING_ACTIONS =
+      Set.of("create", "create-drop", "create-only", "drop-and-create");
+
+  private final ShardedDataSource dataSource;
+  private final EntityManagerFactory entityManagerFactory;
+
+  public ShardSchemaInitializer(
+      ShardedDataSource dataSource, EntityManagerFactory entityManagerFactory) {
+    this.dataSource = dataSource;
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    Object action = entityManagerFactory.getProperties().get(AvailableSettings.HBM2DDL_AUTO);
+    if (action == null || !CREATING_ACTIONS.contains(action.toString())) {
+      return;
+    }
+    SchemaManager schemaManager =
+        entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+    for (int shard = 1; shard < dataSource.shardCount(); shard++) {
+      ShardContext.set(shard);
+      try {
+        schemaManager.dropMappedObjects(false);
+        schemaManager.exportMappedObjects(false);
+      } finally {
+        ShardContext.clear();
+      }
+      new JdbcTemplate(dataSource.shard(shard))
+          .execute("ALTER SEQUENCE contact_seq RESTART WITH " + ShardContext.firstId(shard));
+    }
+    logger.info("Created the contact schema on {} additional shards", dataSource.shardCount() - 1);
+  }
+}
@@ -0,0 +1,542 @@
+package org.safetrust.managecontacts.sharding;
+
+import jakarta.annotation.PreDestroy;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.BaseStream;
+import java.util.stream.StreamSupport;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Spreads a {@link ContactRepository} over the shards of a {@link ShardedDataSource}.
+ *
+ * <p>{@link #wrap} returns a repository that routes every call by what it touches:
+ *
+ * <ul>
+ *   <li>Calls on one id, or one contact, run on the calling thread against the shard owning the
+ *       id. New contacts are placed on the shards in turn and take their id from that shard's
+ *       sequence; a {@code saveAll} of new contacts places the whole batch on one shard, so that
+ *       it can run in one transaction.
+ *   <li>Calls on several ids are split by shard and run on each shard concurrently.
+ *   <li>Everything else is scattered to all shards concurrently and the results gathered: counts
+ *       are summed, existence checks combined, and rows merge-sorted by the requested sort, or by
+ *       id for queries ordered by id. Page {@code n} is computed from the first {@code (n + 1) *
+ *       size} rows of every shard, so pages reaching past {@code maxPageOffset} rows are refused
+ *       with an {@link IllegalArgumentException}; keyset reads by id stay cheap at any depth.
+ *   <li>Streams read one shard after the other, each in its own read-only transaction, so that the
+ *       caller still consumes them in ascending id order.
+ * </ul>
+ *
+ * <p>Writes to several shards are not atomic: each shard commits on its own. A transaction stays
+ * on the shard of its first statement, so callers must not mix single-shard calls on different
+ * shards within one transaction.
+ */
+public class ShardedContactRepository {
+  private static final Set<String> BY_ID =
+      Set.of(
+          "findById",
+          "existsById",
+          "deleteById",
+          "getReferenceById",
+          "findVersionById",
+          "patchById",
+          "removeById");
+  private static final Set<String> BY_ENTITY = Set.of("save", "saveAndFlush", "delete");
+  private static final Set<String> BY_IDS =
+      Set.of(
+          "findAllById",
+          "deleteAllById",
+          "deleteAllByIdInBatch",
+          "removeAllByIds",
+          "findIdsByIdIn");
+
+  private final ShardedDataSource dataSource;
+  private final ObjectProvider<PlatformTransactionManager> transactionManager;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final AtomicInteger nextShard = new AtomicInteger();
+  private final long maxPageOffset;
+
+  /**
+   * Creates the router.
+   *
+   * @param dataSource the shards.
+   * @param transactionManager the transaction manager, for reading streams shard by shard.
+   * @param maxPageOffset the largest offset plus page size a scattered page may reach.
+   */
+  public ShardedContactRepository(
+      ShardedDataSource dataSource,
+      ObjectProvider<PlatformTransactionManager> transactionManager,
+      long maxPageOffset) {
+    this.dataSource = dataSource;
+    this.transactionManager = transactionManager;
+    this.maxPageOffset = maxPageOffset;
+  }
+
+  /**
+   * Wraps a repository so that its calls are routed to the shards.
+   *
+   * @param target the repository, whose queries run against the current thread's shard.
+   * @return the sharded repository.
+   */
+  public ContactRepository wrap(ContactRepository target) {
+    return (ContactRepository)
+        Proxy.newProxyInstance(
+            ContactRepository.class.getClassLoader(),
+            new Class<?>[] {ContactRepository.class},
+            (proxy, method, args) ->
+                route(target, method, args == null ? new Object[0] : args));
+  }
+
+  /** Stops the threads querying the shards. */
+  @PreDestroy
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private Object route(ContactRepository target, Method method, Object[] args) throws Throwable {
+    String name = method.getName();
+    if (method.getDeclaringClass() == Object.class) {
+      return invoke(target, method, args);
+    }
+    if (BaseStream.class.isAssignableFrom(method.getReturnType())) {
+      return streamShards(target, method, args);
+    }
+    if (BY_ID.contains(name) && args.length > 0 && args[0] instanceof Long id) {
+      int shard = ShardContext.shardOf(id);
+      return shard < dataSource.shardCount()
+          ? onShard(shard, target, method, args)
+          : notFound(method.getReturnType());
+    }
+    if (BY_ENTITY.contains(name) && args.length == 1 && args[0] instanceof Contact contact) {
+      return onShard(shardFor(contact), target, method, args);
+    }
+    if (name.equals("saveAll") && args.length == 1 && allNew((Iterable<?>) args[0])) {
+      // A batch of new contacts stays together on the next shard, within the caller's transaction.
+      return onShard(
+          Math.floorMod(nextShard.getAndIncrement(), dataSource.shardCount()),
+          target,
+          method,
+          args);
+    }
+    if ((name.equals("saveAll") || name.equals("deleteAll")) && args.length == 1) {
+      Method single =
+          ContactRepository.class.getMethod(
+              name.equals("saveAll") ? "save" : "delete", Object.class);
+      List<Object> results = new ArrayList<>();
+      for (Object entity : (Iterable<?>) args[0]) {
+        results.add(route(target, single, new Object[] {entity}));
+      }
+      return name.equals("saveAll") ? results : null;
+    }
+    if (BY_IDS.contains(name) && args.length == 1) {
+      return byShard(target, method, args, 0);
+    }
+    if (name.equals("findFieldsByIds")) {
+      return byShard(target, method, args, 1);
+    }
+    return scatter(target, method, args);
+  }
+
+  /** Tells whether every entity is a contact without an id, i.e. one that has no shard yet. */
+  private static boolean allNew(Iterable<?> entities) {
+    for (Object entity : entities) {
+      if (!(entity instanceof Contact contact) || contact.getId() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Picks the shard of a contact: the one owning its id, or the next in turn for new ones. */
+  private int shardFor(Contact contact) {
+    if (contact.getId() == null) {
+      return Math.floorMod(nextShard.getAndIncrement(), dataSource.shardCount());
+    }
+    int shard = ShardContext.shardOf(contact.getId());
+    if (shard >= dataSource.shardCount()) {
+      throw new IllegalArgumentException("Contact id " + contact.getId() + " belongs to no shard");
+    }
+    return shard;
+  }
+
+  private static Object notFound(Class<?> type) {
+    if (type == Optional.class) {
+      return Optional.empty();
+    }
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    return null;
+  }
+
+  /** Runs a call on the calling thread against one shard. */
+  private static Object onShard(int shard, Object target, Method method, Object[] args)
+      throws Throwable {
+    int previous = ShardContext.current();
+    ShardContext.set(shard);
+    try {
+      return invoke(target, method, args);
+    } finally {
+      ShardContext.set(previous);
+    }
+  }
+
+  /** Splits the id collection at {@code index} by shard and runs the call on each shard. */
+  private Object byShard(Object target, Method method, Object[] args, int index)
+      throws Throwable {
+    Map<Integer, List<Long>> ids = new TreeMap<>();
+    for (Object id : (Iterable<?>) args[index]) {
+      int shard = ShardContext.shardOf((Long) id);
+      if (shard < dataSource.shardCount()) {
+        ids.computeIfAbsent(shard, s -> new ArrayList<>()).add((Long) id);
+      }
+    }
+    List<Callable<Object>> calls = new ArrayList<>();
+    for (Map.Entry<Integer, List<Long>> shardIds : ids.entrySet()) {
+      Object[] shardArgs = args.clone();
+      shardArgs[index] = shardIds.getValue();
+      calls.add(() -> onShard(shardIds.getKey(), target, method, shardArgs));
+    }
+    return combine(method, args, all(calls));
+  }
+
+  /** Runs a call on every shard concurrently and combines the results. */
+  private Object scatter(Object target, Method method, Object[] args) throws Throwable {
+    Object[] shardArgs = args.clone();
+    Pageable pageable = null;
+    for (int i = 0; i < args.length; i++) {
+      if (args[i] instanceof Pageable requested) {
+        pageable = requested;
+        if (requested.isPaged()) {
+          // Every shard must return all rows that could land on the requested page.
+          shardArgs[i] =
+              PageRequest.of(
+                  0,
+                  reachableRows(requested.getOffset(), requested.getPageSize()),
+                  withIdOrder(requested.getSort()));
+        }
+      }
+    }
+    if (method.getName().equals("findFields")) {
+      shardArgs[0] = withId((List<?>) args[0]);
+      shardArgs[2] = 0L;
+      shardArgs[3] = reachableRows((Long) args[2], (Integer) args[3]);
+    }
+    List<Callable<Object>> calls = new ArrayList<>();
+    for (int shard = 0; shard < dataSource.shardCount(); shard++) {
+      int current = shard;
+      calls.add(() -> onShard(current, target, method, shardArgs));
+    }
+    List<Object> results = all(calls);
+    if (pageable != null && Slice.class.isAssignableFrom(method.getReturnType())) {
+      return mergePages(method.getReturnType(), results, pageable);
+    }
+    return combine(method, args, results);
+  }
+
+  /** Returns the number of rows every shard must read for a page, refusing pages too deep. */
+  private int reachableRows(long offset, int size) {
+    if (offset > maxPageOffset - size) {
+      throw new IllegalArgumentException(
+          "Pages beyond the first "
+              + maxPageOffset
+              + " contacts cannot be read from sharded storage; use /api/contact/scroll");
+    }
+    return (int) (offset + size);
+  }
+
+  /** Returns the requested fields with the id added, so that rows can be merged in id order. */
+  private static List<String> withId(List<?> fields) {
+    List<String> withId = new ArrayList<>();
+    fields.forEach(field -> withId.add((String) field));
+    if (!withId.contains("id")) {
+      withId.add("id");
+    }
+    return withId;
+  }
+
+  /** Combines per-shard results, given in shard order, into the result of the whole call. */
+  @SuppressWarnings("unchecked")
+  private static Object combine(Method method, Object[] args, List<Object> results) {
+    Class<?> type = method.getReturnType();
+    if (type == long.class || type == Long.class) {
+      return results.stream().mapToLong(result -> (Long) result).sum();
+    }
+    if (type == int.class || type == Integer.class) {
+      return results.stream().mapToInt(result -> (Integer) result).sum();
+    }
+    if (type == boolean.class || type == Boolean.class) {
+      return results.stream().anyMatch(Boolean.TRUE::equals);
+    }
+    if (type == void.class) {
+      return null;
+    }
+    if (type == Optional.class) {
+      return results.stream()
+          .map(result -> (Optional<Object>) result)
+          .flatMap(Optional::stream)
+          .findFirst();
+    }
+    if (!Collection.class.isAssignableFrom(type)) {
+      throw new UnsupportedOperationException(
+          method.getName() + " with a custom result type is not supported on sharded contacts");
+    }
+    List<Object> rows = new ArrayList<>();
+    results.forEach(result -> rows.addAll((Collection<?>) result));
+    Sort order = requestedOrder(method, args);
+    if (order != null) {
+      rows.sort(comparator(order));
+    }
+    if (method.getName().equals("findFields")) {
+      int from = (int) Math.min(rows.size(), (Long) args[2]);
+      List<Object> page = rows.subList(from, Math.min(rows.size(), from + (Integer) args[3]));
+      if (!((List<?>) args[0]).contains("id")) {
+        page.forEach(row -> ((Map<String, Object>) row).remove("id"));
+      }
+      return new ArrayList<>(page);
+    }
+    for (Object arg : args) {
+      if (arg instanceof Limit limit && limit.isLimited() && rows.size() > limit.max()) {
+        return new ArrayList<>(rows.subList(0, limit.max()));
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the order a list result must be merged in: the requested sort, or the id for queries
+   * reading in id order; null if the call requests no order.
+   */
+  private static Sort requestedOrder(Method method, Object[] args) {
+    for (Object arg : args) {
+      if (arg instanceof Sort sort) {
+        return withIdOrder(sort);
+      }
+      if (arg instanceof Pageable pageable) {
+        return withIdOrder(pageable.getSort());
+      }
+    }
+    String name = method.getName();
+    if (name.equals("findFields") || name.contains("OrderById") || name.startsWith("findIds")) {
+      return Sort.by("id");
+    }
+    return null;
+  }
+
+  /**
+   * Merge-sorts per-shard pages, each starting at the first row, into the requested page, or all
+   * rows for an unpaged request.
+   */
+  private static Slice<?> mergePages(Class<?> type, List<Object> results, Pageable pageable) {
+    List<Object> rows = new ArrayList<>();
+    boolean shardHasNext = false;
+    long total = 0;
+    for (Object result : results) {
+      Slice<?> slice = (Slice<?>) result;
+      rows.addAll(slice.getContent());
+      shardHasNext |= slice.hasNext();
+      if (slice instanceof Page<?> page) {
+        total += page.getTotalElements();
+      }
+    }
+    rows.sort(comparator(withIdOrder(pageable.getSort())));
+    if (pageable.isUnpaged()) {
+      return Page.class.isAssignableFrom(type)
+          ? new PageImpl<>(rows, pageable, rows.size())
+          : new SliceImpl<>(rows, pageable, false);
+    }
+    int from = (int) Math.min(rows.size(), pageable.getOffset());
+    int to = Math.min(rows.size(), from + pageable.getPageSize());
+    List<Object> content = new ArrayList<>(rows.subList(from, to));
+    if (Page.class.isAssignableFrom(type)) {
+      return new PageImpl<>(content, pageable, total);
+    }
+    return new SliceImpl<>(content, pageable, shardHasNext || rows.size() > to);
+  }
+
+  /** Adds the id as the last sort key, so that every shard and the merge agree on the order. */
+  private static Sort withIdOrder(Sort sort) {
+    return sort.getOrderFor("id") != null ? sort : sort.and(Sort.by("id"));
+  }
+
+  private static Comparator<Object> comparator(Sort sort) {
+    Comparator<Object> comparator = (a, b) -> 0;
+    for (Sort.Order order : sort) {
+      Comparator<Object> byProperty =
+          Comparator.comparing(
+              row -> sortKey(row, order), Comparator.nullsLast(Comparator.naturalOrder()));
+      comparator =
+          comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+    }
+    return comparator;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Comparable<Object> sortKey(Object row, Sort.Order order) {
+    Object value;
+    if (row instanceof Map<?, ?> fields) {
+      value = fields.get(order.getProperty());
+    } else if (row instanceof Contact) {
+      value = new BeanWrapperImpl(row).getPropertyValue(order.getProperty());
+    } else {
+      // Scalar rows, such as ids, are their own sort key.
+      value = row;
+    }
+    if (order.isIgnoreCase() && value instanceof String text) {
+      value = text.toLowerCase();
+    }
+    return (Comparable<Object>) value;
+  }
+
+  /** Runs calls concurrently, with the caller's database priority, and returns their results. */
+  private List<Object> all(List<Callable<Object>> calls) throws Throwable {
+    List<Callable<Object>> prioritized =
+        calls.stream().map(DatabaseConcurrencyLimiter::withCurrentPriority).toList();
+    List<Object> results = new ArrayList<>(calls.size());
+    try {
+      for (Future<Object> future : executor.invokeAll(prioritized)) {
+        results.add(future.get());
+      }
+    } catch (ExecutionException ex) {
+      throw ex.getCause();
+    }
+    return results;
+  }
+
+  /** Reads a stream from every shard in turn, each within its own read-only transaction. */
+  private Object streamShards(Object target, Method method, Object[] args) {
+    ShardStream rows = new ShardStream(target, method, args);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+        .onClose(rows::close);
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /** Iterates the rows of one shard's stream after the other. */
+  private final class ShardStream implements Iterator<Object> {
+    private final Object target;
+    private final Method method;
+    private final Object[] args;
+    private int nextShard;
+    private int previousShard;
+    private BaseStream<?, ?> stream;
+    private Iterator<?> rows;
+    private TransactionStatus transaction;
+
+    private ShardStream(Object target, Method method, Object[] args) {
+      this.target = target;
+      this.method = method;
+      this.args = args;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (rows == null || !rows.hasNext()) {
+        finishShard(true);
+        if (nextShard >= dataSource.shardCount()) {
+          return false;
+        }
+        openShard(nextShard++);
+      }
+      return true;
+    }
+
+    @Override
+    public Object next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return rows.next();
+    }
+
+    private void openShard(int shard) {
+      previousShard = ShardContext.current();
+      ShardContext.set(shard);
+      DefaultTransactionDefinition definition =
+          new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+      definition.setReadOnly(true);
+      transaction = transactionManager.getObject().getTransaction(definition);
+      try {
+        stream = (BaseStream<?, ?>) invoke(target, method, args);
+      } catch (RuntimeException | Error ex) {
+        finishShard(false);
+        throw ex;
+      } catch (Throwable ex) {
+        finishShard(false);
+        throw new IllegalStateException(ex);
+      }
+      rows = stream.iterator();
+    }
+
+    private void finishShard(boolean commit) {
+      if (transaction == null) {
+        return;
+      }
+      try {
+        if (stream != null) {
+          stream.close();
+        }
+        if (commit) {
+          transactionManager.getObject().commit(transaction);
+        } else {
+          transactionManager.getObject().rollback(transaction);
+        }
+      } finally {
+        transaction = null;
+        stream = null;
+        rows = null;
+        ShardContext.set(previousShard);
+      }
+    }
+
+    private void close() {
+      finishShard(false);
+      nextShard = dataSource.shardCount();
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.safetrust.managecontacts.sharding;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes each connection request to the DataSource of the {@linkplain ShardContext#current()
+ * current thread's shard}. Wrap it in a lazily connecting proxy, so that transactions connect only
+ * once their first statement runs, after the shard has been chosen.
+ */
+public class ShardedDataSource extends AbstractRoutingDataSource {
+  private final List<DataSource> shards;
+
+  /**
+   * Creates the router.
+   *
+   * @param shards the DataSource of every shard, indexed by shard number.
+   */
+  public ShardedDataSource(List<DataSource> shards) {
+    this.shards = List.copyOf(shards);
+    Map<Object, Object> targets = new HashMap<>();
+    for (int i = 0; i < shards.size(); i++) {
+      targets.put(i, shards.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(shards.get(0));
+    setLenientFallback(false);
+  }
+
+  /**
+   * Returns the number of shards.
+   *
+   * @return the shard count.
+   */
+  public int shardCount() {
+    return shards.size();
+  }
+
+  /**
+   * Returns the DataSource of a shard, bypassing the routing.
+   *
+   * @param shard the shard number.
+   * @return the shard's DataSource.
+   */
+  public DataSource shard(int shard) {
+    return shards.get(shard);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return ShardContext.current();
+  }
+}
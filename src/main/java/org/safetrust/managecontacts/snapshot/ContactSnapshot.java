@@ -0,0 +1,134 @@
+package org.safetrust.managecontacts.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.safetrust.managecontacts.entity.Contact;
+
+/**
+ * The binary snapshot format for seed contacts: a gzip stream of a header followed by one record
+ * per contact, in id order.
+ *
+ * <p>Each record is a marker byte {@code 1}, the id and version as longs and the five text fields
+ * as nullable modified-UTF-8 strings; a marker byte {@code 0} ends the stream. Lookup keys are not
+ * stored, they are derived from the email and telephone number when the snapshot is loaded.
+ */
+public final class ContactSnapshot {
+  private static final int MAGIC = 0x43534E50; // "CSNP"
+  private static final int FORMAT_VERSION = 1;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private ContactSnapshot() {}
+
+  /**
+   * Opens a writer for a new snapshot.
+   *
+   * @param out the stream to write to; it is closed together with the writer.
+   * @return a Writer to append contacts to.
+   * @throws IOException if the header cannot be written.
+   */
+  public static Writer writer(OutputStream out) throws IOException {
+    return new Writer(out);
+  }
+
+  /**
+   * Reads all contacts of a snapshot in order.
+   *
+   * @param in the snapshot stream; it is not closed.
+   * @param sink receives every contact, detached and with id and version set.
+   * @return the number of contacts read.
+   * @throws IOException if the stream cannot be read or is not a snapshot of a supported version.
+   */
+  public static long read(InputStream in, Consumer<Contact> sink) throws IOException {
+    DataInputStream data =
+        new DataInputStream(
+            new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE));
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a contact snapshot");
+    }
+    int version = data.readInt();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported contact snapshot version " + version);
+    }
+    long count = 0;
+    while (data.readByte() != 0) {
+      Contact contact = new Contact();
+      contact.setId(data.readLong());
+      contact.setVersion(data.readLong());
+      contact.setName(readString(data));
+      contact.setEmail(readString(data));
+      contact.setAddress(readString(data));
+      contact.setTelephoneNumber(readString(data));
+      contact.setPostalAddress(readString(data));
+      sink.accept(contact);
+      count++;
+    }
+    return count;
+  }
+
+  private static String readString(DataInputStream data) throws IOException {
+    return data.readBoolean() ? data.readUTF() : null;
+  }
+
+  /** Appends contacts to a snapshot; closing it writes the end marker. */
+  public static final class Writer implements Closeable {
+    private final DataOutputStream data;
+    private long count;
+
+    private Writer(OutputStream out) throws IOException {
+      this.data =
+          new DataOutputStream(
+              new BufferedOutputStream(new GZIPOutputStream(out, BUFFER_SIZE), BUFFER_SIZE));
+      data.writeInt(MAGIC);
+      data.writeInt(FORMAT_VERSION);
+    }
+
+    /**
+     * Appends a contact. Contacts should be written in ascending id order.
+     *
+     * @param contact the contact, with its id set.
+     * @throws IOException if writing fails.
+     */
+    public void write(Contact contact) throws IOException {
+      data.writeByte(1);
+      data.writeLong(contact.getId());
+      data.writeLong(contact.getVersion() == null ? 0 : contact.getVersion());
+      writeString(contact.getName());
+      writeString(contact.getEmail());
+      writeString(contact.getAddress());
+      writeString(contact.getTelephoneNumber());
+      writeString(contact.getPostalAddress());
+      count++;
+    }
+
+    /**
+     * Returns the number of contacts written so far.
+     *
+     * @return the count.
+     */
+    public long count() {
+      return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      data.writeByte(0);
+      data.close();
+    }
+
+    private void writeString(String value) throws IOException {
+      data.writeBoolean(value != null);
+      if (value != null) {
+        data.writeUTF(value);
+      }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package org.safetrust.managecontacts.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.safetrust.managecontacts.entity.ContactKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Seeds the database from a {@link ContactSnapshot} instead of replaying {@code data.sql}; active
+ * when {@code contact.snapshot.location} is set, as in the {@code snapshot} profile.
+ *
+ * <p>Runs once all singletons exist, so after Hibernate has created the schema but before the
+ * search index, the email filter and the count tracker are filled on application start. Rows are
+ * inserted with a single prepared statement in JDBC batches within one transaction, and the id
+ * sequence is then moved past the highest loaded id.
+ */
+@Component
+@ConditionalOnProperty("contact.snapshot.location")
+public class SnapshotLoader implements SmartInitializingSingleton {
+  private static final Logger logger = LoggerFactory.getLogger(SnapshotLoader.class);
+
+  private static final String INSERT =
+      "INSERT INTO Contact (id, version, name, email, address, telephone_number, postal_address,"
+          + " email_key, phone_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final Resource snapshot;
+  private final int batchSize;
+
+  public SnapshotLoader(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      @Value("${contact.snapshot.location}") Resource snapshot,
+      @Value("${contact.snapshot.batch-size:10000}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.snapshot = snapshot;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (!snapshot.exists()) {
+      throw new IllegalStateException(
+          "Contact snapshot " + snapshot + " not found; write one with ./gradlew seedSnapshot");
+    }
+    long start = System.nanoTime();
+    Long loaded = transactionTemplate.execute(status -> load());
+    logger.info(
+        "Loaded {} contacts from {} in {} ms",
+        loaded,
+        snapshot.getDescription(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private long load() {
+    List<Object[]> batch = new ArrayList<>(batchSize);
+    long count;
+    try (InputStream in = snapshot.getInputStream()) {
+      count =
+          ContactSnapshot.read(
+              in,
+              contact -> {
+                batch.add(
+                    new Object[] {
+                      contact.getId(),
+                      contact.getVersion(),
+                      contact.getName(),
+                      contact.getEmail(),
+                      contact.getAddress(),
+                      contact.getTelephoneNumber(),
+                      contact.getPostalAddress(),
+                      ContactKeys.email(contact.getEmail()),
+                      ContactKeys.phone(contact.getTelephoneNumber())
+                    });
+                if (batch.size() >= batchSize) {
+                  jdbcTemplate.batchUpdate(INSERT, batch);
+                  batch.clear();
+                }
+              });
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot read contact snapshot " + snapshot, ex);
+    }
+    if (!batch.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT, batch);
+    }
+    restartSequence();
+    return count;
+  }
+
+  /**
+   * Moves {@code contact_seq} so that the next block of ids handed out by Hibernate's pooled
+   * optimizer starts after the highest loaded id.
+   */
+  private void restartSequence() {
+    Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM Contact", Long.class);
+    Long increment =
+        jdbcTemplate.queryForObject(
+            "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES"
+                + " WHERE SEQUENCE_NAME = 'CONTACT_SEQ'",
+            Long.class);
+    long next = (maxId == null ? 0 : maxId) + (increment == null ? 1 : increment);
+    jdbcTemplate.execute("ALTER SEQUENCE contact_seq RESTART WITH " + next);
+  }
+}
@@ -0,0 +1,523 @@
+package org.safetrust.managecontacts.writebehind;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.safetrust.managecontacts.dto.WriteStatus;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.entity.ContactKeys;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.safetrust.managecontacts.exception.DuplicateContactException;
+import org.safetrust.managecontacts.exception.WriteQueueFullException;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.safetrust.managecontacts.service.DuplicateEmailGuard;
+import org.safetrust.managecontacts.sharding.ShardedDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Accepts contact creates and updates for asynchronous processing and writes them in batches.
+ *
+ * <p>Accepted writes wait in a bounded in-memory queue, in arrival order. An update of a contact
+ * that already has an update queued is merged into it: the fields it sets replace the queued ones,
+ * and both are applied by a single write, so bursts of updates to the same contacts cost one write
+ * per contact. Merged updates do not take extra room in the queue. When the queue is full, new
+ * writes are refused with a {@link WriteQueueFullException} instead of waiting.
+ *
+ * <p>A background thread takes up to {@code batch-size} writes once that many are queued, or after
+ * {@code flush-interval}, and applies them in one transaction. If the transaction fails, its writes
+ * are retried one by one, so a single bad write only fails itself. The outcome of every write is
+ * kept under its tracking id for {@code status-retention}.
+ *
+ * <p>Queued writes are held in memory only: they are written before a graceful shutdown completes,
+ * but lost if the process dies first. Updates are applied field by field to the contact as it is
+ * when they are written, so they overwrite changes committed since they were accepted.
+ *
+ * <p>When duplicate emails are rejected, a create is refused if its email is in use or already
+ * queued for creation, and checked again when it is written, so that it fails instead of creating
+ * a duplicate if a synchronous create took the email in the meantime.
+ *
+ * <p>If the background thread stops on an unexpected error, the queue stops accepting writes and
+ * marks the queued ones as failed, so that clients retry synchronously rather than wait for writes
+ * that will never happen.
+ *
+ * <p>Settings: {@code contact.write-behind.enabled}, {@code .capacity}, {@code .batch-size}, {@code
+ * .flush-interval}, {@code .status-retention} and {@code .max-tracked}.
+ */
+@Component
+public class WriteBehindQueue {
+  private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+  private final ContactRepository contactRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final DuplicateEmailGuard duplicateEmailGuard;
+  private final boolean enabled;
+  private final int capacity;
+  private final int batchSize;
+  private final long flushIntervalNanos;
+  private final Cache<String, WriteStatus> statuses;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final Map<Object, PendingWrite> pending = new LinkedHashMap<>();
+  private final Set<String> queuedEmails = new HashSet<>();
+  private boolean flushRequested;
+  private volatile boolean running;
+  private Thread flusher;
+
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder applied = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+
+  public WriteBehindQueue(
+      ContactRepository contactRepository,
+      TransactionTemplate transactionTemplate,
+      ApplicationEventPublisher eventPublisher,
+      DuplicateEmailGuard duplicateEmailGuard,
+      ObjectProvider<ShardedDataSource> shardedDataSource,
+      @Value("${contact.write-behind.enabled:true}") boolean enabled,
+      @Value("${contact.write-behind.capacity:10000}") int capacity,
+      @Value("${contact.write-behind.batch-size:500}") int batchSize,
+      @Value("${contact.write-behind.flush-interval:50ms}") Duration flushInterval,
+      @Value("${contact.write-behind.status-retention:10m}") Duration statusRetention,
+      @Value("${contact.write-behind.max-tracked:100000}") long maxTracked) {
+    this.contactRepository = contactRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.eventPublisher = eventPublisher;
+    this.duplicateEmailGuard = duplicateEmailGuard;
+    this.enabled = enabled;
+    this.capacity = capacity;
+    // A transaction stays on one shard, so with sharding every write commits on its own.
+    this.batchSize = shardedDataSource.getIfAvailable() != null ? 1 : batchSize;
+    this.flushIntervalNanos = flushInterval.toNanos();
+    this.statuses =
+        Caffeine.newBuilder().expireAfterWrite(statusRetention).maximumSize(maxTracked).build();
+  }
+
+  /**
+   * Returns whether asynchronous writes are accepted.
+   *
+   * @return true if the queue is enabled.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Queues the creation of a contact.
+   *
+   * @param contact the validated contact to create; its id and version are ignored.
+   * @return the status of the queued write, carrying its tracking id.
+   * @throws DuplicateContactException if duplicate emails are rejected and the email is in use or
+   *     already queued for creation.
+   * @throws WriteQueueFullException if the queue is full or no longer running.
+   */
+  public WriteStatus create(Contact contact) {
+    String emailKey = null;
+    if (duplicateEmailGuard.isRejectingDuplicates()) {
+      if (duplicateEmailGuard.exists(contact.getEmail())) {
+        throw duplicateEmail(contact.getEmail());
+      }
+      emailKey = ContactKeys.email(contact.getEmail());
+    }
+    Contact values = new Contact(contact);
+    values.setId(null);
+    values.setVersion(null);
+    return enqueue(null, values, emailKey);
+  }
+
+  /**
+   * Queues an update of a contact, merging it into an update of the same contact already queued.
+   *
+   * @param id the id of the contact to update.
+   * @param changes the new values; null fields are left unchanged.
+   * @return the status of the queued write, carrying its tracking id.
+   * @throws WriteQueueFullException if the queue is full and holds no update of the contact, or is
+   *     no longer running.
+   */
+  public WriteStatus update(long id, Contact changes) {
+    return enqueue(id, new Contact(changes), null);
+  }
+
+  /**
+   * Asks the background writer to write the queued writes now instead of at the end of the flush
+   * interval. Returns without waiting for them to be written.
+   */
+  public void flushNow() {
+    lock.lock();
+    try {
+      if (!pending.isEmpty()) {
+        flushRequested = true;
+        changed.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the status of an accepted write.
+   *
+   * @param trackingId the tracking id returned when the write was accepted.
+   * @return the status, or empty if the id is unknown or its status has expired.
+   */
+  public Optional<WriteStatus> status(String trackingId) {
+    return Optional.ofNullable(statuses.getIfPresent(trackingId));
+  }
+
+  /**
+   * Returns the number of queued writes, counting merged updates once.
+   *
+   * @return the queue length.
+   */
+  public int queued() {
+    lock.lock();
+    try {
+      return pending.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of writes accepted, including merged ones.
+   *
+   * @return the accepted write count.
+   */
+  public long accepted() {
+    return accepted.sum();
+  }
+
+  /**
+   * Returns the number of updates merged into an update already queued.
+   *
+   * @return the coalesced write count.
+   */
+  public long coalesced() {
+    return coalesced.sum();
+  }
+
+  /**
+   * Returns the number of writes refused because the queue was full.
+   *
+   * @return the rejected write count.
+   */
+  public long rejected() {
+    return rejected.sum();
+  }
+
+  /**
+   * Returns the number of accepted writes that were applied.
+   *
+   * @return the applied write count.
+   */
+  public long applied() {
+    return applied.sum();
+  }
+
+  /**
+   * Returns the number of accepted writes that failed.
+   *
+   * @return the failed write count.
+   */
+  public long failed() {
+    return failed.sum();
+  }
+
+  /**
+   * Returns the number of transactions committed by the queue.
+   *
+   * @return the batch count.
+   */
+  public long batches() {
+    return batches.sum();
+  }
+
+  /** Starts the background writer. */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    flusher = Thread.ofPlatform().name("write-behind").daemon().start(this::flushLoop);
+  }
+
+  /** Stops the background writer after it has written every queued write. */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (flusher == null) {
+      return;
+    }
+    lock.lock();
+    try {
+      running = false;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    flusher.join(TimeUnit.SECONDS.toMillis(30));
+    if (queued() > 0) {
+      logger.warn("Stopped with {} queued writes not written", queued());
+    }
+  }
+
+  private WriteStatus enqueue(Long contactId, Contact values, String emailKey) {
+    String trackingId = UUID.randomUUID().toString();
+    WriteStatus status =
+        new WriteStatus(
+            trackingId, WriteStatus.State.QUEUED, contactId, false, null, Instant.now(), null);
+    lock.lock();
+    try {
+      if (!running) {
+        rejected.increment();
+        throw new WriteQueueFullException("Asynchronous writes are not being processed");
+      }
+      PendingWrite write = contactId != null ? pending.get(contactId) : null;
+      if (write != null) {
+        write.merge(values);
+        coalesced.increment();
+      } else if (pending.size() >= capacity) {
+        rejected.increment();
+        throw new WriteQueueFullException(
+            "Too many queued writes (" + capacity + "), retry later");
+      } else if (emailKey != null && queuedEmails.contains(emailKey)) {
+        throw duplicateEmail(values.getEmail());
+      } else {
+        write = new PendingWrite(contactId, values, emailKey);
+        if (emailKey != null) {
+          queuedEmails.add(emailKey);
+        }
+        pending.put(contactId != null ? contactId : trackingId, write);
+        if (pending.size() == 1 || pending.size() >= batchSize) {
+          changed.signalAll();
+        }
+      }
+      write.trackingIds.add(trackingId);
+      statuses.put(trackingId, status);
+      accepted.increment();
+    } finally {
+      lock.unlock();
+    }
+    return status;
+  }
+
+  private void flushLoop() {
+    try {
+      List<PendingWrite> batch;
+      while ((batch = take()) != null) {
+        flush(batch);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException | Error ex) {
+      logger.error("Write-behind writer stopped, refusing further asynchronous writes", ex);
+      halt();
+      throw ex;
+    }
+  }
+
+  /** Stops accepting writes and fails the queued ones, once the writer can no longer run. */
+  private void halt() {
+    List<PendingWrite> abandoned;
+    lock.lock();
+    try {
+      running = false;
+      abandoned = new ArrayList<>(pending.values());
+      pending.clear();
+    } finally {
+      lock.unlock();
+    }
+    for (PendingWrite write : abandoned) {
+      complete(write, WriteStatus.State.FAILED, write.contactId, "Write-behind writer stopped");
+    }
+  }
+
+  /**
+   * Waits for a full batch or the end of the flush interval and takes the oldest writes, or returns
+   * null once the queue is stopped and empty.
+   */
+  private List<PendingWrite> take() throws InterruptedException {
+    lock.lock();
+    try {
+      while (pending.isEmpty()) {
+        if (!running) {
+          return null;
+        }
+        changed.await();
+      }
+      long remaining = flushIntervalNanos;
+      while (running && !flushRequested && pending.size() < batchSize && remaining > 0) {
+        remaining = changed.awaitNanos(remaining);
+      }
+      List<PendingWrite> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+      Iterator<PendingWrite> writes = pending.values().iterator();
+      while (writes.hasNext() && batch.size() < batchSize) {
+        batch.add(writes.next());
+        writes.remove();
+      }
+      if (pending.isEmpty()) {
+        flushRequested = false;
+      }
+      return batch;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Applies writes in one transaction, or one by one if that fails. */
+  private void flush(List<PendingWrite> batch) {
+    List<Contact> saved;
+    try {
+      saved =
+          transactionTemplate.execute(
+              status -> {
+                List<Contact> results = new ArrayList<>(batch.size());
+                for (PendingWrite write : batch) {
+                  results.add(apply(write));
+                }
+                return results;
+              });
+    } catch (RuntimeException ex) {
+      if (batch.size() == 1) {
+        logger.warn("Queued write failed: {}", ex.getMessage());
+        complete(batch.get(0), WriteStatus.State.FAILED, null, ex.getMessage());
+        return;
+      }
+      logger.warn("Batch of {} queued writes failed, retrying one by one", batch.size(), ex);
+      for (PendingWrite write : batch) {
+        flush(List.of(write));
+      }
+      return;
+    }
+    batches.increment();
+    for (int i = 0; i < batch.size(); i++) {
+      PendingWrite write = batch.get(i);
+      Contact contact = saved.get(i);
+      if (contact == null) {
+        complete(
+            write,
+            WriteStatus.State.FAILED,
+            write.contactId,
+            "Contact with ID " + write.contactId + " not found");
+      } else {
+        try {
+          eventPublisher.publishEvent(
+              write.contactId == null
+                  ? ContactChangedEvent.created(contact)
+                  : ContactChangedEvent.updated(contact));
+        } catch (RuntimeException ex) {
+          // The write is committed; a failing listener must not leave it queued or stop the writer.
+          logger.error("Listener failed for applied write of contact {}", contact.getId(), ex);
+        }
+        complete(write, WriteStatus.State.APPLIED, contact.getId(), null);
+      }
+    }
+  }
+
+  /** Writes one queued create or update, returning null if the contact to update is gone. */
+  private Contact apply(PendingWrite write) {
+    if (write.contactId == null) {
+      if (write.emailKey != null && duplicateEmailGuard.exists(write.values.getEmail())) {
+        throw duplicateEmail(write.values.getEmail());
+      }
+      // Saved from a copy, so a rolled-back attempt leaves no generated id behind for the retry.
+      return contactRepository.save(new Contact(write.values));
+    }
+    return contactRepository
+        .findById(write.contactId)
+        .map(
+            existing -> {
+              PendingWrite.copyPresentFields(write.values, existing);
+              return contactRepository.save(existing);
+            })
+        .orElse(null);
+  }
+
+  private void complete(
+      PendingWrite write, WriteStatus.State state, Long contactId, String message) {
+    if (write.emailKey != null) {
+      lock.lock();
+      try {
+        queuedEmails.remove(write.emailKey);
+      } finally {
+        lock.unlock();
+      }
+    }
+    boolean merged = write.trackingIds.size() > 1;
+    Instant now = Instant.now();
+    for (String trackingId : write.trackingIds) {
+      WriteStatus queued = statuses.getIfPresent(trackingId);
+      Instant acceptedAt = queued != null ? queued.acceptedAt() : now;
+      statuses.put(
+          trackingId,
+          new WriteStatus(trackingId, state, contactId, merged, message, acceptedAt, now));
+    }
+    (state == WriteStatus.State.APPLIED ? applied : failed).add(write.trackingIds.size());
+  }
+
+  private static DuplicateContactException duplicateEmail(String email) {
+    return new DuplicateContactException("A contact with email " + email + " already exists");
+  }
+
+  /** A queued create, or the merged queued updates of one contact. */
+  private static final class PendingWrite {
+    private final Long contactId;
+    private final Contact values;
+    private final String emailKey;
+    private final List<String> trackingIds = new ArrayList<>(1);
+
+    private PendingWrite(Long contactId, Contact values, String emailKey) {
+      this.contactId = contactId;
+      this.values = values;
+      this.emailKey = emailKey;
+    }
+
+    private void merge(Contact later) {
+      copyPresentFields(later, values);
+    }
+
+    private static void copyPresentFields(Contact from, Contact to) {
+      if (from.getName() != null) {
+        to.setName(from.getName());
+      }
+      if (from.getEmail() != null) {
+        to.setEmail(from.getEmail());
+      }
+      if (from.getAddress() != null) {
+        to.setAddress(from.getAddress());
+      }
+      if (from.getTelephoneNumber() != null) {
+        to.setTelephoneNumber(from.getTelephoneNumber());
+      }
+      if (from.getPostalAddress() != null) {
+        to.setPostalAddress(from.getPostalAddress());
+      }
+    }
+  }
+}
@@ -1,21 +1,37 @@
-INSERT INTO Contact (name, email, address, telephone_number, postal_address)
-VALUES ('John Doe', 'john.doe@example.com', '123 Elm St', '123-456-7890', 'P.O. Box 123'),
-       ('Jane Smith', 'jane.smith@example.com', '456 Oak St', '987-654-3210', 'P.O. Box 456'),
-       ('Alice Johnson', 'alice.johnson@example.com', '789 Pine St', '555-123-4567', 'P.O. Box 789'),
-       ('Bob Brown', 'bob.brown@example.com', '101 Maple St', '444-555-6666', 'P.O. Box 101'),
-       ('Charlie Davis', 'charlie.davis@example.com', '202 Cedar St', '333-444-5555', 'P.O. Box 202'),
-       ('Diana Evans', 'diana.evans@example.com', '303 Birch St', '222-333-4444', 'P.O. Box 303'),
-       ('Eve Wilson', 'eve.wilson@example.com', '404 Spruce St', '111-222-3333', 'P.O. Box 404'),
-       ('Frank Taylor', 'frank.taylor@example.com', '505 Ash St', '999-888-7777', 'P.O. Box 505'),
-       ('Grace Moore', 'grace.moore@example.com', '606 Walnut St', '888-777-6666', 'P.O. Box 606'),
-       ('Hank Thomas', 'hank.thomas@example.com', '707 Poplar St', '777-666-5555', 'P.O. Box 707'),
-       ('Ivy White', 'ivy.white@example.com', '808 Chestnut St', '666-555-4444', 'P.O. Box 808'),
-       ('Jack Harris', 'jack.harris@example.com', '909 Sycamore St', '555-444-3333', 'P.O. Box 909'),
-       ('Karen Clark', 'karen.clark@example.com', '1010 Redwood St', '444-333-2222', 'P.O. Box 1010'),
-       ('Leo Lewis', 'leo.lewis@example.com', '1111 Fir St', '333-222-1111', 'P.O. Box 1111'),
-       ('Mia Walker', 'mia.walker@example.com', '1212 Alder St', '222-111-0000', 'P.O. Box 1212'),
-       ('Noah Hall', 'noah.hall@example.com', '1313 Beech St', '000-999-8888', 'P.O. Box 1313'),
-       ('Olivia Allen', 'olivia.allen@example.com', '1414 Holly St', '999-888-7777', 'P.O. Box 1414'),
-       ('Paul Young', 'paul.young@example.com', '1515 Palm St', '888-777-6666', 'P.O. Box 1515'),
-       ('Quinn King', 'quinn.king@example.com', '1616 Willow St', '777-666-5555', 'P.O. Box 1616'),
-       ('Rose Scott', 'rose.scott@example.com', '1717 Elm St', '666-555-4444', 'P.O. Box 1717');
+INSERT INTO Contact (id, name, email, address, telephone_number, postal_address, version)
+VALUES (1, 'John Doe', 'john.doe@example.com', '123 Elm St', '123-456-7890', 'P.O. Box 123', 0),
+       (2, 'Jane Smith', 'jane.smith@example.com', '456 Oak St', '987-654-3210', 'P.O. Box 456', 0),
+       (3, 'Alice Johnson', 'alice.johnson@example.com', '789 Pine St', '555-123-4567', 'P.O. Box 789', 0),
+       (4, 'Bob Brown', 'bob.brown@example.com', '101 Maple St', '444-555-6666', 'P.O. Box 101', 0),
+       (5, 'Charlie Davis', 'charlie.davis@example.com', '202 Cedar St', '333-444-5555', 'P.O. Box 202', 0),
+       (6, 'Diana Evans', 'diana.evans@example.com', '303 Birch St', '222-333-4444', 'P.O. Box 303', 0),
+       (7, 'Eve Wilson', 'eve.wilson@example.com', '404 Spruce St', '111-222-3333', 'P.O. Box 404', 0),
+       (8, 'Frank Taylor', 'frank.taylor@example.com', '505 Ash St', '999-888-7777', 'P.O. Box 505', 0),
+       (9, 'Grace Moore', 'grace.moore@example.com', '606 Walnut St', '888-777-6666', 'P.O. Box 606', 0),
+       (10, 'Hank Thomas', 'hank.thomas@example.com', '707 Poplar St', '777-666-5555', 'P.O. Box 707', 0),
+       (11, 'Ivy White', 'ivy.white@example.com', '808 Chestnut St', '666-555-4444', 'P.O. Box 808', 0),
+       (12, 'Jack Harris', 'jack.harris@example.com', '909 Sycamore St', '555-444-3333', 'P.O. Box 909', 0),
+       (13, 'Karen Clark', 'karen.clark@example.com', '1010 Redwood St', '444-333-2222', 'P.O. Box 1010', 0),
+       (14, 'Leo Lewis', 'leo.lewis@example.com', '1111 Fir St', '333-222-1111', 'P.O. Box 1111', 0),
+       (15, 'Mia Walker', 'mia.walker@example.com', '1212 Alder St', '222-111-0000', 'P.O. Box 1212', 0),
+       (16, 'Noah Hall', 'noah.hall@example.com', '1313 Beech St', '000-999-8888', 'P.O. Box 1313', 0),
+       (17, 'Olivia Allen', 'olivia.allen@example.com', '1414 Holly St', '999-888-7777', 'P.O. Box 1414', 0),
+       (18, 'Paul Young', 'paul.young@example.com', '1515 Palm St', '888-777-6666', 'P.O. Box 1515', 0),
+       (19, 'Quinn King', 'quinn.king@example.com', '1616 Willow St', '777-666-5555', 'P.O. Box 1616', 0),
+       (20, 'Rose Scott', 'rose.scott@example.com', '1717 Elm St', '666-555-4444', 'P.O. Box 1717', 0);
+
+-- The seed rows take explicit ids 1..20. Restart the sequence one allocation block (50) past the
+-- highest id, so Hibernate's pooled optimizer hands out ids from 21 onwards.
+ALTER SEQUENCE contact_seq RESTART WITH 70;
+
+-- Lookup keys, normalized like ContactKeys does for contacts written through the application.
+UPDATE Contact
+SET email_key = LOWER(TRIM(email)),
+    phone_key = CASE
+                    WHEN TRIM(telephone_number) LIKE '+%'
+                        THEN '+' || REGEXP_REPLACE(telephone_number, '[^0-9]', '')
+                    WHEN LENGTH(REGEXP_REPLACE(telephone_number, '[^0-9]', '')) = 10
+                        THEN '+1' || REGEXP_REPLACE(telephone_number, '[^0-9]', '')
+                    ELSE '+' || REGEXP_REPLACE(telephone_number, '[^0-9]', '')
+        END
+WHERE email_key IS NULL;
@@ -1,9 +1,17 @@
+CREATE SEQUENCE contact_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE Contact
 (
-    id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id               BIGINT PRIMARY KEY,
     name             VARCHAR(255),
     email            VARCHAR(255),
     address          VARCHAR(255),
     telephone_number VARCHAR(255),
-    postal_address   VARCHAR(255)
-);
\ No newline at end of file
+    postal_address   VARCHAR(255),
+    version          BIGINT DEFAULT 0 NOT NULL,
+    email_key        VARCHAR(255),
+    phone_key        VARCHAR(255)
+);
+
+CREATE INDEX idx_contact_email_key ON Contact (email_key);
+CREATE INDEX idx_contact_phone_key ON Contact (phone_key);
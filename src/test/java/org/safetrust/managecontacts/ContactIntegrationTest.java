@@ -2,17 +2,37 @@ package org.safetrust.managecontacts;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
 import com.jayway.jsonpath.JsonPath;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.accesslog.AccessLog;
+import org.safetrust.managecontacts.config.ContactProtobufHttpMessageConverter;
 import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.safetrust.managecontacts.service.ContactCountTracker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 
@@ -20,6 +40,8 @@ import org.springframework.test.annotation.DirtiesContext;
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class ContactIntegrationTest {
   @Autowired private TestRestTemplate restTemplate;
+  @Autowired private AccessLog accessLog;
+  @Autowired private ContactCountTracker countTracker;
 
   @Test
   public void testCreateContact() {
@@ -130,4 +152,922 @@ public class ContactIntegrationTest {
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     assertThat(response.getBody()).contains("Alice Johnson", "Bob Johnson");
   }
+
+  @Test
+  public void testScrollContacts() {
+    ResponseEntity<String> first =
+        restTemplate.getForEntity("/api/contact/scroll?size=15", String.class);
+
+    assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+    List<Integer> firstIds = JsonPath.parse(first.getBody()).read("$.content[*].id");
+    assertThat(firstIds.size()).isEqualTo(15);
+    assertThat((Boolean) JsonPath.parse(first.getBody()).read("$.hasNext")).isTrue();
+    String next = JsonPath.parse(first.getBody()).read("$.next");
+
+    ResponseEntity<String> second =
+        restTemplate.getForEntity("/api/contact/scroll?size=15&after=" + next, String.class);
+
+    assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+    List<Integer> secondIds = JsonPath.parse(second.getBody()).read("$.content[*].id");
+    assertThat(secondIds.isEmpty()).isFalse();
+    assertThat(secondIds.get(0)).isGreaterThan(firstIds.get(firstIds.size() - 1));
+  }
+
+  @Test
+  public void testScrollContactsRejectsInvalidCursor() {
+    ResponseEntity<String> response =
+        restTemplate.getForEntity("/api/contact/scroll?after=not-a-cursor", String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  public void testSearchContactsMatchesEmailAndTelephone() {
+    Contact contact = new Contact();
+    contact.setName("Zed Quimby");
+    contact.setEmail("zquimby@search.example");
+    contact.setTelephoneNumber("+4477001122");
+    contact.setPostalAddress("1 Index Row, Gramtown, GT 33333");
+    restTemplate.postForEntity("/api/contact", contact, Contact.class);
+
+    ResponseEntity<String> byEmail =
+        restTemplate.getForEntity(
+            "/api/contact/search?searchKeyword={keyword}", String.class, "QUIMBY@SEARCH");
+    ResponseEntity<String> byPhone =
+        restTemplate.getForEntity(
+            "/api/contact/search?searchKeyword={keyword}", String.class, "77001");
+
+    assertThat(byEmail.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(byEmail.getBody()).contains("Zed Quimby");
+    assertThat(byPhone.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(byPhone.getBody()).contains("Zed Quimby");
+  }
+
+  @Test
+  public void testShortKeywordsSearchNamesInTheDatabase() {
+    Contact named = new Contact();
+    named.setName("Wyx Tern");
+    named.setEmail("wyx.tern@search.example");
+    named.setTelephoneNumber("+4477001133");
+    named.setPostalAddress("2 Index Row, Gramtown, GT 33333");
+    restTemplate.postForEntity("/api/contact", named, Contact.class);
+    Contact mailed = new Contact();
+    mailed.setName("Other Tern");
+    mailed.setEmail("other@wyx.example");
+    mailed.setTelephoneNumber("+4477001144");
+    mailed.setPostalAddress("3 Index Row, Gramtown, GT 33333");
+    restTemplate.postForEntity("/api/contact", mailed, Contact.class);
+
+    // Too short for the trigram index, so only names are searched.
+    ResponseEntity<String> response =
+        restTemplate.getForEntity(
+            "/api/contact/search?searchKeyword={keyword}", String.class, "WY");
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    List<String> names = JsonPath.read(response.getBody(), "$.content[*].name");
+    assertThat(names).isEqualTo(List.of("Wyx Tern"));
+  }
+
+  @Test
+  public void testImportContactsFromNdjson() {
+    String body =
+        "{\"name\":\"Import One\",\"email\":\"one@import.example\","
+            + "\"telephoneNumber\":\"+1000000001\",\"postalAddress\":\"1 Import St\"}\n"
+            + "{\"name\":\"Import Two\",\"email\":\"not-an-email\","
+            + "\"telephoneNumber\":\"+1000000002\",\"postalAddress\":\"2 Import St\"}\n"
+            + "{not json\n"
+            + "{\"name\":\"Import Three\",\"email\":\"three@import.example\","
+            + "\"telephoneNumber\":\"+1000000003\",\"postalAddress\":\"3 Import St\"}\n";
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+    ResponseEntity<String> response =
+        restTemplate.postForEntity(
+            "/api/contact/import", new HttpEntity<>(body, headers), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat((Integer) JsonPath.parse(response.getBody()).read("$.imported")).isEqualTo(2);
+    assertThat((Integer) JsonPath.parse(response.getBody()).read("$.rejected")).isEqualTo(2);
+    List<Integer> lines = JsonPath.parse(response.getBody()).read("$.errors[*].line");
+    assertThat(lines).isEqualTo(List.of(2, 3));
+
+    ResponseEntity<String> search =
+        restTemplate.getForEntity(
+            "/api/contact/search?searchKeyword={keyword}", String.class, "Import Three");
+    assertThat(search.getBody()).contains("three@import.example");
+  }
+
+  @Test
+  public void testImportContactsFromCsv() {
+    String body =
+        "name,email,telephone_number,postal_address\n"
+            + "Csv Person,csv.person@import.example,+1000000004,\"4 Csv St, Comma Town\"\n";
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+    ResponseEntity<String> response =
+        restTemplate.postForEntity(
+            "/api/contact/import", new HttpEntity<>(body, headers), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat((Integer) JsonPath.parse(response.getBody()).read("$.imported")).isEqualTo(1);
+    assertThat((Integer) JsonPath.parse(response.getBody()).read("$.rejected")).isEqualTo(0);
+  }
+
+  @Test
+  public void testExportContacts() {
+    ResponseEntity<String> ndjson =
+        restTemplate.getForEntity("/api/contact/export", String.class);
+    ResponseEntity<String> csv =
+        restTemplate.getForEntity(
+            "/api/contact/export?format=csv&searchKeyword={keyword}", String.class, "Smith");
+
+    assertThat(ndjson.getStatusCode()).isEqualTo(HttpStatus.OK);
+    String[] lines = ndjson.getBody().trim().split("\n");
+    assertThat(lines.length).isGreaterThanOrEqualTo(20);
+    assertThat((String) JsonPath.parse(lines[0]).read("$.name")).isEqualTo("John Doe");
+
+    assertThat(csv.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(csv.getBody())
+        .startsWith("id,name,email,address,telephone_number,postal_address\n")
+        .contains("Jane Smith");
+    assertThat(csv.getBody()).doesNotContain("John Doe");
+  }
+
+  @Test
+  public void testCsvExportKeepsLineBreaksAndImportsThemBack() {
+    Contact contact = new Contact();
+    contact.setName("Multiline Quinby");
+    contact.setEmail("multiline.quinby@example.com");
+    contact.setTelephoneNumber("+1555000222");
+    contact.setPostalAddress("1 Quote \"Lane\"\nSecond Floor");
+    restTemplate.postForEntity("/api/contact", contact, Contact.class);
+
+    ResponseEntity<String> csv =
+        restTemplate.getForEntity(
+            "/api/contact/export?format=csv&searchKeyword={keyword}", String.class, "Quinby");
+    assertThat(csv.getBody()).contains("\"1 Quote \"\"Lane\"\"\nSecond Floor\"");
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType("text/csv"));
+    ResponseEntity<String> report =
+        restTemplate.postForEntity(
+            "/api/contact/import",
+            new HttpEntity<>(csv.getBody().replace("Quinby", "Quinby Copy"), headers),
+            String.class);
+    assertThat((Integer) JsonPath.parse(report.getBody()).read("$.imported")).isEqualTo(1);
+
+    ResponseEntity<String> search =
+        restTemplate.getForEntity(
+            "/api/contact/search?searchKeyword={keyword}", String.class, "Quinby Copy");
+    List<String> addresses = JsonPath.parse(search.getBody()).read("$.content[*].postalAddress");
+    assertThat(addresses).isEqualTo(List.of("1 Quote \"Lane\"\nSecond Floor"));
+  }
+
+  @Test
+  public void testGetContactByIdIsCachedAndInvalidatedOnUpdate() {
+    Contact contact = new Contact();
+    contact.setName("Cache Me");
+    contact.setEmail("cache.me@example.com");
+    contact.setTelephoneNumber("+1555000111");
+    contact.setPostalAddress("1 Cache Lane");
+    Long id = restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+
+    restTemplate.getForEntity("/api/contact/" + id, Contact.class);
+    restTemplate.getForEntity("/api/contact/" + id, Contact.class);
+    ResponseEntity<String> stats =
+        restTemplate.getForEntity("/api/contact/cache/stats", String.class);
+    assertThat((Integer) JsonPath.parse(stats.getBody()).read("$.hits")).isGreaterThanOrEqualTo(1);
+
+    contact.setName("Cache Me Updated");
+    restTemplate.put("/api/contact/" + id, contact);
+
+    ResponseEntity<Contact> afterUpdate =
+        restTemplate.getForEntity("/api/contact/" + id, Contact.class);
+    assertThat(afterUpdate.getBody().getName()).isEqualTo("Cache Me Updated");
+  }
+
+  @Test
+  public void testConditionalRequestsWithETags() {
+    Contact contact = new Contact();
+    contact.setName("Etag Person");
+    contact.setEmail("etag.person@example.com");
+    contact.setTelephoneNumber("+1555000222");
+    contact.setPostalAddress("2 Version Way");
+    Long id = restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+
+    ResponseEntity<Contact> first = restTemplate.getForEntity("/api/contact/" + id, Contact.class);
+    String etag = first.getHeaders().getETag();
+    assertThat(etag).isNotNull();
+
+    HttpHeaders conditional = new HttpHeaders();
+    conditional.setIfNoneMatch(etag);
+    ResponseEntity<String> notModified =
+        restTemplate.exchange(
+            "/api/contact/" + id, HttpMethod.GET, new HttpEntity<>(conditional), String.class);
+    assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(notModified.getBody()).isNull();
+
+    HttpHeaders ifMatch = new HttpHeaders();
+    ifMatch.setIfMatch(etag);
+    contact.setName("Etag Person Updated");
+    ResponseEntity<Contact> updated =
+        restTemplate.exchange(
+            "/api/contact/" + id, HttpMethod.PUT, new HttpEntity<>(contact, ifMatch), Contact.class);
+    assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(updated.getHeaders().getETag()).isNotEqualTo(etag);
+
+    ResponseEntity<Contact> staleUpdate =
+        restTemplate.exchange(
+            "/api/contact/" + id, HttpMethod.PUT, new HttpEntity<>(contact, ifMatch), Contact.class);
+    assertThat(staleUpdate.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+    ResponseEntity<String> page = restTemplate.getForEntity("/api/contact", String.class);
+    HttpHeaders pageConditional = new HttpHeaders();
+    pageConditional.setIfNoneMatch(page.getHeaders().getETag());
+    ResponseEntity<String> pageNotModified =
+        restTemplate.exchange(
+            "/api/contact", HttpMethod.GET, new HttpEntity<>(pageConditional), String.class);
+    assertThat(pageNotModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+  }
+
+  @Test
+  public void testPrometheusMetricsAreExposed() {
+    restTemplate.getForEntity("/api/contact/search?searchKeyword={keyword}", String.class, "Doe");
+
+    ResponseEntity<String> response =
+        restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody())
+        .contains(
+            "http_server_requests_seconds",
+            "contact_service_seconds",
+            "hikaricp_connections",
+            "hibernate_",
+            "jvm_gc_memory_allocated_bytes_total",
+            "cache_gets_total");
+  }
+
+  @Test
+  public void testAccessLogAlwaysRecordsFailedRequests() throws InterruptedException {
+    long before = accessLog.recorded();
+
+    ResponseEntity<String> response =
+        restTemplate.getForEntity("/api/contact/999999999", String.class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+    // The event is enqueued when the filter unwinds, which may be just after the client returns.
+    long deadline = System.currentTimeMillis() + 5000;
+    while (accessLog.recorded() == before && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(accessLog.recorded()).isGreaterThan(before);
+  }
+
+  @Test
+  public void testPostWithIdUpdatesTheContact() {
+    Contact contact = new Contact();
+    contact.setName("Posty Update");
+    contact.setEmail("posty.update@example.com");
+    contact.setTelephoneNumber("+1555000666");
+    contact.setPostalAddress("PO Box 6, Postville");
+    Contact created = restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody();
+    assertThat(created).isNotNull();
+    long estimate = estimatedTotal();
+    long position =
+        JsonPath.parse(restTemplate.getForObject("/api/contact/changes", String.class))
+            .read("$.next", Long.class);
+
+    created.setName("Posty Updated");
+    ResponseEntity<Contact> updated =
+        restTemplate.postForEntity("/api/contact", created, Contact.class);
+    assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(updated.getBody().getId()).isEqualTo(created.getId());
+    assertThat(updated.getBody().getName()).isEqualTo("Posty Updated");
+    assertThat(updated.getBody().getVersion()).isEqualTo(created.getVersion() + 1);
+    assertThat(estimatedTotal()).isEqualTo(estimate);
+
+    String changes =
+        restTemplate.getForObject("/api/contact/changes?since=" + position, String.class);
+    List<String> types = JsonPath.read(changes, "$.changes[*].type");
+    assertThat(types).isEqualTo(List.of("UPDATED"));
+
+    created.setId(999999999L);
+    ResponseEntity<String> missing =
+        restTemplate.postForEntity("/api/contact", created, String.class);
+    assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  @Test
+  public void testPatchContactUpdatesOnlyGivenFields() {
+    Contact contact = new Contact();
+    contact.setName("Patty Patch");
+    contact.setEmail("patty.patch@example.com");
+    contact.setAddress("1 Old Road");
+    contact.setTelephoneNumber("+1555000111");
+    contact.setPostalAddress("PO Box 1, Patchville");
+    Contact created = restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody();
+    assertThat(created).isNotNull();
+    String url = "/api/contact/" + created.getId();
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    ResponseEntity<Void> patched =
+        restTemplate.exchange(
+            url,
+            HttpMethod.PATCH,
+            new HttpEntity<>("{\"address\":\"2 New Road\"}", headers),
+            Void.class);
+    assertThat(patched.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+    Contact reloaded = restTemplate.getForEntity(url, Contact.class).getBody();
+    assertThat(reloaded).isNotNull();
+    assertThat(reloaded.getAddress()).isEqualTo("2 New Road");
+    assertThat(reloaded.getName()).isEqualTo("Patty Patch");
+    assertThat(reloaded.getVersion()).isEqualTo(created.getVersion() + 1);
+
+    String search =
+        restTemplate.getForObject("/api/contact/search?searchKeyword=new road", String.class);
+    List<Integer> ids = JsonPath.parse(search).read("$.content[*].id");
+    assertThat(ids.contains(created.getId().intValue())).isTrue();
+
+    ResponseEntity<Void> missing =
+        restTemplate.exchange(
+            "/api/contact/999999999",
+            HttpMethod.PATCH,
+            new HttpEntity<>("{\"name\":\"Nobody\"}", headers),
+            Void.class);
+    assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+    HttpHeaders staleHeaders = new HttpHeaders();
+    staleHeaders.setContentType(MediaType.APPLICATION_JSON);
+    staleHeaders.setIfMatch("\"" + created.getId() + "-" + created.getVersion() + "\"");
+    ResponseEntity<Void> stale =
+        restTemplate.exchange(
+            url,
+            HttpMethod.PATCH,
+            new HttpEntity<>("{\"name\":\"Stale Write\"}", staleHeaders),
+            Void.class);
+    assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+  }
+
+  @Test
+  public void testMergePatchRemovesFieldsSetToNull() {
+    Contact contact = new Contact();
+    contact.setName("Morgan Merge");
+    contact.setEmail("morgan.merge@example.com");
+    contact.setAddress("7 Quarry Lane");
+    contact.setTelephoneNumber("+1555000333");
+    contact.setPostalAddress("PO Box 3, Mergeton");
+    Contact created = restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody();
+    assertThat(created).isNotNull();
+    String url = "/api/contact/" + created.getId();
+
+    HttpHeaders json = new HttpHeaders();
+    json.setContentType(MediaType.APPLICATION_JSON);
+    ResponseEntity<Void> kept =
+        restTemplate.exchange(
+            url,
+            HttpMethod.PATCH,
+            new HttpEntity<>("{\"address\":null,\"name\":\"Morgan Kept\"}", json),
+            Void.class);
+    assertThat(kept.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    assertThat(restTemplate.getForObject(url, Contact.class).getAddress())
+        .isEqualTo("7 Quarry Lane");
+
+    HttpHeaders mergePatch = new HttpHeaders();
+    mergePatch.setContentType(MediaType.parseMediaType("application/merge-patch+json"));
+    ResponseEntity<Void> removed =
+        restTemplate.exchange(
+            url,
+            HttpMethod.PATCH,
+            new HttpEntity<>("{\"address\":null,\"name\":\"Morgan Merged\"}", mergePatch),
+            Void.class);
+    assertThat(removed.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    Contact reloaded = restTemplate.getForObject(url, Contact.class);
+    assertThat(reloaded.getAddress()).isNull();
+    assertThat(reloaded.getName()).isEqualTo("Morgan Merged");
+    assertThat(reloaded.getEmail()).isEqualTo("morgan.merge@example.com");
+
+    String search =
+        restTemplate.getForObject("/api/contact/search?searchKeyword=quarry lane", String.class);
+    List<Integer> ids = JsonPath.parse(search).read("$.content[*].id");
+    assertThat(ids.contains(created.getId().intValue())).isFalse();
+
+    ResponseEntity<String> required =
+        restTemplate.exchange(
+            url, HttpMethod.PATCH, new HttpEntity<>("{\"name\":null}", mergePatch), String.class);
+    assertThat(required.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    ResponseEntity<String> invalid =
+        restTemplate.exchange(
+            url,
+            HttpMethod.PATCH,
+            new HttpEntity<>("{\"email\":\"not-an-email\"}", mergePatch),
+            String.class);
+    assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    assertThat(restTemplate.getForObject(url, Contact.class).getName()).isEqualTo("Morgan Merged");
+  }
+
+  @Test
+  public void testPatchWithIfMatchAnyRequiresAnExistingContact() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.setIfMatch("*");
+    ResponseEntity<Void> missing =
+        restTemplate.exchange(
+            "/api/contact/999999999",
+            HttpMethod.PATCH,
+            new HttpEntity<>("{\"name\":\"Nobody\"}", headers),
+            Void.class);
+    assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+    Contact contact = new Contact();
+    contact.setName("Avery Any");
+    contact.setEmail("avery.any@example.com");
+    contact.setTelephoneNumber("+1555000444");
+    contact.setPostalAddress("PO Box 4, Anytown");
+    Contact created = restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody();
+    assertThat(created).isNotNull();
+    ResponseEntity<Void> existing =
+        restTemplate.exchange(
+            "/api/contact/" + created.getId(),
+            HttpMethod.PATCH,
+            new HttpEntity<>("{\"name\":\"Avery Anyone\"}", headers),
+            Void.class);
+    assertThat(existing.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+  }
+
+  @Test
+  public void testBulkDeleteContactsByIds() {
+    Contact contact = new Contact();
+    contact.setName("Bulk Delete");
+    contact.setEmail("bulk.delete@example.com");
+    contact.setTelephoneNumber("+1555000222");
+    contact.setPostalAddress("PO Box 2, Deleteville");
+    Long first =
+        restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+    Long second =
+        restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+
+    long position =
+        JsonPath.parse(restTemplate.getForObject("/api/contact/changes", String.class))
+            .read("$.next", Long.class);
+
+    Map<String, Object> request = new HashMap<>();
+    request.put("ids", List.of(first, 999999998L, second, 999999999L));
+    ResponseEntity<String> response =
+        restTemplate.postForEntity("/api/contact/delete", request, String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(JsonPath.parse(response.getBody()).read("$.requested", Integer.class)).isEqualTo(4);
+    assertThat(JsonPath.parse(response.getBody()).read("$.deleted", Integer.class)).isEqualTo(2);
+    assertThat(restTemplate.getForEntity("/api/contact/" + first, String.class).getStatusCode())
+        .isEqualTo(HttpStatus.NOT_FOUND);
+
+    // Only the contacts that existed show up as deleted in the change feed.
+    String changes =
+        restTemplate.getForObject("/api/contact/changes?since=" + position, String.class);
+    List<String> types = JsonPath.read(changes, "$.changes[*].type");
+    assertThat(types).isEqualTo(List.of("DELETED", "DELETED"));
+    List<Number> deletedIds = JsonPath.read(changes, "$.changes[*].id");
+    assertThat(deletedIds.stream().map(Number::longValue).toList())
+        .isEqualTo(List.of(first, second));
+
+    ResponseEntity<Void> missing =
+        restTemplate.exchange("/api/contact/" + second, HttpMethod.DELETE, null, Void.class);
+    assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  @Test
+  public void testBulkDeleteByKeywordRemovesNameMatchesOnly() {
+    Contact contact = new Contact();
+    contact.setName("Zebulon Keyword");
+    contact.setEmail("zebulon.keyword@example.com");
+    contact.setTelephoneNumber("+1555000555");
+    contact.setPostalAddress("PO Box 5, Keywordville");
+    Long first =
+        restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+    contact.setName("ZEBULON Keyword Junior");
+    Long second =
+        restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+    // Matches the keyword in every field but the name, so a search finds it but a delete must not.
+    contact.setName("Someone Else");
+    contact.setAddress("1 Zebulon Road");
+    Long other =
+        restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+    String search =
+        restTemplate.getForObject("/api/contact/search?searchKeyword=zebulon", String.class);
+    List<Integer> found = JsonPath.read(search, "$.content[*].id");
+    assertThat(found.contains(other.intValue())).isTrue();
+
+    ResponseEntity<String> response =
+        restTemplate.postForEntity(
+            "/api/contact/delete", Map.of("searchKeyword", " zebulon "), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(JsonPath.parse(response.getBody()).read("$.requested", Integer.class)).isEqualTo(2);
+    assertThat(JsonPath.parse(response.getBody()).read("$.deleted", Integer.class)).isEqualTo(2);
+    for (Long id : List.of(first, second)) {
+      assertThat(restTemplate.getForEntity("/api/contact/" + id, String.class).getStatusCode())
+          .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+    assertThat(restTemplate.getForEntity("/api/contact/" + other, String.class).getStatusCode())
+        .isEqualTo(HttpStatus.OK);
+
+    // Keywords too short for the search index select by the same rule.
+    ResponseEntity<String> shortKeyword =
+        restTemplate.postForEntity(
+            "/api/contact/delete", Map.of("searchKeyword", "eb"), String.class);
+    assertThat(JsonPath.parse(shortKeyword.getBody()).read("$.deleted", Integer.class))
+        .isEqualTo(0);
+    assertThat(restTemplate.getForEntity("/api/contact/" + other, String.class).getStatusCode())
+        .isEqualTo(HttpStatus.OK);
+  }
+
+  @Test
+  public void testGetContactsByIdsPreservesOrderAndReportsMissing() {
+    Contact contact = new Contact();
+    contact.setName("Batch Lookup");
+    contact.setEmail("batch.lookup@example.com");
+    contact.setTelephoneNumber("+1555000333");
+    contact.setPostalAddress("PO Box 3, Batchville");
+    Long first =
+        restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+    Long second =
+        restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody().getId();
+    // Warm the cache for one of them, so the batch mixes cached and loaded contacts.
+    restTemplate.getForEntity("/api/contact/" + first, Contact.class);
+
+    ResponseEntity<String> response =
+        restTemplate.getForEntity(
+            "/api/contact/batch?ids=" + second + ",999999999," + first, String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    List<Integer> ids = JsonPath.parse(response.getBody()).read("$.contacts[*].id");
+    assertThat(ids).isEqualTo(List.of(second.intValue(), first.intValue()));
+    List<Integer> missing = JsonPath.parse(response.getBody()).read("$.missing");
+    assertThat(missing).isEqualTo(List.of(999999999));
+
+    ResponseEntity<String> posted =
+        restTemplate.postForEntity("/api/contact/batch", List.of(first), String.class);
+    assertThat(posted.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(JsonPath.parse(posted.getBody()).read("$.contacts[0].id", Long.class))
+        .isEqualTo(first);
+  }
+
+  @Test
+  public void testListContactsWithoutExactCount() {
+    ResponseEntity<String> slice =
+        restTemplate.getForEntity("/api/contact?size=5&count=none", String.class);
+    assertThat(slice.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(JsonPath.parse(slice.getBody()).read("$.hasNext", Boolean.class)).isTrue();
+    List<?> content = JsonPath.parse(slice.getBody()).read("$.content");
+    assertThat(content.size()).isEqualTo(5);
+    assertThat(slice.getBody()).doesNotContain("totalElements");
+
+    ResponseEntity<String> estimated =
+        restTemplate.getForEntity("/api/contact?size=5&count=estimate", String.class);
+    assertThat(estimated.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(JsonPath.parse(estimated.getBody()).read("$.page.totalElements", Integer.class))
+        .isGreaterThanOrEqualTo(20);
+
+    ResponseEntity<String> invalid =
+        restTemplate.getForEntity("/api/contact?count=sometimes", String.class);
+    assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  public void testLastPageReportsTheExactTotalOverAStaleEstimate() {
+    long exact =
+        JsonPath.parse(restTemplate.getForObject("/api/contact?size=1", String.class))
+            .read("$.page.totalElements", Long.class);
+    Contact unseen = new Contact();
+    unseen.setId(Long.MAX_VALUE);
+    countTracker.onContactChanged(ContactChangedEvent.created(unseen));
+    assertThat(estimatedTotal()).isEqualTo(exact + 1);
+
+    String lastPage =
+        restTemplate.getForObject(
+            "/api/contact?page={page}&size=1&count=estimate", String.class, exact - 1);
+    assertThat(JsonPath.parse(lastPage).read("$.page.totalElements", Long.class))
+        .isEqualTo(exact);
+  }
+
+  @Test
+  public void testSparseFieldsets() {
+    ResponseEntity<String> list =
+        restTemplate.getForEntity("/api/contact?size=3&fields=id,name", String.class);
+    assertThat(list.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Map<String, Object> first = JsonPath.parse(list.getBody()).read("$.content[0]");
+    assertThat(first.keySet()).isEqualTo(Set.of("id", "name"));
+    assertThat(JsonPath.parse(list.getBody()).read("$.page.totalElements", Integer.class))
+        .isGreaterThanOrEqualTo(20);
+
+    ResponseEntity<String> search =
+        restTemplate.getForEntity(
+            "/api/contact/search?searchKeyword=john&fields=email&count=none", String.class);
+    assertThat(search.getStatusCode()).isEqualTo(HttpStatus.OK);
+    List<Map<String, Object>> matches = JsonPath.parse(search.getBody()).read("$.content");
+    assertThat(matches.isEmpty()).isFalse();
+    for (Map<String, Object> match : matches) {
+      assertThat(match.keySet()).isEqualTo(Set.of("email"));
+    }
+
+    ResponseEntity<String> invalid =
+        restTemplate.getForEntity("/api/contact?fields=id,secret", String.class);
+    assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  public void testLookupByNormalizedEmailAndPhone() {
+    Contact contact = new Contact();
+    contact.setName("Lookup Person");
+    contact.setEmail("Lookup.Person@Example.com");
+    contact.setTelephoneNumber("+1 212 555 0199");
+    contact.setPostalAddress("P.O. Box 199");
+    assertThat(restTemplate.postForEntity("/api/contact", contact, Contact.class).getStatusCode())
+        .isEqualTo(HttpStatus.OK);
+
+    ResponseEntity<Contact[]> byEmail =
+        restTemplate.getForEntity(
+            "/api/contact/lookup?email= lookup.person@EXAMPLE.com", Contact[].class);
+    assertThat(byEmail.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(byEmail.getBody()).extracting(Contact::getName).containsExactly("Lookup Person");
+
+    ResponseEntity<Contact[]> byPhone =
+        restTemplate.getForEntity("/api/contact/lookup?phone=212.555.0199", Contact[].class);
+    assertThat(byPhone.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(byPhone.getBody()).extracting(Contact::getName).containsExactly("Lookup Person");
+
+    ResponseEntity<String> exists =
+        restTemplate.getForEntity(
+            "/api/contact/email-exists?email=LOOKUP.person@example.com", String.class);
+    assertThat(JsonPath.parse(exists.getBody()).read("$.exists", Boolean.class)).isTrue();
+    ResponseEntity<String> unknown =
+        restTemplate.getForEntity(
+            "/api/contact/email-exists?email=nobody.here@example.com", String.class);
+    assertThat(JsonPath.parse(unknown.getBody()).read("$.exists", Boolean.class)).isFalse();
+
+    ResponseEntity<String> ambiguous =
+        restTemplate.getForEntity("/api/contact/lookup?email=a@b.c&phone=123", String.class);
+    assertThat(ambiguous.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  public void testChangeFeedReturnsChangesSinceCursor() {
+    ResponseEntity<String> start = restTemplate.getForEntity("/api/contact/changes", String.class);
+    assertThat(start.getStatusCode()).isEqualTo(HttpStatus.OK);
+    long since = JsonPath.parse(start.getBody()).read("$.next", Long.class);
+
+    Contact contact = new Contact();
+    contact.setName("Feed Person");
+    contact.setEmail("feed.person@example.com");
+    contact.setTelephoneNumber("+1555000111");
+    contact.setPostalAddress("P.O. Box 111");
+    Contact created = restTemplate.postForEntity("/api/contact", contact, Contact.class).getBody();
+    created.setName("Feed Person Renamed");
+    restTemplate.put("/api/contact/" + created.getId(), created);
+    restTemplate.delete("/api/contact/" + created.getId());
+
+    ResponseEntity<String> changes =
+        restTemplate.getForEntity("/api/contact/changes?since=" + since, String.class);
+    assertThat(changes.getStatusCode()).isEqualTo(HttpStatus.OK);
+    List<String> types = JsonPath.parse(changes.getBody()).read("$.changes[*].type");
+    assertThat(types).isEqualTo(List.of("CREATED", "UPDATED", "DELETED"));
+    assertThat(JsonPath.parse(changes.getBody()).read("$.changes[1].contact.name", String.class))
+        .isEqualTo("Feed Person Renamed");
+    assertThat(JsonPath.parse(changes.getBody()).read("$.next", Long.class)).isEqualTo(since + 3);
+
+    ResponseEntity<String> caughtUp =
+        restTemplate.getForEntity("/api/contact/changes?since=" + (since + 3), String.class);
+    assertThat(JsonPath.parse(caughtUp.getBody()).read("$.changes", List.class).isEmpty()).isTrue();
+
+    ResponseEntity<String> stale =
+        restTemplate.getForEntity("/api/contact/changes?since=0", String.class);
+    assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.GONE);
+    assertThat(JsonPath.parse(stale.getBody()).read("$.resyncRequired", Boolean.class)).isTrue();
+  }
+
+  @Test
+  public void testSyncTakesPositionBeforeFullLoadAndReplaysFromIt() {
+    long position =
+        JsonPath.parse(restTemplate.getForObject("/api/contact/changes", String.class))
+            .read("$.next", Long.class);
+
+    // A write that lands while the client is still loading.
+    Contact during = new Contact();
+    during.setName("During Load");
+    during.setEmail("during.load@example.com");
+    during.setTelephoneNumber("+1555000131");
+    during.setPostalAddress("P.O. Box 131");
+    Contact written = restTemplate.postForObject("/api/contact", during, Contact.class);
+
+    String load = restTemplate.getForObject("/api/contact?size=100", String.class);
+    List<Number> loadedIds = JsonPath.read(load, "$.content[*].id");
+    assertThat(loadedIds.stream().anyMatch(id -> id.longValue() == written.getId())).isTrue();
+
+    Contact after = new Contact();
+    after.setName("After Load");
+    after.setEmail("after.load@example.com");
+    after.setTelephoneNumber("+1555000132");
+    after.setPostalAddress("P.O. Box 132");
+    Contact later = restTemplate.postForObject("/api/contact", after, Contact.class);
+
+    String replay =
+        restTemplate.getForObject("/api/contact/changes?since=" + position, String.class);
+    List<Number> replayedIds = JsonPath.read(replay, "$.changes[*].id");
+    assertThat(replayedIds.stream().map(Number::longValue).toList())
+        .isEqualTo(List.of(written.getId(), later.getId()));
+  }
+
+  @Test
+  public void testChangeStreamReplaysFromLastEventIdAndPushesNewChanges() throws Exception {
+    long position =
+        JsonPath.parse(restTemplate.getForObject("/api/contact/changes", String.class))
+            .read("$.next", Long.class);
+    Contact contact = new Contact();
+    contact.setName("Stream Person");
+    contact.setEmail("stream.person@example.com");
+    contact.setTelephoneNumber("+1555000141");
+    contact.setPostalAddress("P.O. Box 141");
+    Contact created = restTemplate.postForObject("/api/contact", contact, Contact.class);
+
+    HttpClient client = HttpClient.newHttpClient();
+    URI stream = URI.create(restTemplate.getRootUri() + "/api/contact/changes/stream");
+    HttpRequest subscribe =
+        HttpRequest.newBuilder(stream)
+            .header("Accept", "text/event-stream")
+            .header("Last-Event-ID", Long.toString(position))
+            .build();
+    HttpResponse<Stream<String>> response =
+        client.send(subscribe, HttpResponse.BodyHandlers.ofLines());
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValue("Content-Type").orElse(""))
+        .startsWith("text/event-stream");
+    try (Stream<String> lines = response.body()) {
+      Iterator<String> events = lines.iterator();
+      Map<String, String> replayed = nextEvent(events);
+      assertThat(replayed.get("id")).isEqualTo(Long.toString(position + 1));
+      assertThat(JsonPath.parse(replayed.get("data")).read("$.type", String.class))
+          .isEqualTo("CREATED");
+      assertThat(JsonPath.parse(replayed.get("data")).read("$.contact.name", String.class))
+          .isEqualTo("Stream Person");
+
+      restTemplate.delete("/api/contact/" + created.getId());
+      Map<String, String> pushed = nextEvent(events);
+      assertThat(pushed.get("id")).isEqualTo(Long.toString(position + 2));
+      assertThat(JsonPath.parse(pushed.get("data")).read("$.type", String.class))
+          .isEqualTo("DELETED");
+    }
+
+    HttpRequest stale =
+        HttpRequest.newBuilder(URI.create(stream + "?since=0"))
+            .header("Accept", "text/event-stream")
+            .build();
+    try (Stream<String> lines = client.send(stale, HttpResponse.BodyHandlers.ofLines()).body()) {
+      Map<String, String> resync = nextEvent(lines.iterator());
+      assertThat(resync.get("event")).isEqualTo("resync");
+      assertThat(JsonPath.parse(resync.get("data")).read("$.resyncRequired", Boolean.class))
+          .isTrue();
+    }
+  }
+
+  /** Reads the next event, skipping heartbeat comments, as a map of field name to value. */
+  private static Map<String, String> nextEvent(Iterator<String> lines) throws Exception {
+    return CompletableFuture.supplyAsync(
+            () -> {
+              Map<String, String> event = new HashMap<>();
+              while (lines.hasNext()) {
+                String line = lines.next();
+                if (line.isEmpty() && event.containsKey("data")) {
+                  return event;
+                }
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                  event.merge(
+                      line.substring(0, colon), line.substring(colon + 1), (a, b) -> a + "\n" + b);
+                }
+              }
+              throw new IllegalStateException("Stream ended before the next event");
+            })
+        .get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testBinaryPayloadFormats() throws Exception {
+    HttpHeaders cbor = new HttpHeaders();
+    cbor.setAccept(List.of(MediaType.parseMediaType("application/cbor")));
+    cbor.setContentType(MediaType.parseMediaType("application/cbor"));
+    ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    Contact contact = new Contact();
+    contact.setName("Binary Person");
+    contact.setEmail("binary.person@example.com");
+    contact.setTelephoneNumber("+1555000222");
+    contact.setPostalAddress("P.O. Box 222");
+    ResponseEntity<byte[]> created =
+        restTemplate.exchange(
+            "/api/contact",
+            HttpMethod.POST,
+            new HttpEntity<>(cborMapper.writeValueAsBytes(contact), cbor),
+            byte[].class);
+    assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(created.getHeaders().getContentType().toString()).startsWith("application/cbor");
+    assertThat(cborMapper.readValue(created.getBody(), Contact.class).getName())
+        .isEqualTo("Binary Person");
+
+    HttpHeaders protobuf = new HttpHeaders();
+    protobuf.setAccept(List.of(ContactProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+    ResponseEntity<byte[]> page =
+        restTemplate.exchange(
+            "/api/contact?size=5", HttpMethod.GET, new HttpEntity<>(protobuf), byte[].class);
+    assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+    ObjectMapper protobufMapper = new ObjectMapper(new ProtobufFactory());
+    Map<String, Object> decoded =
+        protobufMapper
+            .readerFor(Map.class)
+            .with(
+                new ContactProtobufHttpMessageConverter(protobufMapper)
+                    .schemaFor(PagedModel.class))
+            .readValue(page.getBody());
+    assertThat(((List<?>) decoded.get("content")).size()).isEqualTo(5);
+    assertThat(((Number) ((Map<?, ?>) decoded.get("page")).get("size")).intValue()).isEqualTo(5);
+
+    ResponseEntity<String> json = restTemplate.getForEntity("/api/contact?size=5", String.class);
+    assertThat(json.getHeaders().getContentType().toString()).startsWith("application/json");
+  }
+
+  @Test
+  public void testAdmissionControlRateLimitsFloodingClient() {
+    HttpHeaders flooding = new HttpHeaders();
+    flooding.set("X-Client-Id", "batch-job");
+    ResponseEntity<String> response = null;
+    for (int i = 0; i < 2000; i++) {
+      response =
+          restTemplate.exchange(
+              "/api/contact/search?searchKeyword=son",
+              HttpMethod.GET,
+              new HttpEntity<>(flooding),
+              String.class);
+      if (response.getStatusCode() != HttpStatus.OK) {
+        break;
+      }
+    }
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+    HttpHeaders other = new HttpHeaders();
+    other.set("X-Client-Id", "mobile-app");
+    ResponseEntity<String> unaffected =
+        restTemplate.exchange(
+            "/api/contact/search?searchKeyword=son",
+            HttpMethod.GET,
+            new HttpEntity<>(other),
+            String.class);
+    assertThat(unaffected.getStatusCode()).isEqualTo(HttpStatus.OK);
+  }
+
+  @Test
+  public void testCacheHitsCheckOutNoConnection() {
+    Contact contact = new Contact();
+    contact.setName("Dorothy Vaughan");
+    contact.setEmail("dorothy.vaughan@example.com");
+    contact.setTelephoneNumber("+1757555014");
+    contact.setPostalAddress("2 NASA Drive, Hampton, VA 23666");
+    Contact created = restTemplate.postForObject("/api/contact", contact, Contact.class);
+    ResponseEntity<Contact> first =
+        restTemplate.getForEntity("/api/contact/" + created.getId(), Contact.class);
+    assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    double checkouts = connectionCheckouts();
+    for (int i = 0; i < 5; i++) {
+      ResponseEntity<Contact> hit =
+          restTemplate.getForEntity("/api/contact/" + created.getId(), Contact.class);
+      assertThat(hit.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+    HttpHeaders conditional = new HttpHeaders();
+    conditional.setIfNoneMatch(first.getHeaders().getETag());
+    ResponseEntity<Contact> notModified =
+        restTemplate.exchange(
+            "/api/contact/" + created.getId(),
+            HttpMethod.GET,
+            new HttpEntity<>(conditional),
+            Contact.class);
+    assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(connectionCheckouts()).isEqualTo(checkouts);
+  }
+
+  /** Returns how many times a connection was taken from the pool so far. */
+  private double connectionCheckouts() {
+    String usage =
+        restTemplate.getForObject("/actuator/metrics/hikaricp.connections.usage", String.class);
+    List<Number> counts = JsonPath.read(usage, "$.measurements[?(@.statistic == 'COUNT')].value");
+    return counts.get(0).doubleValue();
+  }
+
+  /** Returns the total reported by the tracked contact count. */
+  private long estimatedTotal() {
+    String page = restTemplate.getForObject("/api/contact?size=1&count=estimate", String.class);
+    return JsonPath.parse(page).read("$.page.totalElements", Long.class);
+  }
 }
@@ -0,0 +1,59 @@
+package org.safetrust.managecontacts;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+/** Runs the API with a fixed database concurrency limit of two and a short queue wait. */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "contact.db-limiter.initial-limit=2",
+      "contact.db-limiter.min-limit=2",
+      "contact.db-limiter.max-limit=2",
+      "contact.db-limiter.max-wait=50ms"
+    })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class DatabaseLimiterIntegrationTest {
+  @Autowired private TestRestTemplate restTemplate;
+  @Autowired private DataSource dataSource;
+  @Autowired private DatabaseConcurrencyLimiter limiter;
+
+  @Test
+  public void testRequestsAreShedWhileAllConnectionSlotsAreHeld() throws Exception {
+    ResponseEntity<String> before = restTemplate.getForEntity("/api/contact?size=5", String.class);
+    assertThat(before.getStatusCode()).isEqualTo(HttpStatus.OK);
+    long rejected = limiter.rejected();
+
+    try (Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        Statement firstStatement = first.createStatement();
+        Statement secondStatement = second.createStatement()) {
+      firstStatement.execute("SELECT 1");
+      secondStatement.execute("SELECT 1");
+      assertThat(limiter.inFlight()).isEqualTo(2);
+
+      ResponseEntity<String> shed =
+          restTemplate.getForEntity("/api/contact?size=5&sort=name", String.class);
+      assertThat(shed.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+      assertThat(shed.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+      assertThat(limiter.rejected()).isEqualTo(rejected + 1);
+    }
+
+    assertThat(limiter.inFlight()).isEqualTo(0);
+    ResponseEntity<String> after =
+        restTemplate.getForEntity("/api/contact?size=5&sort=name", String.class);
+    assertThat(after.getStatusCode()).isEqualTo(HttpStatus.OK);
+  }
+}
@@ -0,0 +1,56 @@
+package org.safetrust.managecontacts;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import com.jayway.jsonpath.JsonPath;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+/** Runs imports in batches of two with duplicate emails rejected. */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"contact.import.batch-size=2", "contact.email.reject-duplicates=true"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ImportDuplicatesIntegrationTest {
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Test
+  public void testDuplicatesAreRejectedWithinAndAcrossBatches() {
+    String body =
+        row("Ada", "ada@import.example")
+            + row("Ada Again", "ADA@import.example")
+            + row("Bea", "bea@import.example")
+            + row("Ada Later", "ada@import.example")
+            + row("Cy", "cy@import.example")
+            + row("Cy Again", "cy@import.example");
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+    ResponseEntity<String> response =
+        restTemplate.postForEntity(
+            "/api/contact/import", new HttpEntity<>(body, headers), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat((Integer) JsonPath.parse(response.getBody()).read("$.imported")).isEqualTo(3);
+    assertThat((Integer) JsonPath.parse(response.getBody()).read("$.rejected")).isEqualTo(3);
+    List<Integer> lines = JsonPath.parse(response.getBody()).read("$.errors[*].line");
+    assertThat(lines).isEqualTo(List.of(2, 4, 6));
+  }
+
+  private static String row(String name, String email) {
+    return "{\"name\":\""
+        + name
+        + "\",\"email\":\""
+        + email
+        + "\",\"telephoneNumber\":\"+1000000009\",\"postalAddress\":\"9 Import St\"}\n";
+  }
+}
@@ -0,0 +1,88 @@
+package org.safetrust.managecontacts;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.concurrency.DatabaseConcurrencyLimiter;
+import org.safetrust.managecontacts.datasource.ReplicaRoutingDataSource;
+import org.safetrust.managecontacts.entity.Contact;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Runs the API with two read replicas: a second pool on the embedded primary database, standing in
+ * for an up-to-date replica, and an H2 server that is not running.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "contact.datasource.replica-urls="
+          + "jdbc:h2:mem:safetrust;DB_CLOSE_DELAY=-1,jdbc:h2:tcp://localhost:1/mem:replica",
+      "contact.datasource.replica-retry-interval=1h"
+    })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ReplicaRoutingIntegrationTest {
+  @Autowired private TestRestTemplate restTemplate;
+  @Autowired private ReplicaRoutingDataSource replicaRouting;
+  @Autowired private DatabaseConcurrencyLimiter limiter;
+
+  @Test
+  public void testReadsUseReplicasAndFallBackWhenOneIsDown() {
+    long replicaReads = replicaRouting.replicaConnections("replica-1");
+    for (int i = 0; i < 4; i++) {
+      ResponseEntity<String> response =
+          restTemplate.exchange(
+              "/api/contact?size=5", HttpMethod.GET, client("dashboard"), String.class);
+      assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    assertThat(replicaRouting.replicaConnections("replica-1")).isGreaterThan(replicaReads);
+    assertThat(replicaRouting.replicaConnections("replica-2")).isEqualTo(0L);
+    assertThat(replicaRouting.isAvailable("replica-1")).isTrue();
+    assertThat(replicaRouting.isAvailable("replica-2")).isFalse();
+  }
+
+  @Test
+  public void testClientReadsItsOwnWritesFromPrimary() {
+    Contact contact = new Contact();
+    contact.setName("Ada Lovelace");
+    contact.setEmail("ada.lovelace@example.com");
+    contact.setTelephoneNumber("+4420794600");
+    contact.setPostalAddress("12 St James's Square, London SW1Y 4JH");
+    ResponseEntity<Contact> created =
+        restTemplate.exchange(
+            "/api/contact", HttpMethod.POST, client("sync-job", contact), Contact.class);
+    assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    long primaryReads = replicaRouting.primaryConnections();
+    long limited = limiter.acquired();
+    ResponseEntity<String> lookup =
+        restTemplate.exchange(
+            "/api/contact/lookup?email=ada.lovelace@example.com",
+            HttpMethod.GET,
+            client("sync-job"),
+            String.class);
+    assertThat(lookup.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(lookup.getBody()).contains("Ada Lovelace");
+    assertThat(replicaRouting.primaryConnections()).isGreaterThan(primaryReads);
+    // Reads pinned to the primary take their connections through the limiter.
+    assertThat(limiter.acquired()).isGreaterThan(limited);
+  }
+
+  private static HttpEntity<Object> client(String clientId) {
+    return client(clientId, null);
+  }
+
+  private static HttpEntity<Object> client(String clientId, Object body) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set("X-Client-Id", clientId);
+    return new HttpEntity<>(body, headers);
+  }
+}
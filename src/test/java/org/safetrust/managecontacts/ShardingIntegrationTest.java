@@ -0,0 +1,157 @@
+package org.safetrust.managecontacts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.sharding.ShardContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+/** Runs the API on the four in-memory shards of the {@code sharded} profile. */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "contact.import.batch-size=2")
+@ActiveProfiles("sharded")
+@DirtiesContext
+public class ShardingIntegrationTest {
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Test
+  public void testContactsAreSpreadOverShardsAndQueriedAcrossThem() {
+    List<Long> ids = new ArrayList<>();
+    Set<Integer> shards = new HashSet<>();
+    for (int i = 0; i < 4; i++) {
+      Contact contact = new Contact();
+      contact.setName("Grace Shardwell " + i);
+      contact.setEmail("grace.shardwell" + i + "@example.com");
+      contact.setTelephoneNumber("+1555010000" + i);
+      contact.setPostalAddress(i + " Partition Road, Springfield");
+      ResponseEntity<Contact> created =
+          restTemplate.postForEntity("/api/contact", contact, Contact.class);
+      assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+      ids.add(created.getBody().getId());
+      shards.add(ShardContext.shardOf(created.getBody().getId()));
+    }
+    assertThat(shards).hasSize(4);
+
+    for (int i = 0; i < ids.size(); i++) {
+      ResponseEntity<Contact> found =
+          restTemplate.getForEntity("/api/contact/" + ids.get(i), Contact.class);
+      assertThat(found.getStatusCode()).isEqualTo(HttpStatus.OK);
+      assertThat(found.getBody().getName()).isEqualTo("Grace Shardwell " + i);
+    }
+
+    JsonNode search =
+        restTemplate.getForObject(
+            "/api/contact/search?searchKeyword=Shardwell&size=2", JsonNode.class);
+    assertThat(search.path("page").path("totalElements").asLong()).isEqualTo(4);
+    assertThat(search.path("content")).hasSize(2);
+
+    long total =
+        restTemplate
+            .getForObject("/api/contact?size=1", JsonNode.class)
+            .path("page")
+            .path("totalElements")
+            .asLong();
+    JsonNode all = restTemplate.getForObject("/api/contact?size=" + total, JsonNode.class);
+    List<Long> listed = new ArrayList<>();
+    all.path("content").forEach(row -> listed.add(row.path("id").asLong()));
+    assertThat(listed).hasSize((int) total).isSorted().containsAll(ids);
+  }
+
+  @Test
+  public void testDeepPagesAreRefusedAndScrollingReachesAllShards() {
+    for (String page : List.of("1001", "2147483647")) {
+      ResponseEntity<String> deep =
+          restTemplate.getForEntity("/api/contact?page=" + page + "&size=10", String.class);
+      assertThat(deep.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+    ResponseEntity<String> deepFields =
+        restTemplate.getForEntity("/api/contact?page=1001&size=10&fields=name", String.class);
+    assertThat(deepFields.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+    long total =
+        restTemplate
+            .getForObject("/api/contact?size=1", JsonNode.class)
+            .path("page")
+            .path("totalElements")
+            .asLong();
+    List<Long> scrolled = new ArrayList<>();
+    String cursor = null;
+    do {
+      JsonNode slice =
+          restTemplate.getForObject(
+              "/api/contact/scroll?size=7" + (cursor == null ? "" : "&after=" + cursor),
+              JsonNode.class);
+      slice.path("content").forEach(row -> scrolled.add(row.path("id").asLong()));
+      cursor = slice.path("next").isTextual() ? slice.path("next").asText() : null;
+    } while (cursor != null);
+    assertThat(scrolled).hasSize((int) total).isSorted();
+  }
+
+  @Test
+  public void testSparseFieldPagesFollowGlobalIdOrder() {
+    JsonNode all = restTemplate.getForObject("/api/contact?size=1000&fields=id", JsonNode.class);
+    List<Long> ids = new ArrayList<>();
+    all.path("content").forEach(row -> ids.add(row.path("id").asLong()));
+    assertThat(ids).isSorted();
+
+    JsonNode page =
+        restTemplate.getForObject("/api/contact?page=1&size=3&fields=name", JsonNode.class);
+    assertThat(page.path("content")).hasSize(3);
+    assertThat(page.path("content").get(0).has("id")).isFalse();
+    JsonNode withIds =
+        restTemplate.getForObject("/api/contact?page=1&size=3&fields=id,name", JsonNode.class);
+    for (int i = 0; i < 3; i++) {
+      assertThat(withIds.path("content").get(i).path("id").asLong()).isEqualTo(ids.get(3 + i));
+    }
+  }
+
+  @Test
+  public void testImportBatchesAreSpreadOverShards() {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < 4; i++) {
+      body.append("{\"name\":\"Ida Importwell ")
+          .append(i)
+          .append("\",\"email\":\"ida.importwell")
+          .append(i)
+          .append("@example.com\",\"telephoneNumber\":\"+1555020000")
+          .append(i)
+          .append("\",\"postalAddress\":\"")
+          .append(i)
+          .append(" Batch Road, Springfield\"}\n");
+    }
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+    JsonNode report =
+        restTemplate.postForObject(
+            "/api/contact/import", new HttpEntity<>(body.toString(), headers), JsonNode.class);
+    assertThat(report.path("imported").asLong()).isEqualTo(4);
+
+    JsonNode search =
+        restTemplate.getForObject(
+            "/api/contact/search?searchKeyword=Importwell&size=10", JsonNode.class);
+    List<Integer> shards = new ArrayList<>();
+    search
+        .path("content")
+        .forEach(row -> shards.add(ShardContext.shardOf(row.path("id").asLong())));
+    // Two batches of two: each batch stays on one shard, and the batches go to different shards.
+    assertThat(shards).hasSize(4);
+    assertThat(new HashSet<>(shards)).hasSize(2);
+  }
+}
@@ -0,0 +1,114 @@
+package org.safetrust.managecontacts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.entity.ContactKeys;
+import org.safetrust.managecontacts.snapshot.ContactSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/** Boots the {@code snapshot} profile from a snapshot written by the test. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("snapshot")
+@DirtiesContext
+public class SnapshotIntegrationTest {
+  private static final List<Contact> SNAPSHOT =
+      List.of(
+          contact(5L, 0L, "Ada Lovelace", "Ada.Lovelace@Example.com", "+44 20 7946 0001"),
+          contact(6L, 3L, "Charles Babbage", "charles.babbage@example.com", "(020) 7946-0002"),
+          contact(40L, 1L, "Mary Somerville", "mary.somerville@example.com", "020 7946 0003"));
+
+  @Autowired private TestRestTemplate restTemplate;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void snapshotLocation(DynamicPropertyRegistry registry) {
+    registry.add("contact.snapshot.location", () -> "file:" + writeSnapshot());
+  }
+
+  @Test
+  public void testSnapshotRestoresContactsIdsAndKeys() {
+    JsonNode all = restTemplate.getForObject("/api/contact?size=10&sort=id", JsonNode.class);
+    assertThat(all.path("page").path("totalElements").asLong()).isEqualTo(SNAPSHOT.size());
+    for (int i = 0; i < SNAPSHOT.size(); i++) {
+      assertThat(all.path("content").path(i).path("id").asLong())
+          .isEqualTo(SNAPSHOT.get(i).getId());
+    }
+
+    for (Contact expected : SNAPSHOT) {
+      Contact loaded =
+          restTemplate.getForObject("/api/contact/" + expected.getId(), Contact.class);
+      assertThat(loaded.getName()).isEqualTo(expected.getName());
+      assertThat(loaded.getEmail()).isEqualTo(expected.getEmail());
+      assertThat(loaded.getAddress()).isEqualTo(expected.getAddress());
+      assertThat(loaded.getTelephoneNumber()).isEqualTo(expected.getTelephoneNumber());
+      assertThat(loaded.getPostalAddress()).isEqualTo(expected.getPostalAddress());
+      assertThat(loaded.getVersion()).isEqualTo(expected.getVersion());
+
+      Map<String, Object> keys =
+          jdbcTemplate.queryForMap(
+              "SELECT email_key, phone_key FROM Contact WHERE id = ?", expected.getId());
+      assertThat(keys.get("EMAIL_KEY")).isEqualTo(ContactKeys.email(expected.getEmail()));
+      assertThat(keys.get("PHONE_KEY")).isEqualTo(ContactKeys.phone(expected.getTelephoneNumber()));
+    }
+
+    JsonNode byEmail =
+        restTemplate.getForObject(
+            "/api/contact/lookup?email=ada.lovelace@example.com", JsonNode.class);
+    assertThat(byEmail).hasSize(1);
+    assertThat(byEmail.path(0).path("id").asLong()).isEqualTo(5L);
+    JsonNode byPhone =
+        restTemplate.getForObject("/api/contact/lookup?phone=020-7946-0002", JsonNode.class);
+    assertThat(byPhone).hasSize(1);
+    assertThat(byPhone.path(0).path("id").asLong()).isEqualTo(6L);
+
+    Contact added = contact(null, null, "Grace Hopper", "grace.hopper@example.com", "555 0100");
+    ResponseEntity<Contact> created =
+        restTemplate.postForEntity("/api/contact", added, Contact.class);
+    assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(created.getBody().getId()).isGreaterThan(40L);
+  }
+
+  private static Contact contact(Long id, Long version, String name, String email, String phone) {
+    Contact contact = new Contact(id, name, email, null, phone, "1 Analytical Row, London");
+    contact.setVersion(version);
+    if (id != null && id % 2 == 0) {
+      contact.setAddress(id + " Engine Street");
+    }
+    return contact;
+  }
+
+  private static Path writeSnapshot() {
+    try {
+      Path file = Files.createTempFile("contacts", ".snapshot");
+      file.toFile().deleteOnExit();
+      try (OutputStream out = Files.newOutputStream(file);
+          ContactSnapshot.Writer writer = ContactSnapshot.writer(out)) {
+        for (Contact contact : SNAPSHOT) {
+          writer.write(contact);
+        }
+      }
+      return file;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
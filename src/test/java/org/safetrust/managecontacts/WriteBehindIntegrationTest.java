@@ -0,0 +1,155 @@
+package org.safetrust.managecontacts;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import com.jayway.jsonpath.JsonPath;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.writebehind.WriteBehindQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Runs the API with a write-behind flush interval long enough that queued writes are only written
+ * when a test asks for it, and with duplicate emails rejected.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "contact.write-behind.flush-interval=1h",
+      "contact.email.reject-duplicates=true"
+    })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class WriteBehindIntegrationTest {
+  @Autowired private TestRestTemplate restTemplate;
+  @Autowired private WriteBehindQueue writeBehindQueue;
+
+  @Test
+  public void testAsyncWritesAreQueuedCoalescedAndTracked() throws InterruptedException {
+    Contact contact = contact("Katherine Johnson", "katherine.johnson@example.com");
+    ResponseEntity<String> accepted =
+        restTemplate.exchange("/api/contact", HttpMethod.POST, async(contact), String.class);
+    assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    assertThat(accepted.getHeaders().getFirst("Preference-Applied")).isEqualTo("respond-async");
+    assertThat(accepted.getHeaders().getLocation().getPath()).startsWith("/api/contact/writes/");
+    String trackingId = JsonPath.read(accepted.getBody(), "$.trackingId");
+    assertThat(writeBehindQueue.queued()).isEqualTo(1);
+    writeBehindQueue.flushNow();
+    String created = awaitWrite(trackingId);
+    assertThat((String) JsonPath.read(created, "$.state")).isEqualTo("APPLIED");
+    long id = ((Number) JsonPath.read(created, "$.contactId")).longValue();
+    Contact before = restTemplate.getForObject("/api/contact/" + id, Contact.class);
+    long batches = writeBehindQueue.batches();
+
+    List<String> trackingIds = new ArrayList<>();
+    for (int i = 1; i <= 5; i++) {
+      contact.setName("Katherine Johnson " + i);
+      ResponseEntity<String> update =
+          restTemplate.exchange("/api/contact/" + id, HttpMethod.PUT, async(contact), String.class);
+      assertThat(update.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+      trackingIds.add(JsonPath.read(update.getBody(), "$.trackingId"));
+    }
+    assertThat(writeBehindQueue.queued()).isEqualTo(1);
+    assertThat(writeBehindQueue.coalesced()).isEqualTo(4L);
+
+    writeBehindQueue.flushNow();
+    for (String updateId : trackingIds) {
+      String status = awaitWrite(updateId);
+      assertThat((String) JsonPath.read(status, "$.state")).isEqualTo("APPLIED");
+      assertThat((Boolean) JsonPath.read(status, "$.coalesced")).isTrue();
+    }
+    assertThat(writeBehindQueue.batches()).isEqualTo(batches + 1);
+    Contact updated = restTemplate.getForObject("/api/contact/" + id, Contact.class);
+    assertThat(updated.getName()).isEqualTo("Katherine Johnson 5");
+    assertThat(updated.getVersion()).isEqualTo(before.getVersion() + 1);
+
+    ResponseEntity<String> unknown =
+        restTemplate.getForEntity("/api/contact/writes/no-such-write", String.class);
+    assertThat(unknown.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  @Test
+  public void testQueuedCreatesCannotDuplicateAnEmail() throws InterruptedException {
+    ResponseEntity<String> first =
+        restTemplate.exchange(
+            "/api/contact",
+            HttpMethod.POST,
+            async(contact("Mary Jackson", "mary.jackson@example.com")),
+            String.class);
+    assertThat(first.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    ResponseEntity<String> second =
+        restTemplate.exchange(
+            "/api/contact",
+            HttpMethod.POST,
+            async(contact("Mary Jackson", "Mary.Jackson@example.com")),
+            String.class);
+    assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+    // A synchronous create takes the email of a queued one before it is written.
+    ResponseEntity<String> queued =
+        restTemplate.exchange(
+            "/api/contact",
+            HttpMethod.POST,
+            async(contact("Christine Darden", "christine.darden@example.com")),
+            String.class);
+    assertThat(queued.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    ResponseEntity<Contact> direct =
+        restTemplate.postForEntity(
+            "/api/contact",
+            contact("Christine Darden", "christine.darden@example.com"),
+            Contact.class);
+    assertThat(direct.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    writeBehindQueue.flushNow();
+    String applied = awaitWrite(JsonPath.read(first.getBody(), "$.trackingId"));
+    assertThat((String) JsonPath.read(applied, "$.state")).isEqualTo("APPLIED");
+    String refused = awaitWrite(JsonPath.read(queued.getBody(), "$.trackingId"));
+    assertThat((String) JsonPath.read(refused, "$.state")).isEqualTo("FAILED");
+    assertThat((String) JsonPath.read(refused, "$.message")).contains("already exists");
+
+    ResponseEntity<String> again =
+        restTemplate.exchange(
+            "/api/contact",
+            HttpMethod.POST,
+            async(contact("Mary Jackson", "mary.jackson@example.com")),
+            String.class);
+    assertThat(again.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+  }
+
+  private static Contact contact(String name, String email) {
+    Contact contact = new Contact();
+    contact.setName(name);
+    contact.setEmail(email);
+    contact.setTelephoneNumber("+1757555012");
+    contact.setPostalAddress("1 NASA Drive, Hampton, VA 23666");
+    return contact;
+  }
+
+  private static HttpEntity<Contact> async(Contact contact) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set("Prefer", "respond-async");
+    return new HttpEntity<>(contact, headers);
+  }
+
+  /** Polls the status of an asynchronous write until it is no longer queued. */
+  private String awaitWrite(String trackingId) throws InterruptedException {
+    for (int attempt = 0; attempt < 100; attempt++) {
+      String status =
+          restTemplate.getForObject("/api/contact/writes/" + trackingId, String.class);
+      if (!"QUEUED".equals(JsonPath.read(status, "$.state"))) {
+        return status;
+      }
+      Thread.sleep(50);
+    }
+    throw new AssertionError("Write " + trackingId + " was not processed");
+  }
+}
@@ -0,0 +1,36 @@
+package org.safetrust.managecontacts.admission;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.admission.AdmissionControl.Outcome;
+import org.springframework.mock.env.MockEnvironment;
+
+/** Checks the order in which the rate limit and the in-flight cap apply. */
+public class AdmissionControlTest {
+  private final AdmissionControl admission =
+      new AdmissionControl(
+          new MockEnvironment()
+              .withProperty("contact.admission.read.rate", "0.001")
+              .withProperty("contact.admission.read.burst", "2")
+              .withProperty("contact.admission.read.max-in-flight", "1"),
+          true,
+          16);
+
+  @Test
+  public void testShedRequestsDoNotUseUpTheRateBudget() {
+    assertThat(admit()).isEqualTo(Outcome.ADMITTED);
+    assertThat(admit()).isEqualTo(Outcome.SHED);
+    assertThat(admit()).isEqualTo(Outcome.SHED);
+    admission.release(EndpointClass.READ);
+
+    assertThat(admit()).isEqualTo(Outcome.ADMITTED);
+    admission.release(EndpointClass.READ);
+    assertThat(admit()).isEqualTo(Outcome.RATE_LIMITED);
+    assertThat(admission.inFlight(EndpointClass.READ)).isEqualTo(0);
+  }
+
+  private Outcome admit() {
+    return admission.admit(EndpointClass.READ, "client").outcome();
+  }
+}
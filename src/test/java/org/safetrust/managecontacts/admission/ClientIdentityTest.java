@@ -0,0 +1,69 @@
+package org.safetrust.managecontacts.admission;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/** Checks which parts of a request may identify its client. */
+public class ClientIdentityTest {
+  private final ClientIdentity identity =
+      new ClientIdentity("X-Client-Id", List.of("127.0.0.1", "10.0.0.0/8", "::1"));
+
+  @Test
+  public void testUntrustedSendersAreIdentifiedByAddressOnly() {
+    MockHttpServletRequest request = request("203.0.113.5");
+    request.addHeader("X-Client-Id", "someone-else");
+    request.addHeader("X-Forwarded-For", "198.51.100.7");
+
+    assertThat(identity.of(request)).isEqualTo("addr:203.0.113.5");
+  }
+
+  @Test
+  public void testTrustedProxyMayNameTheClient() {
+    MockHttpServletRequest request = request("10.1.2.3");
+    request.addHeader("X-Client-Id", "batch-job");
+
+    assertThat(identity.of(request)).isEqualTo("id:batch-job");
+  }
+
+  @Test
+  public void testForwardedAddressSkipsTrustedHopsAndIgnoresSpoofedOnes() {
+    MockHttpServletRequest request = request("127.0.0.1");
+    request.addHeader("X-Forwarded-For", "192.0.2.1, 198.51.100.7, 10.0.0.2");
+
+    assertThat(identity.of(request)).isEqualTo("addr:198.51.100.7");
+
+    MockHttpServletRequest proxiesOnly = request("::1");
+    proxiesOnly.addHeader("X-Forwarded-For", "10.0.0.3");
+    assertThat(identity.of(proxiesOnly)).isEqualTo("addr:10.0.0.3");
+
+    MockHttpServletRequest direct = request("127.0.0.1");
+    assertThat(identity.of(direct)).isEqualTo("addr:127.0.0.1");
+  }
+
+  @Test
+  public void testPrincipalTakesPrecedence() {
+    MockHttpServletRequest request = request("203.0.113.5");
+    request.setUserPrincipal(() -> "alice");
+    request.addHeader("X-Client-Id", "batch-job");
+
+    assertThat(identity.of(request)).isEqualTo("user:alice");
+  }
+
+  @Test
+  public void testHostNamesAreNeverTrusted() {
+    ClientIdentity loopback = new ClientIdentity("X-Client-Id", List.of("127.0.0.0/8"));
+    MockHttpServletRequest request = request("localhost");
+    request.addHeader("X-Client-Id", "batch-job");
+
+    assertThat(loopback.of(request)).isEqualTo("addr:localhost");
+  }
+
+  private static MockHttpServletRequest request(String remoteAddress) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/contact");
+    request.setRemoteAddr(remoteAddress);
+    return request;
+  }
+}
@@ -0,0 +1,160 @@
+package org.safetrust.managecontacts.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.exception.DatabaseOverloadedException;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/** Checks connection limiting against an in-memory database and the limit's reaction to latency. */
+public class DatabaseConcurrencyLimiterTest {
+  private static final long MILLIS = 1_000_000L;
+
+  @Test
+  public void testConnectionsQueueUpToTheLimitAndOverflowIsRejected() throws Exception {
+    DatabaseConcurrencyLimiter limiter =
+        new DatabaseConcurrencyLimiter(true, 2, 2, 2, Duration.ofSeconds(10), 1, 0.75);
+    DataSource dataSource = limiter.limit(database());
+
+    Connection first = dataSource.getConnection();
+    Connection second = dataSource.getConnection();
+    assertThat(limiter.inFlight()).isEqualTo(2);
+
+    CompletableFuture<Connection> third =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return dataSource.getConnection();
+              } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+              }
+            });
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (limiter.queued() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(limiter.queued()).isEqualTo(1);
+    assertThat(third.isDone()).isFalse();
+
+    assertThatThrownBy(dataSource::getConnection).isInstanceOf(DatabaseOverloadedException.class);
+    assertThat(limiter.rejected()).isEqualTo(1L);
+
+    first.close();
+    first.close();
+    Connection granted = third.get(5, TimeUnit.SECONDS);
+    assertThat(limiter.queued()).isEqualTo(0);
+    assertThat(limiter.inFlight()).isEqualTo(2);
+    assertThat(granted.createStatement().execute("SELECT 1")).isTrue();
+
+    second.close();
+    granted.close();
+    assertThat(limiter.inFlight()).isEqualTo(0);
+    assertThat(limiter.acquired()).isEqualTo(3L);
+  }
+
+  @Test
+  public void testWaitingConnectionIsRejectedAfterMaxWait() throws Exception {
+    DatabaseConcurrencyLimiter limiter =
+        new DatabaseConcurrencyLimiter(true, 1, 1, 1, Duration.ofMillis(50), 10, 0.75);
+    DataSource dataSource = limiter.limit(database());
+
+    try (Connection held = dataSource.getConnection()) {
+      long start = System.nanoTime();
+      assertThatThrownBy(dataSource::getConnection)
+          .isInstanceOf(DatabaseOverloadedException.class);
+      assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50 * MILLIS);
+      assertThat(limiter.queued()).isEqualTo(0);
+      assertThat(limiter.rejected()).isEqualTo(1L);
+    }
+    try (Connection next = dataSource.getConnection()) {
+      assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testTasksOnOtherThreadsKeepTheCallersPriority() throws Exception {
+    DatabaseConcurrencyLimiter limiter =
+        new DatabaseConcurrencyLimiter(true, 2, 2, 2, Duration.ofMillis(50), 10, 0.5);
+    DataSource dataSource = limiter.limit(database());
+    Supplier<Callable<Connection>> lowPriorityTask =
+        limiter.withPriority(
+            Supplier.class,
+            (Supplier<Callable<Connection>>)
+                () -> DatabaseConcurrencyLimiter.withCurrentPriority(dataSource::getConnection),
+            method -> Priority.LOW);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (Connection low = executor.submit(lowPriorityTask.get()).get(5, TimeUnit.SECONDS)) {
+      // The only low-priority slot is taken, so another low-priority task has to wait ...
+      Future<Connection> secondLow = executor.submit(lowPriorityTask.get());
+      assertThatThrownBy(() -> secondLow.get(5, TimeUnit.SECONDS))
+          .hasCauseInstanceOf(DatabaseOverloadedException.class);
+      // ... while a task without a priority still gets the remaining slot.
+      try (Connection normal =
+          executor.submit((Callable<Connection>) dataSource::getConnection).get()) {
+        assertThat(limiter.inFlight()).isEqualTo(2);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testDisabledLimiterReturnsTheTargetUnchanged() {
+    DataSource target = database();
+    DatabaseConcurrencyLimiter limiter =
+        new DatabaseConcurrencyLimiter(false, 2, 2, 2, Duration.ofMillis(50), 1, 0.75);
+    assertThat(limiter.limit(target)).isSameAs(target);
+  }
+
+  @Test
+  public void testLimitGrowsWhileLatencyStaysAtBaseline() {
+    VegasLimit limit = new VegasLimit(10, 2, 64);
+    limit.onSample(MILLIS, 10);
+    assertThat(limit.limit()).isEqualTo(10);
+
+    limit.onSample(MILLIS, 10);
+    assertThat(limit.limit()).isEqualTo(16);
+    for (int i = 0; i < 20; i++) {
+      limit.onSample(MILLIS, limit.limit());
+    }
+    assertThat(limit.limit()).isEqualTo(64);
+  }
+
+  @Test
+  public void testLimitShrinksWhenLatencyRises() {
+    VegasLimit limit = new VegasLimit(20, 2, 64);
+    limit.onSample(MILLIS, 20);
+    limit.onSample(10 * MILLIS, 20);
+    assertThat(limit.limit()).isEqualTo(18);
+    for (int i = 0; i < 50; i++) {
+      limit.onSample(10 * MILLIS, limit.limit());
+    }
+    assertThat(limit.limit()).isBetween(2, 6);
+  }
+
+  @Test
+  public void testLimitIgnoresSamplesFarBelowIt() {
+    VegasLimit limit = new VegasLimit(20, 2, 64);
+    limit.onSample(MILLIS, 20);
+    limit.onSample(10 * MILLIS, 4);
+    limit.onSample(MILLIS, 4);
+    assertThat(limit.limit()).isEqualTo(20);
+  }
+
+  private static DataSource database() {
+    return new DriverManagerDataSource("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1");
+  }
+}
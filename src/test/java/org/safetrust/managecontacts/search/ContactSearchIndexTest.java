@@ -0,0 +1,67 @@
+package org.safetrust.managecontacts.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.entity.Contact;
+import org.safetrust.managecontacts.event.ContactChangedEvent;
+import org.safetrust.managecontacts.repository.ContactRepository;
+import org.springframework.data.domain.Limit;
+
+/**
+ * Checks that changes committed while the index is rebuilt win over the rows it read before, and
+ * that matches can be paged through in id order.
+ */
+public class ContactSearchIndexTest {
+  private final ContactRepository contactRepository = mock(ContactRepository.class);
+  private final ContactSearchIndex index = new ContactSearchIndex(contactRepository, true);
+
+  @Test
+  public void testPatchDuringRebuildIsNotOverwrittenByTheRowReadBeforeIt() {
+    Contact before = contact(1L, "Ada Lovelace");
+    Contact after = contact(1L, "Grace Hopper");
+    when(contactRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+        .thenAnswer(
+            invocation -> {
+              // The batch has read the row; the patch commits before the batch is indexed.
+              Contact changes = new Contact();
+              changes.setId(1L);
+              changes.setName("Grace Hopper");
+              index.onContactChanged(ContactChangedEvent.patched(changes));
+              return List.of(before);
+            });
+    when(contactRepository.findById(1L)).thenReturn(Optional.of(after));
+
+    index.rebuild();
+
+    assertThat(index.search("hopper", 0, 10).ids()).containsExactly(1L);
+    assertThat(index.search("lovelace", 0, 10).ids()).isEmpty();
+  }
+
+  @Test
+  public void testMatchIdsPagesThroughTheMatchesInIdOrder() {
+    index.index(contact(4L, "Ada Byron"));
+    index.index(contact(1L, "Ada Lovelace"));
+    index.index(contact(2L, "Grace Hopper"));
+    index.index(contact(5L, "Adam Smith"));
+    index.index(contact(3L, "Ada King"));
+
+    assertThat(index.matchIds("ada", Long.MIN_VALUE, 2)).containsExactly(1L, 3L);
+    assertThat(index.matchIds("ada", 3L, 2)).containsExactly(4L, 5L);
+    assertThat(index.matchIds("ada", 5L, 2)).isEmpty();
+    assertThat(index.matchIds("zed", Long.MIN_VALUE, 2)).isEmpty();
+  }
+
+  private static Contact contact(long id, String name) {
+    Contact contact =
+        new Contact(id, name, "contact@example.com", null, "555-0100", "PO Box 1, Springfield");
+    contact.setVersion(0L);
+    return contact;
+  }
+}
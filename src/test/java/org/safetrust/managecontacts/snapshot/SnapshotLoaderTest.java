@@ -0,0 +1,108 @@
+package org.safetrust.managecontacts.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.safetrust.managecontacts.entity.Contact;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Checks how the snapshot loader handles valid, missing and corrupt snapshots. */
+public class SnapshotLoaderTest {
+  private final DriverManagerDataSource dataSource =
+      new DriverManagerDataSource("jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1");
+  private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+  private final TransactionTemplate transactionTemplate =
+      new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+  @BeforeEach
+  public void createSchema() {
+    jdbcTemplate.execute("CREATE SEQUENCE contact_seq START WITH 1 INCREMENT BY 50");
+    jdbcTemplate.execute(
+        "CREATE TABLE Contact (id BIGINT PRIMARY KEY, version BIGINT, name VARCHAR(255),"
+            + " email VARCHAR(255), address VARCHAR(255), telephone_number VARCHAR(255),"
+            + " postal_address VARCHAR(255), email_key VARCHAR(255), phone_key VARCHAR(255))");
+  }
+
+  @AfterEach
+  public void dropSchema() {
+    jdbcTemplate.execute("DROP ALL OBJECTS");
+  }
+
+  @Test
+  public void testLoadsContactsInBatchesAndMovesTheSequence() throws IOException {
+    loader(new ByteArrayResource(snapshot(3)), 2).afterSingletonsInstantiated();
+
+    assertThat(count()).isEqualTo(3L);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT phone_key FROM Contact WHERE id = 30", String.class))
+        .isEqualTo("5550103");
+    assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR contact_seq", Long.class))
+        .isEqualTo(80L);
+  }
+
+  @Test
+  public void testMissingSnapshotFailsStartup() {
+    Resource missing = new FileSystemResource("build/no-such-dir/contacts.snapshot");
+
+    assertThatThrownBy(() -> loader(missing, 10).afterSingletonsInstantiated())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("not found");
+    assertThat(count()).isEqualTo(0L);
+  }
+
+  @Test
+  public void testCorruptSnapshotFailsStartupWithoutLoadingAnything() throws IOException {
+    byte[] valid = snapshot(3);
+    Resource truncated = new ByteArrayResource(Arrays.copyOf(valid, valid.length / 2));
+    assertThatThrownBy(() -> loader(truncated, 1).afterSingletonsInstantiated())
+        .isInstanceOf(UncheckedIOException.class);
+    assertThat(count()).isEqualTo(0L);
+
+    Resource garbage = new ByteArrayResource("not a snapshot".getBytes());
+    assertThatThrownBy(() -> loader(garbage, 10).afterSingletonsInstantiated())
+        .isInstanceOf(UncheckedIOException.class);
+    assertThat(count()).isEqualTo(0L);
+  }
+
+  private SnapshotLoader loader(Resource snapshot, int batchSize) {
+    return new SnapshotLoader(jdbcTemplate, transactionTemplate, snapshot, batchSize);
+  }
+
+  private long count() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Contact", Long.class);
+  }
+
+  /** Writes a snapshot of contacts with ids 10, 20, 30 and so on. */
+  private static byte[] snapshot(int contacts) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ContactSnapshot.Writer writer = ContactSnapshot.writer(out)) {
+      for (int i = 1; i <= contacts; i++) {
+        Contact contact =
+            new Contact(
+                i * 10L,
+                "Contact " + i,
+                "contact" + i + "@example.com",
+                null,
+                "555-010" + i,
+                "PO Box " + i);
+        contact.setVersion(0L);
+        writer.write(contact);
+      }
+    }
+    return out.toByteArray();
+  }
+}